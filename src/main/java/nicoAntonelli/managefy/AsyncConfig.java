@@ -0,0 +1,107 @@
+package nicoAntonelli.managefy;
+
+import nicoAntonelli.managefy.utils.ShardRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Executors for '@Async' work: mails (SMTP), error logs (JDBC), background jobs (JDBC, long running), change events
+// sequencing (JDBC, short: not queued behind the jobs) and change feed long polls (JDBC, short, off the request threads)
+// Virtual threads mode ('spring.threads.virtual.enabled'): one virtual thread per task, bounded by a concurrency limit
+// Error logs are the exception: a fixed pool (of virtual threads in that mode) with a bounded queue, a task that doesn't
+// fit is rejected right away (the caller drops it), never blocking nor failing the request thread reporting the error
+@Configuration
+@EnableAsync
+@SuppressWarnings("unused")
+public class AsyncConfig {
+    public static final String MAIL_EXECUTOR = "mailExecutor";
+    public static final String ERROR_LOG_EXECUTOR = "errorLogExecutor";
+    public static final String JOB_EXECUTOR = "jobExecutor";
+    public static final String CHANGE_EVENT_EXECUTOR = "changeEventExecutor";
+    public static final String CHANGE_FEED_EXECUTOR = "changeFeedExecutor";
+
+    private final Boolean virtualThreads;
+    private final Integer mailConcurrency;
+    private final Integer errorLogConcurrency;
+    private final Integer jobConcurrency;
+    private final Integer changeFeedConcurrency;
+
+    @Autowired
+    public AsyncConfig(Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        virtualThreads = env.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        mailConcurrency = env.getProperty("async.mail.concurrency", Integer.class, 4);
+
+        // Error logs use JDBC: never take more than a quarter of the pool away from requests
+        int poolSize = env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        errorLogConcurrency = env.getProperty("async.errorLogs.concurrency", Integer.class, Math.max(1, poolSize / 4));
+        jobConcurrency = env.getProperty("async.jobs.concurrency", Integer.class, 2);
+        changeFeedConcurrency = env.getProperty("async.changeFeed.concurrency", Integer.class, 2);
+    }
+
+    @Bean(name = MAIL_EXECUTOR)
+    public TaskExecutor mailExecutor() {
+        return buildExecutor("mail-", mailConcurrency);
+    }
+
+    @Bean(name = ERROR_LOG_EXECUTOR)
+    public TaskExecutor errorLogExecutor() {
+        return buildPool("errorLog-", errorLogConcurrency, task -> task, virtualThreads);
+    }
+
+    // Jobs keep the business shard of the code starting them (error logs & mails don't: global or no DB)
+    @Bean(name = JOB_EXECUTOR)
+    public TaskExecutor jobExecutor() {
+        return buildExecutor("job-", jobConcurrency, ShardRoutingDataSource::propagate);
+    }
+
+    // One at a time: sequencing is serial anyway (position row lock)
+    @Bean(name = CHANGE_EVENT_EXECUTOR)
+    public TaskExecutor changeEventExecutor() {
+        return buildExecutor("changeEvent-", 1, ShardRoutingDataSource::propagate);
+    }
+
+    // Waiting polls bind their business' shard themselves
+    @Bean(name = CHANGE_FEED_EXECUTOR)
+    public TaskExecutor changeFeedExecutor() {
+        return buildExecutor("changeFeed-", changeFeedConcurrency);
+    }
+
+    private TaskExecutor buildExecutor(String prefix, int concurrency) {
+        return buildExecutor(prefix, concurrency, task -> task);
+    }
+
+    private TaskExecutor buildExecutor(String prefix, int concurrency, TaskDecorator decorator) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrency);
+            executor.setTaskDecorator(decorator);
+            return executor;
+        }
+
+        return buildPool(prefix, concurrency, decorator, false);
+    }
+
+    // Full queue: 'TaskRejectedException' on 'execute'
+    private ThreadPoolTaskExecutor buildPool(String prefix, int concurrency, TaskDecorator decorator, boolean virtual) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(prefix);
+        if (virtual) executor.setThreadFactory(Thread.ofVirtual().name(prefix, 0).factory());
+        executor.setTaskDecorator(decorator);
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(1000);
+        executor.initialize();
+        return executor;
+    }
+}
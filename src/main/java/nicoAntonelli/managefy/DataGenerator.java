@@ -0,0 +1,264 @@
+package nicoAntonelli.managefy;
+
+import nicoAntonelli.managefy.entities.Business;
+import nicoAntonelli.managefy.entities.Sale;
+import nicoAntonelli.managefy.utils.PasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+// Synthetic dataset for load tests (PostgreSQL): JDBC batches with explicit IDs, same seed = same data (dates relative to today)
+// Users: 'gen<seed>.user<N>@managefy.com' with the 'generator.password', first user of every business is its Manager
+// Tip: add 'reWriteBatchedInserts=true' to the datasource URL (multi-row inserts), use another seed for another dataset
+@Configuration
+@SuppressWarnings("unused")
+public class DataGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(DataGenerator.class);
+
+    private final Boolean runGenerator;
+    private final Long seed;
+    private final Integer businesses;
+    private final Integer usersPerBusiness;
+    private final Integer suppliersPerBusiness;
+    private final Integer productsPerBusiness;
+    private final Integer clientsPerBusiness;
+    private final Integer days;
+    private final Integer salesPerDay;
+    private final Integer linesPerSale;
+    private final Integer batchSize;
+    private final String password;
+
+    @Autowired
+    public DataGenerator(Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        runGenerator = env.getProperty("generator.run", Boolean.class, false);
+        seed = env.getProperty("generator.seed", Long.class, 42L);
+        businesses = env.getProperty("generator.businesses", Integer.class, 10);
+        usersPerBusiness = env.getProperty("generator.usersPerBusiness", Integer.class, 5);
+        suppliersPerBusiness = env.getProperty("generator.suppliersPerBusiness", Integer.class, 20);
+        productsPerBusiness = env.getProperty("generator.productsPerBusiness", Integer.class, 500);
+        clientsPerBusiness = env.getProperty("generator.clientsPerBusiness", Integer.class, 200);
+        days = env.getProperty("generator.days", Integer.class, 90);
+        salesPerDay = env.getProperty("generator.salesPerDay", Integer.class, 50);
+        linesPerSale = env.getProperty("generator.linesPerSale", Integer.class, 3);
+        batchSize = env.getProperty("generator.batchSize", Integer.class, 1000);
+        password = env.getProperty("generator.password", "Generated1");
+    }
+
+    @Bean
+    CommandLineRunner dataGeneratorRunner(JdbcTemplate jdbcTemplate) {
+        return _ -> {
+            // Don't run generator clause
+            if (!runGenerator) return;
+
+            long start = System.nanoTime();
+            long rows = generate(jdbcTemplate);
+            logger.info("{} rows (seed {}) in {} seconds", rows, seed, String.format("%.1f", (System.nanoTime() - start) / 1e9));
+        };
+    }
+
+    private long generate(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(seed);
+
+        // Explicit IDs: after the current ones, sequences realigned at the end
+        long userID = nextID(jdbcTemplate, "users");
+        long businessID = nextID(jdbcTemplate, "businesses");
+        long supplierID = nextID(jdbcTemplate, "suppliers");
+        long productID = nextID(jdbcTemplate, "products");
+        long clientID = nextID(jdbcTemplate, "clients");
+        long saleID = nextID(jdbcTemplate, "sales");
+        long paymentID = nextID(jdbcTemplate, "payments");
+
+        // Tables in foreign key order (a full batch flushes every table before it)
+        Writer writer = new Writer(jdbcTemplate, batchSize);
+        Table users = writer.table("INSERT INTO users (id, email, password, name, validated, email_notifications) VALUES (?, ?, ?, ?, ?, ?)");
+        Table businessesTable = writer.table("INSERT INTO businesses (id, name, description, link, is_public, business_days) VALUES (?, ?, ?, ?, ?, CAST(? AS jsonb))");
+        Table userRoles = writer.table("INSERT INTO user_roles (userid, businessid, is_manager, is_admin, is_collaborator) VALUES (?, ?, ?, ?, ?)");
+        Table suppliers = writer.table("INSERT INTO suppliers (id, name, description, email, phone) VALUES (?, ?, ?, ?, ?)");
+        Table products = writer.table("INSERT INTO products (id, code, name, description, unit_cost, unit_price, stock, available, stock_min, stock_gap, sale_min_amount, businessid, supplierid) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        Table clients = writer.table("INSERT INTO clients (id, name, description, email, phone) VALUES (?, ?, ?, ?, ?)");
+        Table sales = writer.table("INSERT INTO sales (id, date, total_price, partial_payment, state, observation, businessid, clientid) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+        Table saleLines = writer.table("INSERT INTO sale_lines (saleid, position, amount, price, cost, discount_surcharge, productid) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        Table payments = writer.table("INSERT INTO payments (id, amount, date, idempotency_key, saleid, businessid) VALUES (?, ?, ?, ?, ?, ?)");
+        Table receivables = writer.table("INSERT INTO receivables (saleid, date, outstanding, businessid, clientid) VALUES (?, ?, ?, ?, ?)");
+
+        // Hashing is slow on purpose: once for every user
+        String passwordHash = PasswordEncoder.getInstance().encode(password);
+        String businessDays = new Business().getBusinessDays().entrySet().stream()
+                .map(day -> "\"" + day.getKey() + "\":" + day.getValue())
+                .collect(Collectors.joining(",", "{", "}"));
+        LocalDateTime firstDay = LocalDate.now().minusDays(days).atStartOfDay();
+        BigDecimal discount = new BigDecimal("0.90");
+        int userNumber = 0;
+
+        for (int b = 0; b < businesses; b++, businessID++) {
+            businessesTable.add(businessID, "Generated business " + (b + 1), "Synthetic business (seed " + seed + ")",
+                    "gen" + seed + "-" + (b + 1), b % 4 == 0, businessDays);
+
+            // Users & roles: Manager, Admin, then Collaborators
+            for (int u = 0; u < usersPerBusiness; u++, userID++) {
+                userNumber++;
+                users.add(userID, "gen" + seed + ".user" + userNumber + "@managefy.com", passwordHash,
+                        "Generated user " + userNumber, true, false);
+                userRoles.add(userID, businessID, u == 0, u == 1, u > 1);
+            }
+
+            long firstSupplier = supplierID;
+            for (int s = 0; s < suppliersPerBusiness; s++, supplierID++) {
+                suppliers.add(supplierID, "Supplier " + (s + 1) + " of business " + (b + 1), null,
+                        "supplier" + supplierID + "@mail.com", String.valueOf(1_000_000 + supplierID));
+            }
+
+            // Products: cost, price & stock (big enough for load tests), a few with min stock / min sale amount
+            long firstProduct = productID;
+            BigDecimal[] costs = new BigDecimal[productsPerBusiness];
+            BigDecimal[] prices = new BigDecimal[productsPerBusiness];
+            for (int p = 0; p < productsPerBusiness; p++, productID++) {
+                costs[p] = BigDecimal.valueOf(100 + random.nextInt(20_000), 2);
+                prices[p] = costs[p].multiply(BigDecimal.valueOf(110 + random.nextInt(60), 2)).setScale(2, RoundingMode.HALF_UP);
+                Long supplier = suppliersPerBusiness > 0 && random.nextInt(10) < 8 ? firstSupplier + random.nextInt(suppliersPerBusiness) : null;
+
+                int stock = 10_000 + random.nextInt(90_000);
+                Integer stockMin = random.nextInt(10) < 3 ? 10 + random.nextInt(40) : null;
+                products.add(productID, String.format("P%05d", p + 1), "Product " + (p + 1), "Synthetic product",
+                        costs[p], prices[p], stock, stock, stockMin, stockMin != null ? stock - stockMin : null,
+                        random.nextInt(20) == 0 ? 2 : null,
+                        businessID, supplier);
+            }
+
+            long firstClient = clientID;
+            for (int c = 0; c < clientsPerBusiness; c++, clientID++) {
+                clients.add(clientID, "Client " + (c + 1) + " of business " + (b + 1), null,
+                        "client" + clientID + "@mail.com", String.valueOf(2_000_000 + clientID));
+            }
+
+            // Sales through the days (business hours), skewed to a few popular products
+            for (int d = 0; d < days; d++) {
+                for (int s = 0; s < salesPerDay; s++, saleID++) {
+                    LocalDateTime date = firstDay.plusDays(d).plusHours(8).plusSeconds(random.nextInt(12 * 3600));
+                    int lines = 1 + random.nextInt(Math.max(1, 2 * linesPerSale - 1));
+                    BigDecimal total = BigDecimal.ZERO;
+
+                    for (int l = 0; l < lines && productsPerBusiness > 0; l++) {
+                        int p = random.nextInt(10) < 7 ? random.nextInt(Math.max(1, productsPerBusiness / 10)) : random.nextInt(productsPerBusiness);
+                        int amount = 1 + random.nextInt(5);
+                        BigDecimal surcharge = random.nextInt(5) == 0 ? discount : BigDecimal.ONE;
+
+                        saleLines.add(saleID, l + 1, amount, prices[p], costs[p], surcharge, firstProduct + p);
+                        total = total.add(BigDecimal.valueOf(amount).multiply(prices[p]).multiply(surcharge));
+                    }
+
+                    Sale.SaleState state = randomState(random);
+                    BigDecimal partialPayment = switch (state) {
+                        case Paid, PaidAndBilled -> total;
+                        case PartialPayment -> total.divide(BigDecimal.TWO, 2, RoundingMode.HALF_UP);
+                        default -> null;
+                    };
+                    Long client = clientsPerBusiness > 0 && random.nextInt(10) < 7 ? firstClient + random.nextInt(clientsPerBusiness) : null;
+
+                    sales.add(saleID, Timestamp.valueOf(date), total, partialPayment, state.ordinal(), null, businessID, client);
+
+                    // Paid (all or part of it) at the sale's date: its payment
+                    if (partialPayment != null && partialPayment.signum() > 0) {
+                        payments.add(paymentID++, partialPayment, Timestamp.valueOf(date), null, saleID, businessID);
+                    }
+
+                    // Unpaid ones: their balance, as 'ReceivableService' keeps it
+                    if (state == Sale.SaleState.PendingPayment || state == Sale.SaleState.PartialPayment) {
+                        BigDecimal outstanding = partialPayment != null ? total.subtract(partialPayment) : total;
+                        receivables.add(saleID, Timestamp.valueOf(date), outstanding, businessID, client);
+                    }
+                }
+            }
+        }
+
+        long rows = writer.flush();
+
+        // Next IDs generated by the app (allocation size 50): after the generated ones
+        for (String table : List.of("users", "businesses", "suppliers", "products", "clients", "sales", "payments")) {
+            jdbcTemplate.queryForObject("SELECT setval('" + table + "_sequence', GREATEST((SELECT COALESCE(MAX(id), 0) FROM " + table + "), 1))", Long.class);
+        }
+
+        return rows;
+    }
+
+    private static Sale.SaleState randomState(Random random) {
+        int value = random.nextInt(100);
+        if (value < 65) return Sale.SaleState.Paid;
+        if (value < 75) return Sale.SaleState.PaidAndBilled;
+        if (value < 87) return Sale.SaleState.PendingPayment;
+        if (value < 95) return Sale.SaleState.PartialPayment;
+        return Sale.SaleState.Cancelled;
+    }
+
+    // Maximum between table and sequence: IDs already handed out by the app are skipped too
+    private static long nextID(JdbcTemplate jdbcTemplate, String table) {
+        Long maxID = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Long sequence = jdbcTemplate.queryForObject("SELECT last_value FROM " + table + "_sequence", Long.class);
+        return Math.max(maxID != null ? maxID : 0, sequence != null ? sequence : 0) + 1;
+    }
+
+    private static final class Writer {
+        private final JdbcTemplate jdbcTemplate;
+        private final int batchSize;
+        private final List<Table> tables = new ArrayList<>();
+        private long rows = 0;
+
+        private Writer(JdbcTemplate jdbcTemplate, int batchSize) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.batchSize = batchSize;
+        }
+
+        private Table table(String sql) {
+            Table table = new Table(this, sql);
+            tables.add(table);
+            return table;
+        }
+
+        private long flush() {
+            for (Table table : tables) {
+                if (table.pending.isEmpty()) continue;
+
+                jdbcTemplate.batchUpdate(table.sql, table.pending);
+                rows += table.pending.size();
+                table.pending.clear();
+            }
+
+            return rows;
+        }
+    }
+
+    private static final class Table {
+        private final Writer writer;
+        private final String sql;
+        private final List<Object[]> pending = new ArrayList<>();
+
+        private Table(Writer writer, String sql) {
+            this.writer = writer;
+            this.sql = sql;
+        }
+
+        private void add(Object... values) {
+            pending.add(values);
+            if (pending.size() >= writer.batchSize) writer.flush();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package nicoAntonelli.managefy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import nicoAntonelli.managefy.utils.ReplicaRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+// Read replica ('datasource.replica.enabled'): read-only transactions on a second pool, everything else on the primary
+// Replica lag checked on a fixed delay, the routing falls back to the primary while it's behind, down, or older than
+// what the reader needs (see 'ReplicaRoutingDataSource'). Locally: a second Postgres (any, lag 0) or H2 with 'SELECT 0'
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+@SuppressWarnings("unused")
+public class DataSourceConfig {
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    // Caught up (same WAL received & replayed) = 0, not a standby (nulls) = 0, otherwise the age of the last replayed commit
+    private static final String postgresLagQuery =
+            "SELECT COALESCE(CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END, 0)";
+
+    private final Environment env;
+    private final Long maxLagMillis;
+    private final String lagQuery;
+
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routing;
+
+    @Autowired
+    public DataSourceConfig(Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        this.env = env;
+        maxLagMillis = env.getProperty("datasource.replica.maxLagMillis", Long.class, 2000L);
+        lagQuery = env.getProperty("datasource.replica.lagQuery", postgresLagQuery);
+    }
+
+    // Same settings as without a replica ('spring.datasource.*' & 'spring.datasource.hikari.*')
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(env.getRequiredProperty("datasource.replica.url"));
+        replica.setUsername(env.getProperty("datasource.replica.username", properties.determineUsername()));
+        replica.setPassword(env.getProperty("datasource.replica.password", properties.determinePassword()));
+        replica.setMaximumPoolSize(env.getProperty("datasource.replica.maximumPoolSize", Integer.class, 20));
+        replica.setConnectionTimeout(env.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 5000L));
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    // The one JPA uses: the physical connection is taken at the first statement, from the pool the routing picks
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") HikariDataSource replica,
+                                 MeterRegistry registry) {
+        routing = new ReplicaRoutingDataSource(primary, replica, maxLagMillis);
+        routing.afterPropertiesSet();
+        CheckReplicaLag();
+
+        for (ReplicaRoutingDataSource.Target target : ReplicaRoutingDataSource.Target.values()) {
+            FunctionCounter.builder("managefy.datasource.routed", routing, r -> r.routedTo(target))
+                    .description("Connections taken by the routing, by target")
+                    .tag("target", target.name().toLowerCase())
+                    .register(registry);
+        }
+        Gauge.builder("managefy.datasource.replica.lag", routing, r -> r.lagMillis())
+                .description("Replica lag in milliseconds (-1: unknown or down)")
+                .baseUnit("milliseconds")
+                .register(registry);
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lagCheckMillis:1000}")
+    public void CheckReplicaLag() {
+        if (routing == null || replica == null) return;
+
+        long checkedAt = System.currentTimeMillis();
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(lagQuery)) {
+            result.next();
+            routing.updateLag(checkedAt, (long) result.getDouble(1));
+        }
+        catch (Exception ex) {
+            routing.replicaDown();
+            logger.warn("Replica lag check failed, reads go to the primary: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package nicoAntonelli.managefy;
+
+import nicoAntonelli.managefy.services.ErrorLogService;
+import nicoAntonelli.managefy.utils.Exceptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// Monthly partitions for 'errorLogs' (see 'db/errorLogs-partitioning.sql'): retention is a cheap partition drop
+@Configuration
+@EnableScheduling
+@SuppressWarnings("unused")
+public class ErrorLogPartitions {
+    private static final String table = "error_logs";
+    private static final String prefix = table + "_p";
+    private static final DateTimeFormatter suffixFormat = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ErrorLogService errorLogService;
+    private final Boolean enabled;
+    private final Integer monthsAhead;
+    private final Integer retentionMonths;
+
+    @Autowired
+    public ErrorLogPartitions(JdbcTemplate jdbcTemplate, ErrorLogService errorLogService, Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.errorLogService = errorLogService;
+        enabled = env.getProperty("errorLogs.partitions.enabled", Boolean.class, false);
+        monthsAhead = env.getProperty("errorLogs.partitions.monthsAhead", Integer.class, 2);
+        retentionMonths = env.getProperty("errorLogs.partitions.retentionMonths", Integer.class, 6);
+    }
+
+    @Bean
+    CommandLineRunner errorLogPartitionsRunner() {
+        return _ -> maintainPartitions();
+    }
+
+    // Daily at 03:00
+    @Scheduled(cron = "0 0 3 * * *")
+    public void maintainPartitions() {
+        // Don't run partitioning clause
+        if (!enabled) return;
+
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+
+        // Every partition entirely before the retention limit is dropped
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        for (String partition : getPartitions()) {
+            try {
+                YearMonth month = YearMonth.parse(partition.substring(prefix.length()), suffixFormat);
+                if (month.isBefore(oldestKept)) {
+                    jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                }
+            }
+            catch (Exception ex) {
+                errorLogService.SetBackendError("Error at 'maintainPartitions' - Couldn't drop partition: " + partition, Exceptions.InternalServerErrorException.status, ex);
+            }
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = prefix + month.format(suffixFormat);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table +
+                                 " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        }
+        catch (Exception ex) {
+            errorLogService.SetBackendError("Error at 'createPartition' - Couldn't create partition: " + partition, Exceptions.InternalServerErrorException.status, ex);
+        }
+    }
+
+    private List<String> getPartitions() {
+        return jdbcTemplate.queryForList("SELECT child.relname " +
+                                         "FROM pg_inherits " +
+                                         "INNER JOIN pg_class parent ON pg_inherits.inhparent = parent.oid " +
+                                         "INNER JOIN pg_class child ON pg_inherits.inhrelid = child.oid " +
+                                         "WHERE parent.relname = ? AND child.relname LIKE ?",
+                                         String.class, table, prefix + "%");
+    }
+}
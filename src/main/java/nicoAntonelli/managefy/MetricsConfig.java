@@ -0,0 +1,31 @@
+package nicoAntonelli.managefy;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import nicoAntonelli.managefy.utils.ReplicaRoutingDataSource;
+import nicoAntonelli.managefy.utils.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Metrics scraped at '/actuator/prometheus' (management port, see 'monitoring/prometheus.yml'). Out of the box with actuator:
+// endpoints (http.server.requests), repositories (spring.data.repository.invocations), Hikari pool & executors queues
+// Added here: '@Timed' services (managefy.service) and SQL statements per request (managefy.http.sql.statements)
+@Configuration
+@SuppressWarnings("unused")
+public class MetricsConfig {
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    // Every statement prepared by Hibernate goes through the counter (and the replica routing: writes of the user)
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        SqlStatementCounter counter = new SqlStatementCounter();
+        StatementInspector inspector = sql -> ReplicaRoutingDataSource.inspect(counter.inspect(sql));
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+}
@@ -0,0 +1,96 @@
+package nicoAntonelli.managefy;
+
+import jakarta.persistence.EntityManagerFactory;
+import nicoAntonelli.managefy.entities.dto.BusinessCU;
+import nicoAntonelli.managefy.services.ShardDirectory;
+import nicoAntonelli.managefy.utils.Exceptions;
+import nicoAntonelli.managefy.utils.RequestConnection;
+import nicoAntonelli.managefy.utils.ShardRoutingDataSource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+
+// Every service call bound to the shard of its business, before its transaction starts (the connection comes from it):
+// a 'businessID' parameter (directory), a 'notificationID' (ID range) or a DTO with the business ('getBusinessID';
+// 'BusinessCU': its ID, or the shard for a new one). Without any of them the call stays where it is (shard 0 at first)
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShardRoutingAspect {
+    private static final ClassValue<Method> businessGetters = new ClassValue<>() {
+        @Override
+        protected Method computeValue(Class<?> type) {
+            try {
+                Method getter = type.getMethod("getBusinessID");
+                return getter.getReturnType() == Long.class ? getter : null;
+            }
+            catch (NoSuchMethodException ex) {
+                return null;
+            }
+        }
+    };
+
+    private final ShardDirectory shardDirectory;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ShardRoutingAspect(ShardDirectory shardDirectory, EntityManagerFactory entityManagerFactory) {
+        this.shardDirectory = shardDirectory;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Around("execution(public * nicoAntonelli.managefy.services.*Service.*(..))")
+    public Object Route(ProceedingJoinPoint point) throws Throwable {
+        Integer shard = ShardOf(point);
+        int current = ShardRoutingDataSource.currentShard();
+        if (shard == null || shard == current) return point.proceed();
+
+        // A transaction can't span shards: its connection is already taken from another one
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new Exceptions.InternalServerErrorException("Error at 'Route' - Call to '" + point.getSignature().getName() + "' needs shard " + shard + " inside a transaction on shard " + current);
+        }
+
+        // Open-in-view's connection released: the next one is taken from the new shard
+        RequestConnection.release(entityManagerFactory);
+        Integer previous = ShardRoutingDataSource.bind(shard);
+        try {
+            return point.proceed();
+        }
+        finally {
+            ShardRoutingDataSource.bind(previous);
+        }
+    }
+
+    private Integer ShardOf(ProceedingJoinPoint point) {
+        String[] names = ((MethodSignature) point.getSignature()).getParameterNames();
+        Object[] args = point.getArgs();
+
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            if (arg == null) continue;
+
+            if (arg instanceof Number id && "businessID".equals(names[i])) return shardDirectory.ShardOfBusiness(id.longValue());
+            if (arg instanceof Number id && "notificationID".equals(names[i])) return shardDirectory.ShardOfID(id.longValue());
+            if (arg instanceof BusinessCU business) {
+                return business.getId() != null ? shardDirectory.ShardOfBusiness(business.getId()) : shardDirectory.ShardForNewBusiness();
+            }
+
+            Method getter = businessGetters.get(arg.getClass());
+            if (getter != null) {
+                try {
+                    Long businessID = (Long) getter.invoke(arg);
+                    if (businessID != null) return shardDirectory.ShardOfBusiness(businessID);
+                }
+                catch (ReflectiveOperationException ex) {
+                    throw new Exceptions.InternalServerErrorException("Error at 'ShardOf' - Business of '" + arg.getClass().getSimpleName() + "' unreadable", ex);
+                }
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,130 @@
+package nicoAntonelli.managefy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import nicoAntonelli.managefy.services.ShardDirectory;
+import nicoAntonelli.managefy.utils.ShardRoutingDataSource;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Business sharding ('datasource.shards.enabled'): shard 0 is 'spring.datasource', the others 'datasource.shards.urls'
+// Service calls are bound to the shard of their business ('ShardRoutingAspect'), user-scoped queries fan out
+// ('ShardDirectory'). Existing databases: see 'db/business-shards.sql'. Locally (H2 or empty Postgres databases with
+// 'ddl-auto' create): the schema is exported to every shard and their sequences moved to their ID ranges
+@Configuration
+@ConditionalOnProperty(name = "datasource.shards.enabled", havingValue = "true")
+@SuppressWarnings("unused")
+public class ShardingConfig {
+    private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+
+    private final Environment env;
+    private final List<String> urls;
+    private final String ddlAuto;
+
+    @Autowired
+    public ShardingConfig(Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+        if (env.getProperty("datasource.replica.enabled", Boolean.class, false)) {
+            throw new RuntimeException("Read replica and sharding can't be enabled together (one routing 'DataSource')");
+        }
+
+        this.env = env;
+        urls = List.of(env.getProperty("datasource.shards.urls", String[].class, new String[0]));
+        ddlAuto = env.getProperty("spring.jpa.hibernate.ddl-auto", "none");
+    }
+
+    // Shard 0: same settings as without sharding ('spring.datasource.*' & 'spring.datasource.hikari.*')
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties) {
+        List<DataSource> shards = new ArrayList<>();
+
+        HikariDataSource home = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(home));
+        home.setPoolName("shard0");
+        shards.add(home);
+
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard" + (i + 1));
+            shard.setJdbcUrl(urls.get(i).trim());
+            shard.setUsername(env.getProperty("datasource.shards.username", properties.determineUsername()));
+            shard.setPassword(env.getProperty("datasource.shards.password", properties.determinePassword()));
+            shard.setMaximumPoolSize(env.getProperty("datasource.shards.maximumPoolSize", Integer.class, home.getMaximumPoolSize()));
+            shard.setConnectionTimeout(home.getConnectionTimeout());
+            shards.add(shard);
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    // The one JPA uses: the physical connection is taken at the first statement, from the shard bound then
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ShardRoutingAspect shardRoutingAspect(ShardDirectory shardDirectory, EntityManagerFactory entityManagerFactory) {
+        return new ShardRoutingAspect(shardDirectory, entityManagerFactory);
+    }
+
+    // Before any other runner (migrations, generator) and before resuming deletions
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    CommandLineRunner shardSchemasRunner(ShardRoutingDataSource routing, ShardDirectory shardDirectory, EntityManagerFactory entityManagerFactory) {
+        return _ -> {
+            // Same as 'ddl-auto' did on shard 0
+            if (List.of("create", "create-drop").contains(ddlAuto)) {
+                SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+                for (int shard = 1; shard < routing.count(); shard++) {
+                    ShardRoutingDataSource.on(shard, () -> {
+                        sessionFactory.getSchemaManager().dropMappedObjects(true);
+                        sessionFactory.getSchemaManager().exportMappedObjects(true);
+                        return null;
+                    });
+                    MoveSequences(new JdbcTemplate(routing.shard(shard)), shard * shardDirectory.IDRange());
+                }
+            }
+
+            shardDirectory.Refresh();
+        };
+    }
+
+    // Empty shard: sequences moved to its range, ahead of the allocation size (pooled IDs start below the sequence value)
+    private void MoveSequences(JdbcTemplate shard, long start) {
+        Long businesses = shard.queryForObject("SELECT COUNT(*) FROM businesses", Long.class);
+        if (businesses != null && businesses > 0) return;
+
+        List<String> sequences = shard.queryForList("SELECT sequence_name FROM information_schema.sequences " +
+                                                    "WHERE sequence_schema = CURRENT_SCHEMA", String.class);
+        for (String sequence : sequences) {
+            shard.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (start + 50));
+        }
+
+        logger.info("Shard sequences moved to {}: {}", start, sequences);
+    }
+}
@@ -0,0 +1,38 @@
+package nicoAntonelli.managefy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+// Content negotiation: JSON by default, CBOR with 'Accept: application/cbor' (see 'WireFormat'). The converter shares
+// the JSON mapper's settings & modules, so both formats have the same fields. Compression: 'server.compression.*'
+// Modules (registered in the application's mapper by Boot): Hibernate-aware writes & reflection-free property access
+@Configuration
+@SuppressWarnings("unused")
+public class WireFormatConfig {
+    // Ahead of Spring's default one (built from its own mapper), still after JSON: '*/*' keeps getting JSON
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory()));
+    }
+
+    // Writes never initialize a proxy or a lazy collection (no queries while writing a response, services load what
+    // the responses include): unloaded ones go out as their ID or null. '@Transient' fields (calculated) are still written
+    @Bean
+    public Hibernate6Module hibernate6Module() {
+        Hibernate6Module module = new Hibernate6Module();
+        module.disable(Hibernate6Module.Feature.USE_TRANSIENT_ANNOTATION);
+        module.enable(Hibernate6Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
+        return module;
+    }
+
+    // Getters, setters & record accessors called through generated lambdas instead of reflective calls
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
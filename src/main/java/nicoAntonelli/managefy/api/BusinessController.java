@@ -3,19 +3,22 @@ package nicoAntonelli.managefy.api;
 import nicoAntonelli.managefy.entities.Business;
 import nicoAntonelli.managefy.entities.User;
 import nicoAntonelli.managefy.entities.dto.BusinessCU;
+import nicoAntonelli.managefy.entities.dto.BusinessDeletion;
 import nicoAntonelli.managefy.services.AuthService;
 import nicoAntonelli.managefy.services.BusinessService;
-import nicoAntonelli.managefy.services.ErrorLogService;
+import nicoAntonelli.managefy.services.PublicBusinessCache;
 import nicoAntonelli.managefy.services.UserRoleService;
-import nicoAntonelli.managefy.utils.Exceptions;
+import nicoAntonelli.managefy.utils.WireFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @SuppressWarnings("unused")
@@ -24,156 +27,98 @@ public class BusinessController {
     private final BusinessService businessService;
     private final UserRoleService userRoleService; // Dependency
     private final AuthService authService; // Dependency
-    private final ErrorLogService errorLogService; // Dependency
+    private final PublicBusinessCache publicBusinessCache; // Dependency
 
     @Autowired
     public BusinessController(BusinessService businessService,
                               UserRoleService userRoleService,
                               AuthService authService,
-                              ErrorLogService errorLogService) {
+                              PublicBusinessCache publicBusinessCache) {
         this.businessService = businessService;
         this.userRoleService = userRoleService;
         this.authService = authService;
-        this.errorLogService = errorLogService;
+        this.publicBusinessCache = publicBusinessCache;
     }
 
     @GetMapping
     public ResponseEntity<List<Business>> GetBusinesses(@RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetBusinesses");
-
-            List<Business> businesses = businessService.GetBusinesses(user);
-            return ResponseEntity.status(HttpStatus.OK).body(businesses);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "GetBusinesses");
+
+        List<Business> businesses = businessService.GetBusinesses(user);
+        return ResponseEntity.status(HttpStatus.OK).body(businesses);
     }
 
     @GetMapping(path = "{businessID:[\\d]+}")
     public ResponseEntity<Business> GetOneBusiness(@PathVariable("businessID") Long businessID,
                                                    @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetOneBusiness");
-
-            Business business = businessService.GetOneBusiness(businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(business);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "GetOneBusiness");
+
+        Business business = businessService.GetOneBusiness(businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(business);
     }
 
     @GetMapping(path = "/link/{link:[A-Za-z0-9_-]+}")
     public ResponseEntity<Business> GetOneBusinessByLink(@PathVariable("link") String link,
                                                          @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetOneBusinessByLink");
-
-            Business business = businessService.GetOneBusinessByLink(link, user);
-            return ResponseEntity.status(HttpStatus.OK).body(business);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "GetOneBusinessByLink");
+
+        Business business = businessService.GetOneBusinessByLink(link, user);
+        return ResponseEntity.status(HttpStatus.OK).body(business);
     }
 
     @GetMapping(path = "/linkPublic/{link:[A-Za-z0-9_-]+}")
-    public ResponseEntity<Business> GetOneBusinessByLinkPublic(@PathVariable("link") String link) {
-        try {
-            Business business = businessService.GetOneBusinessByLinkPublic(link);
-            return ResponseEntity.status(HttpStatus.OK).body(business);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+    public ResponseEntity<byte[]> GetOneBusinessByLinkPublic(@PathVariable("link") String link,
+                                                             @RequestHeader HttpHeaders headers) {
+        // Page cached by link (DB only on a miss), downstream caches can keep it for the same TTL
+        PublicBusinessCache.Page page = publicBusinessCache.Get(link, () -> businessService.GetOneBusinessByLinkPublic(link));
+        CacheControl cacheControl = CacheControl.maxAge(publicBusinessCache.GetTTLSeconds(), TimeUnit.SECONDS).cachePublic();
+
+        if (WireFormat.matches(headers, page.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(page.etag()).cacheControl(cacheControl).build();
         }
+
+        return ResponseEntity.status(HttpStatus.OK).eTag(page.etag()).cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON).body(page.json());
     }
 
     @PostMapping
     public ResponseEntity<Business> CreateBusiness(@RequestBody BusinessCU businessCU,
                                                    @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "CreateBusiness");
-
-            Business business = businessService.CreateBusiness(businessCU, user);
-
-            // Set new manager role
-            userRoleService.CreateUserRoleForNewBusiness(user.getId(), business.getId());
-
-            return ResponseEntity.status(HttpStatus.OK).body(business);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "CreateBusiness");
+
+        Business business = businessService.CreateBusiness(businessCU, user);
+
+        // Set new manager role
+        userRoleService.CreateUserRoleForNewBusiness(user.getId(), business.getId());
+
+        return ResponseEntity.status(HttpStatus.OK).body(business);
     }
 
     @PutMapping
     public ResponseEntity<Business> UpdateBusiness(@RequestBody BusinessCU businessCU,
                                                    @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "UpdateBusiness");
-
-            Business business = businessService.UpdateBusiness(businessCU, user);
-            return ResponseEntity.status(HttpStatus.OK).body(business);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "UpdateBusiness");
+
+        Business business = businessService.UpdateBusiness(businessCU, user);
+        return ResponseEntity.status(HttpStatus.OK).body(business);
     }
 
+    @GetMapping(path = "{businessID:[\\d]+}/deletion")
+    public ResponseEntity<BusinessDeletion> GetBusinessDeletion(@PathVariable("businessID") Long businessID,
+                                                                @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "GetBusinessDeletion");
+
+        BusinessDeletion deletion = businessService.GetBusinessDeletion(businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(deletion);
+    }
+
+    // Accepted: the deletion continues in background (progress at 'GetBusinessDeletion')
     @DeleteMapping(path = "{businessID:[\\d]+}")
-    public ResponseEntity<Long> DeleteBusiness(@PathVariable("businessID") Long businessID,
-                                               @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "DeleteBusiness");
-
-            businessID = businessService.DeleteBusiness(businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(businessID);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+    public ResponseEntity<BusinessDeletion> DeleteBusiness(@PathVariable("businessID") Long businessID,
+                                                           @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "DeleteBusiness");
+
+        BusinessDeletion deletion = businessService.DeleteBusiness(businessID, user);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(deletion);
     }
 }
@@ -0,0 +1,45 @@
+package nicoAntonelli.managefy.api;
+
+import nicoAntonelli.managefy.entities.User;
+import nicoAntonelli.managefy.entities.dto.ChangeFeed;
+import nicoAntonelli.managefy.services.AuthService;
+import nicoAntonelli.managefy.services.ChangeEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+@RestController
+@SuppressWarnings("unused")
+@RequestMapping(path = "api/events")
+public class ChangeEventController {
+    private final ChangeEventService changeEventService;
+    private final AuthService authService; // Dependency
+
+    @Autowired
+    public ChangeEventController(ChangeEventService changeEventService,
+                                 AuthService authService) {
+        this.changeEventService = changeEventService;
+        this.authService = authService;
+    }
+
+    // JSON (payloads in base64) or 'Accept: application/cbor' (payloads as raw bytes)
+    // Async: a waiting poll releases the request's thread until its feed completes
+    @GetMapping(path = "business/{businessID:[\\d]+}")
+    public DeferredResult<ResponseEntity<ChangeFeed>> GetEvents(@PathVariable("businessID") Long businessID,
+                                                @RequestParam(required = false) Long after,
+                                                @RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) Long waitMillis,
+                                                @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "GetEvents");
+
+        DeferredResult<ResponseEntity<ChangeFeed>> result = new DeferredResult<>();
+        changeEventService.GetEvents(businessID, after, limit, waitMillis, user).whenComplete((feed, ex) -> {
+            if (ex != null) result.setErrorResult(ex);
+            else result.setResult(ResponseEntity.status(HttpStatus.OK).body(feed));
+        });
+        return result;
+    }
+}
@@ -3,16 +3,16 @@ package nicoAntonelli.managefy.api;
 import nicoAntonelli.managefy.entities.Client;
 import nicoAntonelli.managefy.entities.User;
 import nicoAntonelli.managefy.entities.dto.ClientCU;
+import nicoAntonelli.managefy.entities.dto.ClientDeduplication;
 import nicoAntonelli.managefy.services.AuthService;
 import nicoAntonelli.managefy.services.ClientService;
-import nicoAntonelli.managefy.services.ErrorLogService;
-import nicoAntonelli.managefy.utils.Exceptions;
+import nicoAntonelli.managefy.utils.WireFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -22,116 +22,87 @@ import java.util.List;
 public class ClientController {
     private final ClientService clientService;
     private final AuthService authService; // Dependency
-    private final ErrorLogService errorLogService; // Dependency
 
     @Autowired
     public ClientController(ClientService clientService,
-                            AuthService authService,
-                            ErrorLogService errorLogService) {
+                            AuthService authService) {
         this.clientService = clientService;
         this.authService = authService;
-        this.errorLogService = errorLogService;
     }
 
     @GetMapping(path = "business/{businessID:[\\d]+}")
     public ResponseEntity<List<Client>> GetClients(@PathVariable("businessID") Long businessID,
                                                    @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetClients");
-
-            List<Client> clients = clientService.GetClients(businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(clients);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+        User user = authService.validateTokenFromHeaders(headers, "GetClients");
+
+        // Conditional GET: same list version (and format) = not modified (access validated, without loading the list)
+        boolean cbor = WireFormat.prefersCbor(headers);
+        String etag = WireFormat.eTag(clientService.GetClientsETag(businessID, user), cbor);
+        if (WireFormat.matches(headers, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT).build();
         }
+
+        List<Client> clients = clientService.GetClients(businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT).contentType(WireFormat.contentType(cbor)).body(clients);
+    }
+
+    @GetMapping(path = "business/{businessID:[\\d]+}/search")
+    public ResponseEntity<List<Client>> SearchClients(@PathVariable("businessID") Long businessID,
+                                                      @RequestParam String query,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "SearchClients");
+
+        List<Client> clients = clientService.SearchClients(businessID, query, limit, user);
+        return ResponseEntity.status(HttpStatus.OK).body(clients);
     }
 
     @GetMapping(path = "{clientID:[\\d]+}/business/{businessID:[\\d]+}")
     public ResponseEntity<Client> GetOneClient(@PathVariable("clientID") Long clientID,
                                                @PathVariable("businessID") Long businessID,
                                                @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetOneClient");
-
-            Client client = clientService.GetOneClient(clientID, businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(client);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "GetOneClient");
+
+        Client client = clientService.GetOneClient(clientID, businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(client);
     }
 
     @PostMapping
     public ResponseEntity<Client> CreateClient(@RequestBody ClientCU clientCU,
                                                @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "CreateClient");
-
-            Client client = clientService.CreateClient(clientCU, user);
-            return ResponseEntity.status(HttpStatus.OK).body(client);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "CreateClient");
+
+        Client client = clientService.CreateClient(clientCU, user);
+        return ResponseEntity.status(HttpStatus.OK).body(client);
     }
 
     @PutMapping
     public ResponseEntity<Client> UpdateClient(@RequestBody ClientCU clientCU,
                                                @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "UpdateClient");
-
-            Client client = clientService.UpdateClient(clientCU, user);
-            return ResponseEntity.status(HttpStatus.OK).body(client);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "UpdateClient");
+
+        Client client = clientService.UpdateClient(clientCU, user);
+        return ResponseEntity.status(HttpStatus.OK).body(client);
+    }
+
+    @PostMapping(path = "business/{businessID:[\\d]+}/deduplicate")
+    public ResponseEntity<ClientDeduplication> DeduplicateClients(@PathVariable("businessID") Long businessID,
+                                                                  @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "DeduplicateClients");
+
+        ClientDeduplication deduplication = clientService.DeduplicateClients(businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(deduplication);
     }
 
     @DeleteMapping(path = "{clientID:[\\d]+}/business/{businessID:[\\d]+}")
     public ResponseEntity<Long> DeleteClient(@PathVariable("clientID") Long clientID,
                                              @PathVariable("businessID") Long businessID,
                                              @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "DeleteClient");
-
-            clientID = clientService.DeleteClient(clientID, businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(clientID);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "DeleteClient");
+
+        clientID = clientService.DeleteClient(clientID, businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(clientID);
     }
 }
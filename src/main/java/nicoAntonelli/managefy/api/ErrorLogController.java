@@ -1,15 +1,14 @@
 package nicoAntonelli.managefy.api;
 
 import nicoAntonelli.managefy.entities.ErrorLog;
+import nicoAntonelli.managefy.entities.dto.ErrorLogPage;
 import nicoAntonelli.managefy.services.AuthService;
 import nicoAntonelli.managefy.services.ErrorLogService;
-import nicoAntonelli.managefy.utils.Exceptions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -28,83 +27,43 @@ public class ErrorLogController {
     }
 
     @GetMapping
-    public ResponseEntity<List<ErrorLog>> GetErrorLogs(@RequestHeader HttpHeaders headers) {
-        try {
-            authService.validateTokenFromHeaders(headers, "GetErrorLogs");
+    public ResponseEntity<ErrorLogPage> GetErrorLogs(@RequestParam(required = false) String origin,
+                                                     @RequestParam(required = false) String httpCode,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestHeader HttpHeaders headers) {
+        authService.validateTokenFromHeaders(headers, "GetErrorLogs");
 
-            List<ErrorLog> errors = errorLogService.GetErrors();
-            return ResponseEntity.status(HttpStatus.OK).body(errors);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        ErrorLogPage errors = errorLogService.GetErrors(origin, httpCode, cursor, limit);
+        return ResponseEntity.status(HttpStatus.OK).body(errors);
     }
 
     @GetMapping(path = "front")
     public ResponseEntity<List<ErrorLog>> GetFrontendErrors(@RequestParam String from,
                                                             @RequestParam String to,
                                                             @RequestHeader HttpHeaders headers) {
-        try {
-            authService.validateTokenFromHeaders(headers, "GetFrontendErrors");
+        authService.validateTokenFromHeaders(headers, "GetFrontendErrors");
 
-            List<ErrorLog> errors = errorLogService.GetFrontendErrorsByInterval(from, to);
-            return ResponseEntity.status(HttpStatus.OK).body(errors);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        List<ErrorLog> errors = errorLogService.GetFrontendErrorsByInterval(from, to);
+        return ResponseEntity.status(HttpStatus.OK).body(errors);
     }
 
     @GetMapping(path = "back")
     public ResponseEntity<List<ErrorLog>> GetBackendErrorsByInterval(@RequestParam String from,
                                                                      @RequestParam String to,
                                                                      @RequestHeader HttpHeaders headers) {
-        try {
-            authService.validateTokenFromHeaders(headers, "GetBackendErrorsByInterval");
+        authService.validateTokenFromHeaders(headers, "GetBackendErrorsByInterval");
 
-            List<ErrorLog> errors = errorLogService.GetBackendErrorsByInterval(from, to);
-            return ResponseEntity.status(HttpStatus.OK).body(errors);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        List<ErrorLog> errors = errorLogService.GetBackendErrorsByInterval(from, to);
+        return ResponseEntity.status(HttpStatus.OK).body(errors);
     }
 
     @PostMapping
     public ResponseEntity<Boolean> SetFrontendError(@RequestBody ErrorLog errorLog,
                                                     @RequestHeader HttpHeaders headers) {
-        try {
-            authService.validateTokenFromHeaders(headers, "SetFrontendError");
+        authService.validateTokenFromHeaders(headers, "SetFrontendError");
 
-            Boolean operationResult = errorLogService.SetFrontendError(errorLog);
-            return ResponseEntity.status(HttpStatus.OK).body(operationResult);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        Boolean operationResult = errorLogService.SetFrontendError(errorLog);
+        return ResponseEntity.status(HttpStatus.OK).body(operationResult);
     }
 }
@@ -0,0 +1,58 @@
+package nicoAntonelli.managefy.api;
+
+import jakarta.servlet.http.HttpServletRequest;
+import nicoAntonelli.managefy.services.ErrorLogService;
+import nicoAntonelli.managefy.utils.Exceptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Single error pipeline for every controller: log once, then map to the response (same body as Spring's '/error')
+@RestControllerAdvice
+@SuppressWarnings("unused")
+public class GlobalExceptionHandler {
+    private final ErrorLogService errorLogService; // Dependency
+
+    @Autowired
+    public GlobalExceptionHandler(ErrorLogService errorLogService) {
+        this.errorLogService = errorLogService;
+    }
+
+    @ExceptionHandler(Exceptions.ManagefyException.class)
+    public ResponseEntity<Map<String, Object>> HandleManagefyException(Exceptions.ManagefyException ex, HttpServletRequest req) {
+        errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
+        return ErrorResponseEntity(ex.getHttpStatus(), ex.getMessage(), req.getRequestURI());
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Map<String, Object>> HandleException(Exception ex, HttpServletRequest req) {
+        // Spring MVC's own errors (missing param, unreadable body...) keep their status and aren't logged
+        if (ex instanceof ErrorResponse errorResponse) {
+            return ErrorResponseEntity(errorResponse.getStatusCode(), ex.getMessage(), req.getRequestURI());
+        }
+
+        errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
+        return ErrorResponseEntity(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), req.getRequestURI());
+    }
+
+    public static ResponseEntity<Map<String, Object>> ErrorResponseEntity(HttpStatusCode status, String message, String path) {
+        HttpStatus httpStatus = HttpStatus.resolve(status.value());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", OffsetDateTime.now());
+        body.put("status", status.value());
+        body.put("error", httpStatus != null ? httpStatus.getReasonPhrase() : null);
+        body.put("message", message);
+        body.put("path", path);
+
+        return ResponseEntity.status(status).body(body);
+    }
+}
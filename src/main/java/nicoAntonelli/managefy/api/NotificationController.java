@@ -4,15 +4,14 @@ import nicoAntonelli.managefy.entities.Notification;
 import nicoAntonelli.managefy.entities.User;
 import nicoAntonelli.managefy.entities.dto.NotificationC;
 import nicoAntonelli.managefy.services.AuthService;
-import nicoAntonelli.managefy.services.ErrorLogService;
 import nicoAntonelli.managefy.services.NotificationService;
-import nicoAntonelli.managefy.utils.Exceptions;
+import nicoAntonelli.managefy.utils.WireFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -22,114 +21,65 @@ import java.util.List;
 public class NotificationController {
     private final NotificationService notificationService;
     private final AuthService authService; // Dependency
-    private final ErrorLogService errorLogService; // Dependency
 
     @Autowired
     public NotificationController(NotificationService notificationService,
-                                  AuthService authService,
-                                  ErrorLogService errorLogService) {
+                                  AuthService authService) {
         this.notificationService = notificationService;
         this.authService = authService;
-        this.errorLogService = errorLogService;
     }
 
     @GetMapping
     public ResponseEntity<List<Notification>> GetNotifications(@RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetNotifications");
+        User user = authService.validateTokenFromHeaders(headers, "GetNotifications");
 
-            List<Notification> notifications = notificationService.GetNotifications(user);
-            return ResponseEntity.status(HttpStatus.OK).body(notifications);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+        // Conditional GET: same list version (and format) = not modified (without loading the list)
+        boolean cbor = WireFormat.prefersCbor(headers);
+        String etag = WireFormat.eTag(notificationService.GetNotificationsETag(user), cbor);
+        if (WireFormat.matches(headers, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT).build();
         }
+
+        List<Notification> notifications = notificationService.GetNotifications(user);
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT).contentType(WireFormat.contentType(cbor)).body(notifications);
     }
 
     @GetMapping(path = "{notificationID:[\\d]+}")
     public ResponseEntity<Notification> GetOneNotification(@PathVariable("notificationID") Long notificationID,
                                                            @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetOneNotification");
+        User user = authService.validateTokenFromHeaders(headers, "GetOneNotification");
 
-            Notification notification = notificationService.GetOneNotification(notificationID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(notification);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        Notification notification = notificationService.GetOneNotification(notificationID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(notification);
     }
 
     @PostMapping
     public ResponseEntity<Notification> CreateNotification(@RequestBody NotificationC notificationC,
                                                            @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "CreateNotification");
+        User user = authService.validateTokenFromHeaders(headers, "CreateNotification");
 
-            Notification notification = notificationService.CreateNotification(notificationC, user);
-            return ResponseEntity.status(HttpStatus.OK).body(notification);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        Notification notification = notificationService.CreateNotification(notificationC, user);
+        return ResponseEntity.status(HttpStatus.OK).body(notification);
     }
 
     @PutMapping(path = "{notificationID:[\\d]+}/state/{state:[a-zA-Z]+}")
     public ResponseEntity<Notification> UpdateNotificationState(@PathVariable("notificationID") Long notificationID,
                                                                 @PathVariable("state") String state,
                                                                 @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "UpdateNotificationState");
+        User user = authService.validateTokenFromHeaders(headers, "UpdateNotificationState");
 
-            Notification notification = notificationService.UpdateNotificationState(notificationID, state, user);
-            return ResponseEntity.status(HttpStatus.OK).body(notification);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        Notification notification = notificationService.UpdateNotificationState(notificationID, state, user);
+        return ResponseEntity.status(HttpStatus.OK).body(notification);
     }
 
     @DeleteMapping(path = "{notificationID:[\\d]+}")
     public ResponseEntity<Long> CloseNotification(@PathVariable("notificationID") Long notificationID,
                                                   @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "CloseNotification");
+        User user = authService.validateTokenFromHeaders(headers, "CloseNotification");
 
-            notificationID = notificationService.CloseNotification(notificationID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(notificationID);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        notificationID = notificationService.CloseNotification(notificationID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(notificationID);
     }
 }
@@ -1,18 +1,22 @@
 package nicoAntonelli.managefy.api;
 
+import nicoAntonelli.managefy.entities.InventoryMovement;
 import nicoAntonelli.managefy.entities.Product;
 import nicoAntonelli.managefy.entities.User;
 import nicoAntonelli.managefy.entities.dto.ProductCU;
+import nicoAntonelli.managefy.entities.dto.ProductSearch;
+import nicoAntonelli.managefy.entities.dto.ReorderReport;
 import nicoAntonelli.managefy.services.AuthService;
-import nicoAntonelli.managefy.services.ErrorLogService;
+import nicoAntonelli.managefy.services.InventoryService;
+import nicoAntonelli.managefy.services.ProductCatalogCache;
 import nicoAntonelli.managefy.services.ProductService;
-import nicoAntonelli.managefy.utils.Exceptions;
+import nicoAntonelli.managefy.utils.WireFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -21,118 +25,117 @@ import java.util.List;
 @RequestMapping(path = "api/products")
 public class ProductController {
     private final ProductService productService;
+    private final InventoryService inventoryService; // Dependency
     private final AuthService authService; // Dependency
-    private final ErrorLogService errorLogService; // Dependency
 
     @Autowired
     public ProductController(ProductService productService,
-                             AuthService authService,
-                             ErrorLogService errorLogService) {
+                             InventoryService inventoryService,
+                             AuthService authService) {
         this.productService = productService;
+        this.inventoryService = inventoryService;
         this.authService = authService;
-        this.errorLogService = errorLogService;
     }
 
     @GetMapping(path = "business/{businessID:[\\d]+}")
-    public ResponseEntity<List<Product>> GetProducts(@PathVariable("businessID") Long businessID,
-                                                     @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetProducts");
-
-            List<Product> products = productService.GetProducts(businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(products);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+    public ResponseEntity<byte[]> GetProducts(@PathVariable("businessID") Long businessID,
+                                              @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "GetProducts");
+
+        // Prebuilt JSON (or CBOR) of the catalog, conditional GET: same ETag = not modified
+        ProductCatalogCache.Snapshot catalog = productService.GetProductCatalog(businessID, user);
+        boolean cbor = WireFormat.prefersCbor(headers);
+        String etag = WireFormat.eTag(catalog.etag(), cbor);
+        if (WireFormat.matches(headers, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT).build();
         }
+
+        byte[] body = cbor ? catalog.cbor() : catalog.json();
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT).contentType(WireFormat.contentType(cbor)).body(body);
+    }
+
+    @GetMapping(path = "business/{businessID:[\\d]+}/search")
+    public ResponseEntity<ProductSearch> SearchProducts(@PathVariable("businessID") Long businessID,
+                                                        @RequestParam String query,
+                                                        @RequestParam(required = false) Integer page,
+                                                        @RequestParam(required = false) Integer size,
+                                                        @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "SearchProducts");
+
+        ProductSearch search = productService.SearchProducts(businessID, query, page, size, user);
+        return ResponseEntity.status(HttpStatus.OK).body(search);
+    }
+
+    @GetMapping(path = "business/{businessID:[\\d]+}/reorder")
+    public ResponseEntity<ReorderReport> GetReorderReport(@PathVariable("businessID") Long businessID,
+                                                          @RequestParam(required = false) Integer velocityDays,
+                                                          @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "GetReorderReport");
+
+        ReorderReport report = productService.GetReorderReport(businessID, velocityDays, user);
+        return ResponseEntity.status(HttpStatus.OK).body(report);
     }
 
     @GetMapping(path = "business/{businessID:[\\d]+}/supplier/{supplierID:[\\d]+}")
     public ResponseEntity<List<Product>> GetProductsBySupplier(@PathVariable("businessID") Long businessID,
                                                                @PathVariable("supplierID") Long supplierID,
                                                                @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetProductsBySupplier");
-
-            List<Product> products = productService.GetProductsBySupplier(businessID, supplierID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(products);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "GetProductsBySupplier");
+
+        List<Product> products = productService.GetProductsBySupplier(businessID, supplierID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(products);
     }
 
     @GetMapping(path = "{productID:[\\d]+}/business/{businessID:[\\d]+}")
     public ResponseEntity<Product> GetOneProduct(@PathVariable("productID") Long productID,
                                                  @PathVariable("businessID") Long businessID,
                                                  @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetOneProduct");
-
-            Product product = productService.GetOneProduct(productID, businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(product);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "GetOneProduct");
+
+        Product product = productService.GetOneProduct(productID, businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(product);
+    }
+
+    @GetMapping(path = "{productID:[\\d]+}/business/{businessID:[\\d]+}/movements")
+    public ResponseEntity<List<InventoryMovement>> GetMovements(@PathVariable("productID") Long productID,
+                                                                @PathVariable("businessID") Long businessID,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "GetMovements");
+
+        List<InventoryMovement> movements = inventoryService.GetMovements(productID, businessID, limit, user);
+        return ResponseEntity.status(HttpStatus.OK).body(movements);
+    }
+
+    @GetMapping(path = "{productID:[\\d]+}/business/{businessID:[\\d]+}/stock")
+    public ResponseEntity<Integer> GetStockAt(@PathVariable("productID") Long productID,
+                                              @PathVariable("businessID") Long businessID,
+                                              @RequestParam String date,
+                                              @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "GetStockAt");
+
+        Integer stock = inventoryService.GetStockAt(productID, businessID, date, user);
+        return ResponseEntity.status(HttpStatus.OK).body(stock);
     }
 
     @PostMapping
     public ResponseEntity<Product> CreateProduct(@RequestBody ProductCU productCU,
                                                  @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "CreateProduct");
-
-            Product product = productService.CreateProduct(productCU, user);
-            return ResponseEntity.status(HttpStatus.OK).body(product);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "CreateProduct");
+
+        Product product = productService.CreateProduct(productCU, user);
+        return ResponseEntity.status(HttpStatus.OK).body(product);
     }
 
     @PutMapping
     public ResponseEntity<Product> UpdateProduct(@RequestBody ProductCU productCU,
                                                  @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "UpdateProduct");
-
-            Product product = productService.UpdateProduct(productCU, user);
-            return ResponseEntity.status(HttpStatus.OK).body(product);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "UpdateProduct");
+
+        Product product = productService.UpdateProduct(productCU, user);
+        return ResponseEntity.status(HttpStatus.OK).body(product);
     }
 
     @PutMapping(path = "{productID:[\\d]+}/business/{businessID:[\\d]+}/stock/{stock:[\\d]+}")
@@ -140,21 +143,10 @@ public class ProductController {
                                                       @PathVariable("businessID") Long businessID,
                                                       @PathVariable("stock") Integer stock,
                                                       @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "UpdateProductStock");
-
-            Product product = productService.UpdateProductStock(productID, businessID, stock, user);
-            return ResponseEntity.status(HttpStatus.OK).body(product);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "UpdateProductStock");
+
+        Product product = productService.UpdateProductStock(productID, businessID, stock, user);
+        return ResponseEntity.status(HttpStatus.OK).body(product);
     }
 
     @PutMapping(path = "{productID:[\\d]+}/business/{businessID:[\\d]+}/supplier/{supplierID:[\\d]+}")
@@ -162,62 +154,29 @@ public class ProductController {
                                                                  @PathVariable("businessID") Long businessID,
                                                                  @PathVariable("supplierID") Long supplierID,
                                                                  @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "UpdateOrAddSupplierForProduct");
-
-            Product product = productService.UpdateOrAddSupplierForProduct(productID, businessID, supplierID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(product);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "UpdateOrAddSupplierForProduct");
+
+        Product product = productService.UpdateOrAddSupplierForProduct(productID, businessID, supplierID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(product);
     }
 
     @PutMapping(path = "{productID:[\\d]+}/business/{businessID:[\\d]+}/eraseSupplier")
     public ResponseEntity<Product> EraseSupplierForProduct(@PathVariable("productID") Long productID,
                                                            @PathVariable("businessID") Long businessID,
                                                            @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "EraseSupplierForProduct");
-
-            Product product = productService.EraseSupplierForProduct(productID, businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(product);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "EraseSupplierForProduct");
+
+        Product product = productService.EraseSupplierForProduct(productID, businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(product);
     }
 
     @DeleteMapping(path = "{productID:[\\d]+}/business/{businessID:[\\d]+}")
     public ResponseEntity<Long> DeleteProduct(@PathVariable("productID") Long productID,
                                               @PathVariable("businessID") Long businessID,
                                               @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "DeleteProduct");
-
-            productID = productService.DeleteProduct(productID, businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(productID);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "DeleteProduct");
+
+        productID = productService.DeleteProduct(productID, businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(productID);
     }
 }
@@ -1,18 +1,20 @@
 package nicoAntonelli.managefy.api;
 
+import nicoAntonelli.managefy.entities.Payment;
 import nicoAntonelli.managefy.entities.Sale;
 import nicoAntonelli.managefy.entities.User;
+import nicoAntonelli.managefy.entities.dto.CashFlow;
+import nicoAntonelli.managefy.entities.dto.Receivables;
 import nicoAntonelli.managefy.entities.dto.SaleC;
 import nicoAntonelli.managefy.services.AuthService;
-import nicoAntonelli.managefy.services.ErrorLogService;
+import nicoAntonelli.managefy.services.PaymentService;
+import nicoAntonelli.managefy.services.ReceivableService;
 import nicoAntonelli.managefy.services.SaleService;
-import nicoAntonelli.managefy.utils.Exceptions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -22,57 +24,38 @@ import java.util.List;
 @RequestMapping(path = "api/sales")
 public class SaleController {
     private final SaleService saleService;
+    private final ReceivableService receivableService; // Dependency
+    private final PaymentService paymentService; // Dependency
     private final AuthService authService; // Dependency
-    private final ErrorLogService errorLogService; // Dependency
 
     @Autowired
     public SaleController(SaleService saleService,
-                          AuthService authService,
-                          ErrorLogService errorLogService) {
+                          ReceivableService receivableService,
+                          PaymentService paymentService,
+                          AuthService authService) {
         this.saleService = saleService;
+        this.receivableService = receivableService;
+        this.paymentService = paymentService;
         this.authService = authService;
-        this.errorLogService = errorLogService;
     }
 
     @GetMapping(path = "business/{businessID:[\\d]+}")
     public ResponseEntity<List<Sale>> GetSalesIncomplete(@PathVariable("businessID") Long businessID,
                                                          @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetSalesIncomplete");
-
-            List<Sale> sales = saleService.GetSalesIncomplete(businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(sales);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "GetSalesIncomplete");
+
+        List<Sale> sales = saleService.GetSalesIncomplete(businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(sales);
     }
 
     @GetMapping(path = "business/{businessID:[\\d]+}/client/{clientID:[\\d]+}")
     public ResponseEntity<List<Sale>> GetSalesByClient(@PathVariable("businessID") Long businessID,
                                                        @PathVariable("clientID") Long clientID,
                                                        @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetSalesByClient");
-
-            List<Sale> sales = saleService.GetSalesByClient(businessID, clientID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(sales);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "GetSalesByClient");
+
+        List<Sale> sales = saleService.GetSalesByClient(businessID, clientID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(sales);
     }
 
     @GetMapping(path = "business/{businessID:[\\d]+}/interval")
@@ -80,62 +63,71 @@ public class SaleController {
                                                          @RequestParam String from,
                                                          @RequestParam String to,
                                                          @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetSalesByInterval");
-
-            List<Sale> sales = saleService.GetSalesByInterval(businessID, from, to, user);
-            return ResponseEntity.status(HttpStatus.OK).body(sales);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "GetSalesByInterval");
+
+        List<Sale> sales = saleService.GetSalesByInterval(businessID, from, to, user);
+        return ResponseEntity.status(HttpStatus.OK).body(sales);
+    }
+
+    @GetMapping(path = "business/{businessID:[\\d]+}/receivables")
+    public ResponseEntity<Receivables> GetReceivables(@PathVariable("businessID") Long businessID,
+                                                      @RequestParam(required = false) Boolean businessDays,
+                                                      @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "GetReceivables");
+
+        Receivables receivables = receivableService.GetReceivables(businessID, businessDays, user);
+        return ResponseEntity.status(HttpStatus.OK).body(receivables);
+    }
+
+    @GetMapping(path = "business/{businessID:[\\d]+}/client/{clientID:[\\d]+}/receivables")
+    public ResponseEntity<Receivables> GetClientReceivables(@PathVariable("businessID") Long businessID,
+                                                            @PathVariable("clientID") Long clientID,
+                                                            @RequestParam(required = false) Boolean businessDays,
+                                                            @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "GetClientReceivables");
+
+        Receivables receivables = receivableService.GetClientReceivables(businessID, clientID, businessDays, user);
+        return ResponseEntity.status(HttpStatus.OK).body(receivables);
+    }
+
+    @GetMapping(path = "business/{businessID:[\\d]+}/cashFlow")
+    public ResponseEntity<CashFlow> GetCashFlow(@PathVariable("businessID") Long businessID,
+                                                @RequestParam String from,
+                                                @RequestParam String to,
+                                                @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "GetCashFlow");
+
+        CashFlow cashFlow = paymentService.GetCashFlow(businessID, from, to, user);
+        return ResponseEntity.status(HttpStatus.OK).body(cashFlow);
+    }
+
+    @GetMapping(path = "{saleID:[\\d]+}/business/{businessID:[\\d]+}/payments")
+    public ResponseEntity<List<Payment>> GetSalePayments(@PathVariable("saleID") Long saleID,
+                                                         @PathVariable("businessID") Long businessID,
+                                                         @RequestHeader HttpHeaders headers) {
+        User user = authService.validateTokenFromHeaders(headers, "GetSalePayments");
+
+        List<Payment> payments = paymentService.GetSalePayments(saleID, businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(payments);
     }
 
     @GetMapping(path = "{saleID:[\\d]+}/business/{businessID:[\\d]+}")
     public ResponseEntity<Sale> GetOneSale(@PathVariable("saleID") Long saleID,
                                            @PathVariable("businessID") Long businessID,
                                            @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetOneSale");
-
-            Sale sale = saleService.GetOneSale(saleID, businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(sale);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "GetOneSale");
+
+        Sale sale = saleService.GetOneSale(saleID, businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(sale);
     }
 
     @PostMapping
     public ResponseEntity<Sale> CreateSale(@RequestBody SaleC saleC,
                                            @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "CreateSale");
-
-            Sale sale = saleService.CreateSale(saleC, user);
-            return ResponseEntity.status(HttpStatus.OK).body(sale);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "CreateSale");
+
+        Sale sale = saleService.CreateSale(saleC, user);
+        return ResponseEntity.status(HttpStatus.OK).body(sale);
     }
 
     @PutMapping(path = "{saleID}/business/{businessID:[\\d]+}/observation/{observation}")
@@ -143,21 +135,10 @@ public class SaleController {
                                                       @PathVariable("businessID") Long businessID,
                                                       @PathVariable("observation") String observation,
                                                       @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "UpdateSaleObservation");
-
-            Sale sale = saleService.UpdateSaleObservation(saleID, businessID, observation, user);
-            return ResponseEntity.status(HttpStatus.OK).body(sale);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "UpdateSaleObservation");
+
+        Sale sale = saleService.UpdateSaleObservation(saleID, businessID, observation, user);
+        return ResponseEntity.status(HttpStatus.OK).body(sale);
     }
 
     @PutMapping(path = "{saleID}/business/{businessID:[\\d]+}/state/{state:[a-zA-Z]+}")
@@ -165,43 +146,22 @@ public class SaleController {
                                                 @PathVariable("businessID") Long businessID,
                                                 @PathVariable("state") String state,
                                                 @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "UpdateSaleState");
-
-            Sale sale = saleService.UpdateSaleState(saleID, businessID, state, user);
-            return ResponseEntity.status(HttpStatus.OK).body(sale);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "UpdateSaleState");
+
+        Sale sale = saleService.UpdateSaleState(saleID, businessID, state, user);
+        return ResponseEntity.status(HttpStatus.OK).body(sale);
     }
 
     @PutMapping(path = "{saleID:[\\d]+}/business/{businessID:[\\d]+}/partialPayment/{partialPayment:(?:[0-9]*[.])?[0-9]+}")
     public ResponseEntity<Sale> UpdateSalePartialPayment(@PathVariable("saleID") Long saleID,
                                                          @PathVariable("businessID") Long businessID,
                                                          @PathVariable("partialPayment") BigDecimal partialPayment,
+                                                         @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
                                                          @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "UpdateSalePartialPayment");
-
-            Sale sale = saleService.UpdateSalePartialPayment(saleID, businessID, partialPayment, user);
-            return ResponseEntity.status(HttpStatus.OK).body(sale);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "UpdateSalePartialPayment");
+
+        Sale sale = saleService.UpdateSalePartialPayment(saleID, businessID, partialPayment, idempotencyKey, user);
+        return ResponseEntity.status(HttpStatus.OK).body(sale);
     }
 
     @PutMapping(path = "{saleID}/business/{businessID:[\\d]+}/client/{clientID:[\\d]+}")
@@ -209,62 +169,29 @@ public class SaleController {
                                                          @PathVariable("businessID") Long businessID,
                                                          @PathVariable("clientID") Long clientID,
                                                          @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "UpdateOrAddClientForSale");
-
-            Sale sale = saleService.UpdateOrAddClientForSale(saleID, businessID, clientID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(sale);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "UpdateOrAddClientForSale");
+
+        Sale sale = saleService.UpdateOrAddClientForSale(saleID, businessID, clientID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(sale);
     }
 
     @PutMapping(path = "{saleID}/business/{businessID:[\\d]+}/eraseClient")
     public ResponseEntity<Sale> EraseClientForSale(@PathVariable("saleID") Long saleID,
                                                    @PathVariable("businessID") Long businessID,
                                                    @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "EraseClientForSale");
-
-            Sale sale = saleService.EraseClientForSale(saleID, businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(sale);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "EraseClientForSale");
+
+        Sale sale = saleService.EraseClientForSale(saleID, businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(sale);
     }
 
     @DeleteMapping(path = "{saleID:[\\d]+}/business/{businessID:[\\d]+}")
     public ResponseEntity<Long> CancelSale(@PathVariable("saleID") Long saleID,
                                            @PathVariable("businessID") Long businessID,
                                            @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "CancelSale");
-
-            saleID = saleService.CancelSale(saleID, businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(saleID);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "CancelSale");
+
+        saleID = saleService.CancelSale(saleID, businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(saleID);
     }
 }
@@ -0,0 +1,126 @@
+package nicoAntonelli.managefy.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import nicoAntonelli.managefy.utils.SqlStatementCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+
+// SQL statements per request, by endpoint (route template): N+1 regressions show up as a jump in the count
+// Over budget ('sql.budget.statements'): logs the statements repeated the most (fingerprints), strict mode fails the request (tests)
+// Strict mode buffers the response: nothing reaches the client before the check, a failed request is a 500 (never a 200)
+@Component
+public class SqlMetricsFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(SqlMetricsFilter.class);
+
+    private final MeterRegistry registry;
+    private final ObjectMapper objectMapper;
+    private final Integer budget;
+    private final Integer topFingerprints;
+    private final Boolean strict;
+
+    @Autowired
+    public SqlMetricsFilter(MeterRegistry registry, ObjectMapper objectMapper, Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        this.registry = registry;
+        this.objectMapper = objectMapper;
+        budget = env.getProperty("sql.budget.statements", Integer.class, 30);
+        topFingerprints = env.getProperty("sql.budget.topFingerprints", Integer.class, 10);
+        strict = env.getProperty("sql.budget.strict", Boolean.class, false);
+    }
+
+    // Strict mode: async requests write their buffered response on the last dispatch
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return !strict;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        // Statements counted on the first dispatch only
+        if (isAsyncDispatch(request)) {
+            chain.doFilter(request, response);
+            CopyBody(request, response);
+            return;
+        }
+
+        HttpServletResponse target = strict ? new ContentCachingResponseWrapper(response) : response;
+        SqlStatementCounter.begin();
+        SqlStatementCounter.Report report;
+        try {
+            chain.doFilter(request, target);
+        }
+        finally {
+            report = SqlStatementCounter.end();
+        }
+
+        String violation = Record(request, report);
+        if (strict && violation != null) {
+            target.resetBuffer();
+            target.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            target.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(target.getOutputStream(), GlobalExceptionHandler.ErrorResponseEntity(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "SQL budget exceeded - " + violation, request.getRequestURI()).getBody());
+        }
+
+        CopyBody(request, target);
+    }
+
+    // Metrics of the request. Over budget: the violation's message
+    private String Record(HttpServletRequest request, SqlStatementCounter.Report report) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("managefy.http.sql.statements")
+                .description("SQL statements executed per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1000.0)
+                .register(registry)
+                .record(report.statements());
+
+        if (report.statements() <= budget) return null;
+
+        Counter.builder("managefy.http.sql.overBudget")
+                .description("HTTP requests over the SQL statements budget")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .increment();
+
+        String message = request.getMethod() + " " + uri + " executed " + report.statements() +
+                         " SQL statements (budget: " + budget + "), repeated:" + report.histogram(topFingerprints);
+        logger.warn(message);
+
+        return message;
+    }
+
+    // Buffered body (strict mode) to the client, once the request is done
+    private static void CopyBody(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (request.isAsyncStarted()) return;
+
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper != null) wrapper.copyBodyToResponse();
+    }
+}
@@ -4,15 +4,14 @@ import nicoAntonelli.managefy.entities.Supplier;
 import nicoAntonelli.managefy.entities.User;
 import nicoAntonelli.managefy.entities.dto.SupplierCU;
 import nicoAntonelli.managefy.services.AuthService;
-import nicoAntonelli.managefy.services.ErrorLogService;
 import nicoAntonelli.managefy.services.SupplierService;
-import nicoAntonelli.managefy.utils.Exceptions;
+import nicoAntonelli.managefy.utils.WireFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -22,116 +21,67 @@ import java.util.List;
 public class SupplierController {
     private final SupplierService supplierService;
     private final AuthService authService; // Dependency
-    private final ErrorLogService errorLogService; // Dependency
 
     @Autowired
     public SupplierController(SupplierService supplierService,
-                              AuthService authService,
-                              ErrorLogService errorLogService) {
+                              AuthService authService) {
         this.supplierService = supplierService;
         this.authService = authService;
-        this.errorLogService = errorLogService;
     }
 
     @GetMapping(path = "business/{businessID:[\\d]+}")
     public ResponseEntity<List<Supplier>> GetSuppliers(@PathVariable("businessID") Long businessID,
                                                        @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetSuppliers");
+        User user = authService.validateTokenFromHeaders(headers, "GetSuppliers");
 
-            List<Supplier> suppliers = supplierService.GetSuppliers(businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(suppliers);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+        // Conditional GET: same list version (and format) = not modified (access validated, without loading the list)
+        boolean cbor = WireFormat.prefersCbor(headers);
+        String etag = WireFormat.eTag(supplierService.GetSuppliersETag(businessID, user), cbor);
+        if (WireFormat.matches(headers, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT).build();
         }
+
+        List<Supplier> suppliers = supplierService.GetSuppliers(businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT).contentType(WireFormat.contentType(cbor)).body(suppliers);
     }
 
     @GetMapping(path = "{supplierID:[\\d]+}/business/{businessID:[\\d]+}")
     public ResponseEntity<Supplier> GetOneSupplier(@PathVariable("supplierID") Long supplierID,
                                                    @PathVariable("businessID") Long businessID,
                                                    @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GetOneSupplier");
+        User user = authService.validateTokenFromHeaders(headers, "GetOneSupplier");
 
-            Supplier supplier = supplierService.GetOneSupplier(supplierID, businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(supplier);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        Supplier supplier = supplierService.GetOneSupplier(supplierID, businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(supplier);
     }
 
     @PostMapping
     public ResponseEntity<Supplier> CreateSupplier(@RequestBody SupplierCU supplierCU,
                                                    @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "CreateSupplier");
+        User user = authService.validateTokenFromHeaders(headers, "CreateSupplier");
 
-            Supplier supplier = supplierService.CreateSupplier(supplierCU, user);
-            return ResponseEntity.status(HttpStatus.OK).body(supplier);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        Supplier supplier = supplierService.CreateSupplier(supplierCU, user);
+        return ResponseEntity.status(HttpStatus.OK).body(supplier);
     }
 
     @PutMapping
     public ResponseEntity<Supplier> UpdateSupplier(@RequestBody SupplierCU supplierCU,
                                                    @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "UpdateSupplier");
+        User user = authService.validateTokenFromHeaders(headers, "UpdateSupplier");
 
-            Supplier supplier = supplierService.UpdateSupplier(supplierCU, user);
-            return ResponseEntity.status(HttpStatus.OK).body(supplier);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        Supplier supplier = supplierService.UpdateSupplier(supplierCU, user);
+        return ResponseEntity.status(HttpStatus.OK).body(supplier);
     }
 
     @DeleteMapping(path = "{supplierID:[\\d]+}/business/{businessID:[\\d]+}")
     public ResponseEntity<Long> DeleteSupplier(@PathVariable("supplierID") Long supplierID,
                                                @PathVariable("businessID") Long businessID,
                                                @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "DeleteSupplier");
+        User user = authService.validateTokenFromHeaders(headers, "DeleteSupplier");
 
-            supplierID = supplierService.DeleteSupplier(supplierID, businessID, user);
-            return ResponseEntity.status(HttpStatus.OK).body(supplierID);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        supplierID = supplierService.DeleteSupplier(supplierID, businessID, user);
+        return ResponseEntity.status(HttpStatus.OK).body(supplierID);
     }
 }
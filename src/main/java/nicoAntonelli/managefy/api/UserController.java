@@ -6,7 +6,6 @@ import nicoAntonelli.managefy.entities.dto.Registration;
 import nicoAntonelli.managefy.entities.dto.Token;
 import nicoAntonelli.managefy.entities.dto.UserU;
 import nicoAntonelli.managefy.services.AuthService;
-import nicoAntonelli.managefy.services.ErrorLogService;
 import nicoAntonelli.managefy.services.UserService;
 import nicoAntonelli.managefy.utils.Exceptions;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,7 +13,6 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Objects;
@@ -25,168 +23,77 @@ import java.util.Objects;
 public class UserController {
     private final UserService userService;
     private final AuthService authService; // Dependency
-    private final ErrorLogService errorLogService; // Dependency
 
     @Autowired
     public UserController(UserService userService,
-                          AuthService authService,
-                          ErrorLogService errorLogService) {
+                          AuthService authService) {
         this.userService = userService;
         this.authService = authService;
-        this.errorLogService = errorLogService;
     }
 
     @GetMapping()
     public ResponseEntity<List<User>> GetUsers(@RequestHeader HttpHeaders headers) {
-        try {
-            authService.validateTokenFromHeaders(headers, "GetUsers");
-
-            List<User> users = userService.GetUsers();
-            return ResponseEntity.status(HttpStatus.OK).body(users);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        authService.validateTokenFromHeaders(headers, "GetUsers");
+
+        List<User> users = userService.GetUsers();
+        return ResponseEntity.status(HttpStatus.OK).body(users);
     }
 
     @GetMapping(path = "{userID:[\\d]+}")
     public ResponseEntity<User> GetOneUser(@PathVariable("userID") Long userID,
                                            @RequestHeader HttpHeaders headers) {
-        try {
-            authService.validateTokenFromHeaders(headers, "GetOneUser");
-
-            User user = userService.GetOneUser(userID);
-            return ResponseEntity.status(HttpStatus.OK).body(user);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        authService.validateTokenFromHeaders(headers, "GetOneUser");
+
+        User user = userService.GetOneUser(userID);
+        return ResponseEntity.status(HttpStatus.OK).body(user);
     }
 
     @PostMapping(path = "register")
     public ResponseEntity<Token> Register(@RequestBody Registration registration) {
-        try {
-            Token token = userService.CreateUser(registration);
-            return ResponseEntity.status(HttpStatus.OK).body(token);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        Token token = userService.CreateUser(registration);
+        return ResponseEntity.status(HttpStatus.OK).body(token);
     }
 
     @PostMapping(path = "login")
     public ResponseEntity<Token> Login(@RequestBody Login login) {
-        try {
-            Token token = userService.Login(login);
-            return ResponseEntity.status(HttpStatus.OK).body(token);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        Token token = userService.Login(login);
+        return ResponseEntity.status(HttpStatus.OK).body(token);
     }
 
     @PutMapping
     public ResponseEntity<Token> UpdateUser(@RequestBody UserU userU,
                                             @RequestHeader HttpHeaders headers) {
-        try {
-            User loggedUser = authService.validateTokenFromHeaders(headers, "UpdateUser");
-            if (!Objects.equals(loggedUser.getId(), userU.getId())) {
-                throw new Exceptions.UnauthorizedException("Error at 'UpdateUser' - User: " + loggedUser.getId() + " can't update other users");
-            }
-
-            Token token = userService.UpdateUser(userU);
-            return ResponseEntity.status(HttpStatus.OK).body(token);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+        User loggedUser = authService.validateTokenFromHeaders(headers, "UpdateUser");
+        if (!Objects.equals(loggedUser.getId(), userU.getId())) {
+            throw new Exceptions.UnauthorizedException("Error at 'UpdateUser' - User: " + loggedUser.getId() + " can't update other users");
         }
+
+        Token token = userService.UpdateUser(userU);
+        return ResponseEntity.status(HttpStatus.OK).body(token);
     }
 
     @PutMapping(path = "generateValidation")
     public ResponseEntity<Boolean> GenerateUserValidation(@RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "GenerateUserValidation");
-
-            Boolean response = userService.GenerateUserValidation(user);
-            return ResponseEntity.status(HttpStatus.OK).body(response);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "GenerateUserValidation");
+
+        Boolean response = userService.GenerateUserValidation(user);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
     }
 
     @PutMapping(path = "validate/{code:[\\d]+}")
     public ResponseEntity<Token> ValidateUser(@PathVariable("code") String code,
                                               @RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "ValidateUser");
-
-            Token token = userService.ValidateUser(code, user);
-            return ResponseEntity.status(HttpStatus.OK).body(token);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "ValidateUser");
+
+        Token token = userService.ValidateUser(code, user);
+        return ResponseEntity.status(HttpStatus.OK).body(token);
     }
 
     @DeleteMapping
     public ResponseEntity<Long> DeleteUser(@RequestHeader HttpHeaders headers) {
-        try {
-            User user = authService.validateTokenFromHeaders(headers, "DeleteUser");
-
-            Long userID = userService.DeleteUser(user);
-            return ResponseEntity.status(HttpStatus.OK).body(userID);
-        } catch (Exceptions.BadRequestException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
-        } catch (Exceptions.UnauthorizedException ex) {
-            errorLogService.SetBackendError(ex.getMessage(), ex.getStatus(), ex.getInnerException());
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
-        } catch (Exception ex) {
-            errorLogService.SetBackendError(ex.getMessage(), Exceptions.InternalServerErrorException.status, ex.getCause());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
-        }
+        User user = authService.validateTokenFromHeaders(headers, "DeleteUser");
+
+        Long userID = userService.DeleteUser(user);
+        return ResponseEntity.status(HttpStatus.OK).body(userID);
     }
 }
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Entity
@@ -31,6 +32,9 @@ public class Business {
     private String link; // Unique
     @Column(nullable = false)
     private Boolean isPublic;
+    @JsonIgnore
+    @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private LocalDateTime deletionRequestedAt; // Nullable: detached, its physical deletion pending (resumed on restart)
 
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(nullable = false)
@@ -0,0 +1,65 @@
+package nicoAntonelli.managefy.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Transactional outbox: written with the change it describes (same transaction), read by the change feed.
+// 'sequence' is set after the commit, in commit order ('ChangeEventService'): consumers resume after the last one seen
+@Entity
+@Table(name = "changeEvents",
+       indexes = {
+               // Feed by business, from a sequence number
+               @Index(name = "changeEvents_business_sequence_idx", columnList = "businessID, sequence"),
+               // Not sequenced yet (few, sequenced right after their commit)
+               @Index(name = "changeEvents_sequence_id_idx", columnList = "sequence, id")
+       })
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ChangeEvent {
+    // Entity & action enums
+    public enum EntityType { Sale, Product, Stock, Client, Supplier }
+    public enum Action { Created, Updated, Deleted }
+
+    @JsonIgnore
+    @Id
+    @SequenceGenerator(name = "changeEvents_sequence", sequenceName = "changeEvents_sequence")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "changeEvents_sequence")
+    @Column(updatable = false)
+    private Long id;
+
+    private Long sequence; // Nullable until sequenced
+    @Column(nullable = false, updatable = false)
+    private EntityType entity;
+    @Column(nullable = false, updatable = false)
+    private Action action;
+    @Column(nullable = false, updatable = false)
+    private Long entityID;
+    @Column(nullable = false, updatable = false, columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private LocalDateTime date;
+    @Column(nullable = false, updatable = false, length = 1_048_576)
+    private byte[] payload; // CBOR
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(
+            name = "businessID",
+            nullable = false,
+            updatable = false,
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(name = "businesses_changeEvents_fk")
+    )
+    private Business business;
+
+    public ChangeEvent(EntityType entity, Action action, Long entityID, byte[] payload, Long businessID) {
+        this.entity = entity;
+        this.action = action;
+        this.entityID = entityID;
+        this.date = LocalDateTime.now();
+        this.payload = payload;
+        this.business = new Business(businessID);
+    }
+}
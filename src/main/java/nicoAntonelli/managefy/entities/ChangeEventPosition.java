@@ -0,0 +1,21 @@
+package nicoAntonelli.managefy.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Last sequence number handed out to the change events (one row per database): its row lock makes sequencing serial
+@Entity
+@Table(name = "changeEventPositions")
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ChangeEventPosition {
+    public static final Integer ID = 1;
+
+    @Id
+    @Column(updatable = false)
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long lastSequence;
+}
@@ -0,0 +1,24 @@
+package nicoAntonelli.managefy.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Version of a list (scope, by business or by user): shared by every instance, see 'ChangeVersions'
+@Entity
+@IdClass(ChangeVersionKey.class)
+@Table(name = "changeVersions")
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ChangeVersion {
+    @Id
+    @Column(updatable = false)
+    private String scope;
+
+    @Id
+    @Column(updatable = false)
+    private Long ownerID;
+
+    @Column(nullable = false)
+    private Long version;
+}
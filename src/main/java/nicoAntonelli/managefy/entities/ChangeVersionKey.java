@@ -0,0 +1,11 @@
+package nicoAntonelli.managefy.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ChangeVersionKey {
+    private String scope;
+    private Long ownerID;
+}
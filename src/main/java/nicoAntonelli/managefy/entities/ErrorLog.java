@@ -8,7 +8,13 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "errorLogs")
+@Table(name = "errorLogs",
+       indexes = {
+               @Index(name = "errorLogs_origin_date_idx", columnList = "origin, date, id"),
+               @Index(name = "errorLogs_httpCode_date_idx", columnList = "httpCode, date, id"),
+               @Index(name = "errorLogs_date_idx", columnList = "date, id"),
+               @Index(name = "errorLogs_fingerprint_window_idx", columnList = "fingerprint, windowStart", unique = true)
+       })
 @Data @NoArgsConstructor @AllArgsConstructor
 public class ErrorLog {
     // Backend-originated Error Log
@@ -35,6 +41,14 @@ public class ErrorLog {
     private String browser; // Nullable
     private String userIPAddress; // Nullable
 
+    // Deduplication: same (origin, httpCode, description template) inside a window, one row each (unique index)
+    private String fingerprint; // Nullable (legacy rows)
+    @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private LocalDateTime windowStart; // Nullable (legacy rows)
+    private Long occurrences = 1L; // Nullable (legacy rows)
+    @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private LocalDateTime lastDate; // Nullable (legacy rows)
+
     public ErrorLog(Long id) {
         this.id = id;
     }
@@ -45,6 +59,7 @@ public class ErrorLog {
         this.description = description;
         if (innerException != null && !innerException.isEmpty()) this.innerException = innerException;
         this.httpCode = httpCode;
+        this.lastDate = this.date;
     }
 
     public ErrorLog(String description, String origin, String httpCode) {
@@ -52,6 +67,7 @@ public class ErrorLog {
         this.origin = origin;
         this.description = description;
         this.httpCode = httpCode;
+        this.lastDate = this.date;
     }
 
     // Frontend errors
@@ -61,5 +77,6 @@ public class ErrorLog {
         this.description = description;
         this.browser = browser;
         this.userIPAddress = userIPAddress;
+        this.lastDate = this.date;
     }
 }
@@ -0,0 +1,74 @@
+package nicoAntonelli.managefy.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Append-only stock ledger: 'Product.stock' is the snapshot of the compacted movements, the rest are pending deltas
+@Entity
+@Table(name = "inventoryMovements",
+       indexes = {
+               // Pending ones (few, compacted every few seconds): deltas by product & compaction
+               @Index(name = "inventoryMovements_compacted_product_idx", columnList = "compacted, productID"),
+               // Product history & point-in-time stock
+               @Index(name = "inventoryMovements_product_date_idx", columnList = "productID, date")
+       })
+@Data @NoArgsConstructor @AllArgsConstructor
+public class InventoryMovement {
+    // Type enum
+    public enum MovementType { Sale, Cancel, Adjust, Import }
+
+    @Id
+    @SequenceGenerator(name = "inventoryMovements_sequence", sequenceName = "inventoryMovements_sequence")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventoryMovements_sequence")
+    @Column(updatable = false)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private MovementType type;
+    @Column(nullable = false, updatable = false)
+    private Integer quantity; // Signed delta
+    @Column(nullable = false, updatable = false, columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private LocalDateTime date;
+    @Column(updatable = false)
+    private Long saleID; // Nullable (sales & cancellations), no FK: the ledger keeps them
+    @JsonIgnore
+    @Column(nullable = false)
+    private Boolean compacted;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(
+            name = "productID",
+            nullable = false,
+            updatable = false,
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(name = "products_inventoryMovements_fk")
+    )
+    private Product product;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(
+            name = "businessID",
+            nullable = false,
+            updatable = false,
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(name = "businesses_inventoryMovements_fk")
+    )
+    private Business business;
+
+    public InventoryMovement(MovementType type, Integer quantity, Long saleID, Long productID, Long businessID) {
+        this.type = type;
+        this.quantity = quantity;
+        this.date = LocalDateTime.now();
+        this.saleID = saleID;
+        this.compacted = false;
+        this.product = new Product(productID);
+        this.business = new Business(businessID);
+    }
+}
@@ -0,0 +1,74 @@
+package nicoAntonelli.managefy.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Append-only payments ledger: what a sale has been paid is the sum of its payments ('Sale.partialPayment' mirrors it)
+@Entity
+@Table(name = "payments",
+       uniqueConstraints = {
+               // Retried requests: same key, same payment (keys are optional)
+               @UniqueConstraint(name = "payments_business_idempotencyKey_unique", columnNames = {"businessID", "idempotencyKey"})
+       },
+       indexes = {
+               // Cash flow by business & date
+               @Index(name = "payments_business_date_idx", columnList = "businessID, date"),
+               // Sale's payments
+               @Index(name = "payments_sale_idx", columnList = "saleID")
+       })
+@Data @NoArgsConstructor @AllArgsConstructor
+public class Payment {
+    @Id
+    @SequenceGenerator(name = "payments_sequence", sequenceName = "payments_sequence")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_sequence")
+    @Column(updatable = false)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private BigDecimal amount;
+    @Column(nullable = false, updatable = false, columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private LocalDateTime date;
+    @Column(updatable = false)
+    private String idempotencyKey; // Nullable
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(
+            name = "saleID",
+            nullable = false,
+            updatable = false,
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(name = "sales_payments_fk")
+    )
+    private Sale sale;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(
+            name = "businessID",
+            nullable = false,
+            updatable = false,
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(name = "businesses_payments_fk")
+    )
+    private Business business;
+
+    public Payment(BigDecimal amount, String idempotencyKey, Long saleID, Long businessID) {
+        this.amount = amount;
+        this.date = LocalDateTime.now();
+        this.idempotencyKey = idempotencyKey;
+        this.sale = new Sale(saleID);
+        this.business = new Business(businessID);
+    }
+
+    // Sale ID only (the sale itself is ignored)
+    public Long getSaleID() {
+        return sale != null ? sale.getId() : null;
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -12,7 +13,12 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products",
+       indexes = {
+               // Reorder report: a business' products at or under their min stock (gap <= 0), without a catalog scan
+               @Index(name = "products_business_stockGap_idx", columnList = "businessID, stockGap")
+       })
+@DynamicUpdate // Saves don't write back a stale 'stock' over the compaction's one
 @Data @NoArgsConstructor @AllArgsConstructor
 public class Product {
     @Id
@@ -32,8 +38,15 @@ public class Product {
     @Column(nullable = false)
     private BigDecimal unitPrice;
     @Column(nullable = false)
-    private Integer stock;
+    private Integer stock; // Snapshot: compacted movements only, see 'getStock'
     private Integer stockMin; // Nullable
+    @JsonIgnore
+    private Integer stockGap; // Calculated (stock - stockMin, null without min) on every save
+    @JsonIgnore
+    private Integer available; // Current stock (snapshot + pending), moved by every movement: the oversell check
+    @JsonIgnore
+    @Transient
+    private Integer pendingStock; // Not compacted yet (null: not loaded), see 'InventoryService'
     private Integer saleMinAmount; // Nullable
     @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
     private LocalDateTime deletionDate; // Nullable
@@ -100,4 +113,26 @@ public class Product {
         supplier = new Supplier();
         supplier.setId(supplierID);
     }
+
+    // Current stock: snapshot plus the pending movements (when loaded)
+    public Integer getStock() {
+        return pendingStock != null ? stock + pendingStock : stock;
+    }
+
+    // Read together with a newer snapshot: the difference goes into the pending part
+    public void setCurrentStock(Integer current) {
+        pendingStock = current - stock;
+    }
+
+    // New product: everything it has is available
+    @PrePersist
+    public void initializeStock() {
+        if (available == null) available = stock;
+        calculateAndSetStockGap();
+    }
+
+    @PreUpdate
+    public void calculateAndSetStockGap() {
+        stockGap = stock != null && stockMin != null ? stock - stockMin : null;
+    }
 }
@@ -0,0 +1,58 @@
+package nicoAntonelli.managefy.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Outstanding balance of an unpaid sale (pending or partial payment), kept in sync by 'SaleService':
+// receivables views sum these narrow rows instead of the sales. Paid & cancelled sales don't have one
+@Entity
+@Table(name = "receivables",
+       indexes = {
+               // Balances & aging by business and client
+               @Index(name = "receivables_business_client_idx", columnList = "businessID, clientID")
+       })
+@Data @NoArgsConstructor @AllArgsConstructor
+public class Receivable {
+    @Id
+    @Column(updatable = false)
+    private Long saleID; // Same ID as its sale (no FK: removed with it)
+
+    @Column(nullable = false, columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private LocalDateTime date; // Sale's date, for the aging
+    @Column(nullable = false)
+    private BigDecimal outstanding;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(
+            name = "businessID",
+            nullable = false,
+            updatable = false,
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(name = "businesses_receivables_fk")
+    )
+    private Business business;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(
+            name = "clientID",
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(name = "clients_receivables_fk")
+    )
+    private Client client; // Nullable
+
+    public Receivable(Long saleID, LocalDateTime date, BigDecimal outstanding, Long businessID, Long clientID) {
+        this.saleID = saleID;
+        this.date = date;
+        this.outstanding = outstanding;
+        this.business = new Business(businessID);
+        this.client = clientID != null ? new Client(clientID) : null;
+    }
+}
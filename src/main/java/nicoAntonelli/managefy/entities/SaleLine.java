@@ -10,7 +10,11 @@ import java.math.BigDecimal;
 
 @Entity
 @IdClass(SaleLineKey.class)
-@Table(name = "saleLines")
+@Table(name = "saleLines",
+       indexes = {
+               // Lines of a product: its sales velocity (reorder report) & deletion by products
+               @Index(name = "saleLines_product_idx", columnList = "productID")
+       })
 @Data @NoArgsConstructor @AllArgsConstructor
 public class SaleLine {
     @Id
@@ -0,0 +1,25 @@
+package nicoAntonelli.managefy.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Business deletion job for Read (progress)
+@Data @NoArgsConstructor @AllArgsConstructor
+public class BusinessDeletion {
+    // State enum
+    public enum DeletionState { Running, Completed, Failed }
+
+    private Long businessID;
+    private DeletionState state;
+    private String stage;
+    private Long salesDeleted;
+    private Long clientsDeleted;
+    private Long productsDeleted;
+    private Long suppliersDeleted;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate; // Nullable
+    private String error; // Nullable
+}
@@ -0,0 +1,30 @@
+package nicoAntonelli.managefy.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Cash flow for Read: payments received in the interval, by day (days without payments aren't listed)
+@Data @NoArgsConstructor @AllArgsConstructor
+public class CashFlow {
+    private Long businessID;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private Integer businessDays; // Days of the interval the business works
+    private Long payments;
+    private BigDecimal total;
+    private List<Day> days;
+
+    @Data @NoArgsConstructor @AllArgsConstructor
+    public static class Day {
+        private LocalDate date;
+        private Boolean businessDay;
+        private Long payments;
+        private BigDecimal amount;
+    }
+}
@@ -0,0 +1,17 @@
+package nicoAntonelli.managefy.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nicoAntonelli.managefy.entities.ChangeEvent;
+
+import java.util.List;
+
+// Change feed page for Read: events after a sequence number, in order. Resume with 'after' = 'next'
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ChangeFeed {
+    private Long businessID;
+    private Long next; // Last sequence of the page (same 'after' when empty)
+    private Boolean more; // Full page: more events available right away
+    private List<ChangeEvent> events;
+}
@@ -0,0 +1,69 @@
+package nicoAntonelli.managefy.entities.dto;
+
+import nicoAntonelli.managefy.entities.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Change events' payloads (CBOR): the entity's own fields, relations by ID only
+public final class ChangePayloads {
+    private ChangePayloads() { }
+
+    public record SaleChange(Long id, LocalDateTime date, Sale.SaleState state, BigDecimal totalPrice,
+                             BigDecimal partialPayment, String observation, Long clientID,
+                             List<SaleLineChange> lines) { // Lines: on creation only (they don't change)
+        public static SaleChange of(Sale sale, boolean withLines) {
+            List<SaleLineChange> lines = withLines ? sale.getSaleLines().stream().map(SaleLineChange::of).toList() : null;
+            return new SaleChange(sale.getId(), sale.getDate(), sale.getState(), sale.getTotalPrice(), sale.getPartialPayment(),
+                    sale.getObservation(), sale.getClient() != null ? sale.getClient().getId() : null, lines);
+        }
+    }
+
+    public record SaleLineChange(Integer position, Long productID, Integer amount, BigDecimal price,
+                                 BigDecimal cost, BigDecimal discountSurcharge) {
+        public static SaleLineChange of(SaleLine line) {
+            return new SaleLineChange(line.getPosition(), line.getProduct().getId(), line.getAmount(), line.getPrice(),
+                    line.getCost(), line.getDiscountSurcharge());
+        }
+    }
+
+    public record ProductChange(Long id, String code, String name, String description, BigDecimal unitCost,
+                                BigDecimal unitPrice, Integer stockMin, Integer saleMinAmount, Long supplierID) {
+        public static ProductChange of(Product product) {
+            return new ProductChange(product.getId(), product.getCode(), product.getName(), product.getDescription(),
+                    product.getUnitCost(), product.getUnitPrice(), product.getStockMin(), product.getSaleMinAmount(),
+                    product.getSupplier() != null ? product.getSupplier().getId() : null);
+        }
+    }
+
+    // Stock movements of one change (a sale's lines, its cancellation, an adjustment): one event for all of them
+    // (entity ID: the sale, or the product without one)
+    public record StockChange(Long saleID, InventoryMovement.MovementType type, List<StockLineChange> movements) {
+        public static StockChange of(List<InventoryMovement> movements) {
+            InventoryMovement first = movements.getFirst();
+            return new StockChange(first.getSaleID(), first.getType(), movements.stream().map(StockLineChange::of).toList());
+        }
+    }
+
+    public record StockLineChange(Long productID, Integer quantity) {
+        public static StockLineChange of(InventoryMovement movement) {
+            return new StockLineChange(movement.getProduct().getId(), movement.getQuantity());
+        }
+    }
+
+    public record ClientChange(Long id, String name, String description, String email, String phone,
+                               Long mergedInto) { // Deleted duplicate: the client its sales were moved to
+        public static ClientChange of(Client client, Long mergedInto) {
+            return new ClientChange(client.getId(), client.getName(), client.getDescription(), client.getEmail(),
+                    client.getPhone(), mergedInto);
+        }
+    }
+
+    public record SupplierChange(Long id, String name, String description, String email, String phone) {
+        public static SupplierChange of(Supplier supplier) {
+            return new SupplierChange(supplier.getId(), supplier.getName(), supplier.getDescription(), supplier.getEmail(),
+                    supplier.getPhone());
+        }
+    }
+}
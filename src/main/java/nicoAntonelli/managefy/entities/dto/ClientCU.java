@@ -16,4 +16,5 @@ public class ClientCU {
     private String phone; // Optional
     private Long businessID;
     private Set<Long> salesIDs;
+    private Boolean reuseExisting; // Optional (new sale: the client with the same email or phone is used instead)
 }
@@ -0,0 +1,16 @@
+package nicoAntonelli.managefy.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Clients deduplication result for Read (same email or phone merged into the oldest client)
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ClientDeduplication {
+    private Long businessID;
+    private Integer groups;
+    private Integer clientsMerged;
+    private Integer salesMoved;
+    private Integer clientsDeleted; // Merged ones left without sales
+    private Integer clientsSkipped; // With sales of other businesses too: never merged
+}
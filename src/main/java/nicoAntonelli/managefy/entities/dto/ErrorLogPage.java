@@ -0,0 +1,15 @@
+package nicoAntonelli.managefy.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nicoAntonelli.managefy.entities.ErrorLog;
+
+import java.util.List;
+
+// ErrorLogs page for Read (cursor-based)
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ErrorLogPage {
+    private List<ErrorLog> errors;
+    private String nextCursor; // Null on the last page
+}
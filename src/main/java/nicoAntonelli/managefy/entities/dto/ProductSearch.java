@@ -0,0 +1,19 @@
+package nicoAntonelli.managefy.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nicoAntonelli.managefy.entities.Product;
+
+import java.util.List;
+
+// Products search page for Read (ranked: code, name, then typos)
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ProductSearch {
+    private String query;
+    private Integer page;
+    private Integer size;
+    private Long total;
+    private Boolean fuzzy; // Results with typos included
+    private List<Product> products;
+}
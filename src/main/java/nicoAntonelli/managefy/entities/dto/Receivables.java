@@ -0,0 +1,38 @@
+package nicoAntonelli.managefy.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Receivables for Read: what the clients owe (unpaid sales), by client and aged by the sale date
+@Data @NoArgsConstructor @AllArgsConstructor
+public class Receivables {
+    private Long businessID;
+    private LocalDate date; // Aging reference
+    private Boolean businessDays; // Ages in business days of the business (not calendar days)
+    private Long sales;
+    private Aging total;
+    private List<ClientBalance> clients; // Highest balances first
+
+    @Data @NoArgsConstructor @AllArgsConstructor
+    public static class ClientBalance {
+        private Long clientID; // Nullable (sales without client)
+        private String name; // Nullable
+        private Long sales;
+        private Aging balance;
+    }
+
+    // Outstanding by age of the sale, in days (or business days)
+    @Data @NoArgsConstructor @AllArgsConstructor
+    public static class Aging {
+        private BigDecimal outstanding;
+        private BigDecimal days0To30;
+        private BigDecimal days31To60;
+        private BigDecimal days61To90;
+        private BigDecimal over90;
+    }
+}
@@ -0,0 +1,44 @@
+package nicoAntonelli.managefy.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nicoAntonelli.managefy.entities.Supplier;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Reorder report for Read: active products at or under their min stock, by supplier (without one: last, supplier null)
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ReorderReport {
+    private Long businessID;
+    private Integer velocityDays; // Sales window for the velocity
+    private Integer coverDays; // Days of sales the suggested quantities cover, over the min stock
+    private Integer products;
+    private BigDecimal totalCost;
+    private List<SupplierOrder> suppliers;
+
+    @Data @NoArgsConstructor @AllArgsConstructor
+    public static class SupplierOrder {
+        private Supplier supplier; // Nullable
+        private BigDecimal totalCost;
+        private List<Line> lines;
+    }
+
+    @Data @NoArgsConstructor @AllArgsConstructor
+    public static class Line {
+        private Long productID;
+        private String code;
+        private String name;
+        private Integer stock;
+        private Integer stockMin;
+        private Long sold; // Units in the window
+        private BigDecimal dailyVelocity;
+        private Integer daysOfStockLeft; // Business days at the window's velocity (null: no sales in the window)
+        private LocalDate stockoutDate; // Business day the stock runs out at that velocity (null: no sales)
+        private Integer suggestedQuantity;
+        private BigDecimal unitCost;
+        private BigDecimal cost;
+    }
+}
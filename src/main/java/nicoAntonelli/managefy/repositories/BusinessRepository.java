@@ -39,6 +39,12 @@ public interface BusinessRepository extends JpaRepository<Business, Long> {
             "AND b.isPublic = TRUE")
     Optional<Business> findByLinkPublic(String link);
 
+    // Deletion requested, not finished yet (explicit mark: a business without roles isn't enough)
+    @Query("SELECT b.id " +
+            "FROM Business b " +
+            "WHERE b.deletionRequestedAt IS NOT NULL")
+    List<Long> findIDsPendingDeletion();
+
     @Query("SELECT COUNT(b) > 0 " +
             "FROM Business b " +
             "INNER JOIN b.userRoles ur " +
@@ -0,0 +1,20 @@
+package nicoAntonelli.managefy.repositories;
+
+import jakarta.persistence.LockModeType;
+import nicoAntonelli.managefy.entities.ChangeEventPosition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ChangeEventPositionRepository extends JpaRepository<ChangeEventPosition, Integer> {
+    // Held until commit: one sequencer at a time (every instance)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p " +
+            "FROM ChangeEventPosition p " +
+            "WHERE p.id = ?1")
+    Optional<ChangeEventPosition> findByIdForUpdate(Integer id);
+}
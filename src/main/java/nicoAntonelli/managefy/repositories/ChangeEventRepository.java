@@ -0,0 +1,51 @@
+package nicoAntonelli.managefy.repositories;
+
+import nicoAntonelli.managefy.entities.ChangeEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+    @Query("SELECT e " +
+            "FROM ChangeEvent e " +
+            "WHERE e.business.id = ?1 AND e.sequence > ?2 " +
+            "ORDER BY e.sequence")
+    List<ChangeEvent> findByBusinessAfter(Long businessID, Long sequence, Limit limit);
+
+    // Last sequence number by business (the waiting polls' ones, one query for all of them)
+    @Query("SELECT e.business.id, MAX(e.sequence) " +
+            "FROM ChangeEvent e " +
+            "WHERE e.business.id IN ?1 " +
+            "GROUP BY e.business.id")
+    List<Object[]> findLastSequencesByBusinesses(Collection<Long> businessIDs);
+
+    // Committed & not sequenced yet, oldest first: ID and business ID
+    @Query("SELECT e.id, e.business.id " +
+            "FROM ChangeEvent e " +
+            "WHERE e.sequence IS NULL " +
+            "ORDER BY e.id")
+    List<Object[]> findPending(Limit limit);
+
+    // Sequence numbers in ID order, after the last one ('?1' + distance to the first ID: gaps are fine)
+    @Modifying
+    @Query("UPDATE ChangeEvent e " +
+            "SET e.sequence = ?1 + e.id - ?2 + 1 " +
+            "WHERE e.id IN ?3 AND e.sequence IS NULL")
+    int updateSequences(Long lastSequence, Long firstID, Collection<Long> eventIDs);
+
+    @Query("SELECT e.id " +
+            "FROM ChangeEvent e " +
+            "WHERE e.business.id = ?1")
+    List<Long> findIDsByBusiness(Long businessID, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM ChangeEvent e " +
+            "WHERE e.id IN ?1")
+    void deleteAllByIDs(Collection<Long> eventIDs);
+}
@@ -0,0 +1,32 @@
+package nicoAntonelli.managefy.repositories;
+
+import nicoAntonelli.managefy.entities.ChangeVersion;
+import nicoAntonelli.managefy.entities.ChangeVersionKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ChangeVersionRepository extends JpaRepository<ChangeVersion, ChangeVersionKey> {
+    // Scalar: never the (stale) instance of the persistence context
+    @Query("SELECT v.version " +
+           "FROM ChangeVersion v " +
+           "WHERE v.scope = ?1 AND v.ownerID = ?2")
+    Optional<Long> findVersion(String scope, Long ownerID);
+
+    // Atomic increment: 0 when there's no row yet
+    @Modifying
+    @Query("UPDATE ChangeVersion v " +
+           "SET v.version = v.version + 1 " +
+           "WHERE v.scope = ?1 AND v.ownerID = ?2")
+    int increment(String scope, Long ownerID);
+
+    // Plain insert (never a merge) at version 0, incremented afterward: fails if a concurrent one inserted it first
+    @Modifying
+    @Query("INSERT INTO ChangeVersion (scope, ownerID, version) " +
+           "VALUES (?1, ?2, 0)")
+    void insertFirst(String scope, Long ownerID);
+}
@@ -2,9 +2,11 @@ package nicoAntonelli.managefy.repositories;
 
 import nicoAntonelli.managefy.entities.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +26,21 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
             "WHERE c.deletionDate IS NULL AND b.id = ?1")
     List<Client> findActivesByBusiness(Long businessID);
 
+    // Lookup index entries: ID, name, email and phone
+    @Query("SELECT DISTINCT c.id, c.name, c.email, c.phone " +
+            "FROM Client c " +
+            "INNER JOIN c.sales s " +
+            "INNER JOIN s.business b " +
+            "WHERE c.deletionDate IS NULL AND b.id = ?1")
+    List<Object[]> findSearchEntriesByBusiness(Long businessID);
+
+    @Query("SELECT DISTINCT c " +
+            "FROM Client c " +
+            "INNER JOIN c.sales s " +
+            "INNER JOIN s.business b " +
+            "WHERE c.id IN ?1 AND c.deletionDate IS NULL AND b.id = ?2")
+    List<Client> findActivesByIDsAndBusiness(Collection<Long> clientIDs, Long businessID);
+
     @Query("SELECT c " +
             "FROM Client c " +
             "INNER JOIN c.sales s " +
@@ -37,4 +54,17 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
             "INNER JOIN s.business b " +
             "WHERE c.id = ?1 AND c.deletionDate IS NULL AND b.id = ?2")
     Boolean existsByIdActiveAndBusiness(Long supplierID, Long businessID);
+
+    // With sales of another business: shared, so one business never changes them for the others
+    @Query("SELECT DISTINCT c.id " +
+            "FROM Client c " +
+            "INNER JOIN c.sales s " +
+            "WHERE c.id IN ?1 AND s.business.id <> ?2")
+    List<Long> findSharedIDs(Collection<Long> clientIDs, Long businessID);
+
+    // Only the ones left without any sale
+    @Modifying
+    @Query("DELETE FROM Client c " +
+            "WHERE c.id IN ?1 AND c.sales IS EMPTY")
+    int deleteOrphansByIDs(Collection<Long> clientIDs);
 }
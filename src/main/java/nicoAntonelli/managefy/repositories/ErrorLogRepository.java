@@ -1,7 +1,9 @@
 package nicoAntonelli.managefy.repositories;
 
 import nicoAntonelli.managefy.entities.ErrorLog;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -14,4 +16,64 @@ public interface ErrorLogRepository extends JpaRepository<ErrorLog, Long> {
            "FROM ErrorLog e " +
            "WHERE e.origin = ?1 AND e.date >= ?2 AND e.date <= ?3")
     List<ErrorLog> findByOriginAndInterval(String origin, LocalDateTime initialDate, LocalDateTime finalDate);
+
+    // Keyset pages (newest first). First page: no cursor, from the newest row
+    @Query("SELECT e " +
+           "FROM ErrorLog e " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ErrorLog> findPage(Limit limit);
+
+    @Query("SELECT e " +
+           "FROM ErrorLog e " +
+           "WHERE e.origin = ?1 " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ErrorLog> findPageByOrigin(String origin, Limit limit);
+
+    @Query("SELECT e " +
+           "FROM ErrorLog e " +
+           "WHERE e.httpCode = ?1 " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ErrorLog> findPageByHttpCode(String httpCode, Limit limit);
+
+    @Query("SELECT e " +
+           "FROM ErrorLog e " +
+           "WHERE e.origin = ?1 AND e.httpCode = ?2 " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ErrorLog> findPageByOriginAndHttpCode(String origin, String httpCode, Limit limit);
+
+    // Next pages: rows strictly before the cursor (date, id). The redundant 'e.date <= cursor' bounds the index range
+    // scan (the OR alone isn't a range for the planner)
+    @Query("SELECT e " +
+           "FROM ErrorLog e " +
+           "WHERE e.date <= ?1 AND (e.date < ?1 OR (e.date = ?1 AND e.id < ?2)) " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ErrorLog> findPageBefore(LocalDateTime date, Long id, Limit limit);
+
+    @Query("SELECT e " +
+           "FROM ErrorLog e " +
+           "WHERE e.origin = ?1 " +
+           "AND e.date <= ?2 AND (e.date < ?2 OR (e.date = ?2 AND e.id < ?3)) " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ErrorLog> findPageByOriginBefore(String origin, LocalDateTime date, Long id, Limit limit);
+
+    @Query("SELECT e " +
+           "FROM ErrorLog e " +
+           "WHERE e.httpCode = ?1 " +
+           "AND e.date <= ?2 AND (e.date < ?2 OR (e.date = ?2 AND e.id < ?3)) " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ErrorLog> findPageByHttpCodeBefore(String httpCode, LocalDateTime date, Long id, Limit limit);
+
+    @Query("SELECT e " +
+           "FROM ErrorLog e " +
+           "WHERE e.origin = ?1 AND e.httpCode = ?2 " +
+           "AND e.date <= ?3 AND (e.date < ?3 OR (e.date = ?3 AND e.id < ?4)) " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ErrorLog> findPageByOriginAndHttpCodeBefore(String origin, String httpCode, LocalDateTime date, Long id, Limit limit);
+
+    // Adds to the aggregate row of the fingerprint's window (atomic increment): 0 when there's none yet
+    @Modifying
+    @Query("UPDATE ErrorLog e " +
+           "SET e.occurrences = COALESCE(e.occurrences, 1) + ?3, e.lastDate = ?4 " +
+           "WHERE e.fingerprint = ?1 AND e.windowStart = ?2")
+    int addOccurrences(String fingerprint, LocalDateTime windowStart, Long occurrences, LocalDateTime lastDate);
 }
@@ -0,0 +1,60 @@
+package nicoAntonelli.managefy.repositories;
+
+import nicoAntonelli.managefy.entities.InventoryMovement;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+    @Query("SELECT m " +
+            "FROM InventoryMovement m " +
+            "WHERE m.product.id = ?1 " +
+            "ORDER BY m.date DESC, m.id DESC")
+    List<InventoryMovement> findByProduct(Long productID, Limit limit);
+
+    // Current stock (snapshot + pending deltas in one statement: consistent with a compaction): product ID and stock
+    @Query("SELECT p.id, p.stock + COALESCE(SUM(m.quantity), 0) " +
+            "FROM Product p " +
+            "LEFT JOIN InventoryMovement m ON m.product = p AND m.compacted = false " +
+            "WHERE p.id IN ?1 " +
+            "GROUP BY p.id, p.stock")
+    List<Object[]> findCurrentStockByProducts(Collection<Long> productIDs);
+
+    @Query("SELECT p.id, p.stock + COALESCE(SUM(m.quantity), 0) " +
+            "FROM Product p " +
+            "LEFT JOIN InventoryMovement m ON m.product = p AND m.compacted = false " +
+            "WHERE p.deletionDate IS NULL AND p.business.id = ?1 " +
+            "GROUP BY p.id, p.stock")
+    List<Object[]> findCurrentStockByBusiness(Long businessID);
+
+    @Query("SELECT COALESCE(SUM(m.quantity), 0) " +
+            "FROM InventoryMovement m " +
+            "WHERE m.product.id = ?1 AND m.date > ?2")
+    Long sumByProductAfter(Long productID, LocalDateTime date);
+
+    // Compaction page: ID, product ID and quantity
+    @Query("SELECT m.id, m.product.id, m.quantity " +
+            "FROM InventoryMovement m " +
+            "WHERE m.compacted = false " +
+            "ORDER BY m.id")
+    List<Object[]> findPending(Limit limit);
+
+    // Only the ones still pending: fewer updated = another compaction took them
+    @Modifying
+    @Query("UPDATE InventoryMovement m " +
+            "SET m.compacted = true " +
+            "WHERE m.id IN ?1 AND m.compacted = false")
+    int markCompacted(Collection<Long> movementIDs);
+
+    @Modifying
+    @Query("DELETE FROM InventoryMovement m " +
+            "WHERE m.product.id IN ?1")
+    void deleteAllByProducts(Collection<Long> productIDs);
+}
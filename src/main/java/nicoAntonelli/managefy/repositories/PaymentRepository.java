@@ -0,0 +1,45 @@
+package nicoAntonelli.managefy.repositories;
+
+import nicoAntonelli.managefy.entities.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    @Query("SELECT p " +
+            "FROM Payment p " +
+            "WHERE p.sale.id = ?1 AND p.business.id = ?2 " +
+            "ORDER BY p.date, p.id")
+    List<Payment> findBySaleAndBusiness(Long saleID, Long businessID);
+
+    @Query("SELECT p " +
+            "FROM Payment p " +
+            "WHERE p.business.id = ?1 AND p.idempotencyKey = ?2")
+    Optional<Payment> findByBusinessAndKey(Long businessID, String idempotencyKey);
+
+    @Query("SELECT COALESCE(SUM(p.amount), 0) " +
+            "FROM Payment p " +
+            "WHERE p.sale.id = ?1")
+    BigDecimal sumBySale(Long saleID);
+
+    // Cash flow (index range by business & date): day, payments and amount
+    @Query("SELECT CAST(p.date AS LocalDate), COUNT(p), SUM(p.amount) " +
+            "FROM Payment p " +
+            "WHERE p.business.id = ?1 AND p.date >= ?2 AND p.date <= ?3 " +
+            "GROUP BY CAST(p.date AS LocalDate) " +
+            "ORDER BY CAST(p.date AS LocalDate)")
+    List<Object[]> sumByBusinessAndDays(Long businessID, LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM Payment p " +
+            "WHERE p.sale.id IN ?1")
+    void deleteAllBySales(Collection<Long> saleIDs);
+}
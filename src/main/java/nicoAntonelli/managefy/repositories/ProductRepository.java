@@ -1,11 +1,13 @@
 package nicoAntonelli.managefy.repositories;
 
 import nicoAntonelli.managefy.entities.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +19,19 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             "WHERE p.deletionDate IS NULL AND b.id = ?1")
     List<Product> findActivesByBusiness(Long businessID);
 
+    // Search index entries: ID, code and name
+    @Query("SELECT p.id, p.code, p.name " +
+            "FROM Product p " +
+            "INNER JOIN p.business b " +
+            "WHERE p.deletionDate IS NULL AND b.id = ?1")
+    List<Object[]> findSearchEntriesByBusiness(Long businessID);
+
+    @Query("SELECT p " +
+            "FROM Product p " +
+            "LEFT JOIN FETCH p.supplier " +
+            "WHERE p.id IN ?1 AND p.deletionDate IS NULL AND p.business.id = ?2")
+    List<Product> findActivesByIDsAndBusiness(Collection<Long> productIDs, Long businessID);
+
     @Query("SELECT p " +
             "FROM Product p " +
             "INNER JOIN p.business b " +
@@ -25,6 +40,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             "AND b.id = ?1 AND s.id = ?2")
     List<Product> findActivesByBusinessAndSupplier(Long businessID, Long supplierID);
 
+    // At or under min stock: range over the (business, stock gap) index
+    @Query("SELECT p " +
+            "FROM Product p " +
+            "LEFT JOIN FETCH p.supplier " +
+            "WHERE p.business.id = ?1 AND p.stockGap <= 0 AND p.deletionDate IS NULL " +
+            "ORDER BY p.stockGap, p.id")
+    List<Product> findActivesAtMinStockByBusiness(Long businessID);
+
     @Query("SELECT p " +
             "FROM Product p " +
             "INNER JOIN p.business b " +
@@ -37,6 +60,44 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             "WHERE p.id = ?1 AND p.deletionDate IS NULL AND b.id = ?2")
     Boolean existsByIdActiveAndBusiness(Long productID, Long businessID);
 
+    @Query("SELECT p.id " +
+            "FROM Product p " +
+            "INNER JOIN p.business b " +
+            "WHERE b.id = ?1")
+    List<Long> findIDsByBusiness(Long businessID, Limit limit);
+
+    @Query("SELECT DISTINCT s.id " +
+            "FROM Product p " +
+            "INNER JOIN p.supplier s " +
+            "WHERE p.id IN ?1")
+    List<Long> findSupplierIDsByProducts(Collection<Long> productIDs);
+
+    // Movements: the current stock moved in the database, only while it stays >= 0 (0 rows: not enough stock)
+    // The update itself is the oversell check: nothing is read nor locked before it
+    @Modifying
+    @Query("UPDATE Product p " +
+            "SET p.available = p.available + ?2 " +
+            "WHERE p.id = ?1 AND p.available + ?2 >= 0")
+    int addToAvailable(Long productID, Integer delta);
+
+    // Product ID and current stock (scalars: never the stale instances of the persistence context)
+    @Query("SELECT p.id, p.available " +
+            "FROM Product p " +
+            "WHERE p.id IN ?1")
+    List<Object[]> findAvailableByIDs(Collection<Long> productIDs);
+
+    // Compaction: deltas added to the snapshot in the database (no read-modify-write)
+    @Modifying
+    @Query("UPDATE Product p " +
+            "SET p.stock = p.stock + ?2, p.stockGap = p.stock + ?2 - p.stockMin " +
+            "WHERE p.id = ?1")
+    void addToStock(Long productID, Integer delta);
+
+    @Modifying
+    @Query("DELETE FROM Product p " +
+            "WHERE p.id IN ?1")
+    void deleteAllByIDs(Collection<Long> productIDs);
+
     @Modifying
     @Query("DELETE FROM Product p " +
             "WHERE p IN (" +
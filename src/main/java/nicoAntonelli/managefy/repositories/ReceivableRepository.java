@@ -0,0 +1,72 @@
+package nicoAntonelli.managefy.repositories;
+
+import nicoAntonelli.managefy.entities.Client;
+import nicoAntonelli.managefy.entities.Receivable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReceivableRepository extends JpaRepository<Receivable, Long> {
+    // Balances by client (null: sales without one), aged by the bucket limits (sale dates since 30, 60 & 90 days ago):
+    // client ID, name, sales, total, 0-30, 31-60, 61-90, over 90
+    @Query("SELECT c.id, c.name, COUNT(r), SUM(r.outstanding), " +
+            "SUM(CASE WHEN r.date >= ?2 THEN r.outstanding ELSE 0 END), " +
+            "SUM(CASE WHEN r.date < ?2 AND r.date >= ?3 THEN r.outstanding ELSE 0 END), " +
+            "SUM(CASE WHEN r.date < ?3 AND r.date >= ?4 THEN r.outstanding ELSE 0 END), " +
+            "SUM(CASE WHEN r.date < ?4 THEN r.outstanding ELSE 0 END) " +
+            "FROM Receivable r " +
+            "LEFT JOIN r.client c " +
+            "WHERE r.business.id = ?1 " +
+            "GROUP BY c.id, c.name " +
+            "ORDER BY SUM(r.outstanding) DESC")
+    List<Object[]> findBalancesByBusiness(Long businessID, LocalDateTime limit30, LocalDateTime limit60, LocalDateTime limit90);
+
+    @Query("SELECT c.id, c.name, COUNT(r), SUM(r.outstanding), " +
+            "SUM(CASE WHEN r.date >= ?3 THEN r.outstanding ELSE 0 END), " +
+            "SUM(CASE WHEN r.date < ?3 AND r.date >= ?4 THEN r.outstanding ELSE 0 END), " +
+            "SUM(CASE WHEN r.date < ?4 AND r.date >= ?5 THEN r.outstanding ELSE 0 END), " +
+            "SUM(CASE WHEN r.date < ?5 THEN r.outstanding ELSE 0 END) " +
+            "FROM Receivable r " +
+            "INNER JOIN r.client c " +
+            "WHERE r.business.id = ?1 AND c.id = ?2 " +
+            "GROUP BY c.id, c.name")
+    List<Object[]> findBalancesByBusinessAndClient(Long businessID, Long clientID, LocalDateTime limit30, LocalDateTime limit60, LocalDateTime limit90);
+
+    // Existing balance of the sale replaced in place (no merge of the entity): updated rows
+    @Modifying
+    @Query("UPDATE Receivable r " +
+            "SET r.outstanding = ?2, r.client = ?3 " +
+            "WHERE r.saleID = ?1")
+    int updateBySale(Long saleID, BigDecimal outstanding, Client client);
+
+    @Modifying
+    @Query("DELETE FROM Receivable r " +
+            "WHERE r.saleID = ?1")
+    void deleteBySale(Long saleID);
+
+    @Modifying
+    @Query("DELETE FROM Receivable r " +
+            "WHERE r.saleID IN ?1")
+    void deleteAllBySales(Collection<Long> saleIDs);
+
+    // Same as their sales: assigned to a client
+    @Modifying
+    @Query("UPDATE Receivable r " +
+            "SET r.client = ?1 " +
+            "WHERE r.saleID IN ?2")
+    int updateClientBySales(Client client, Collection<Long> saleIDs);
+
+    // Same as their sales: client moved (merged clients) or erased (deleted client)
+    @Modifying
+    @Query("UPDATE Receivable r " +
+            "SET r.client = ?1 " +
+            "WHERE r.business.id = ?2 AND r.client.id IN ?3")
+    int updateClientByBusinessAndClients(Client client, Long businessID, Collection<Long> clientIDs);
+}
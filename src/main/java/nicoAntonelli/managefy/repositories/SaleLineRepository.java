@@ -6,8 +6,31 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface SaleLineRepository extends JpaRepository<SaleLine, Long> {
+    // Units sold by product since a date (cancelled sales excluded): product ID and amount
+    @Query("SELECT sl.product.id, SUM(sl.amount) " +
+            "FROM SaleLine sl " +
+            "INNER JOIN sl.sale s " +
+            "WHERE sl.product.id IN ?1 AND s.date >= ?2 " +
+            "AND s.state <> SaleState.Cancelled " +
+            "GROUP BY sl.product.id")
+    List<Object[]> sumAmountsByProductsSince(Collection<Long> productIDs, LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM SaleLine sl " +
+            "WHERE sl.sale.id IN ?1")
+    void deleteAllBySales(Collection<Long> saleIDs);
+
+    @Modifying
+    @Query("DELETE FROM SaleLine sl " +
+            "WHERE sl.product.id IN ?1")
+    void deleteAllByProducts(Collection<Long> productIDs);
+
     @Modifying
     @Query("DELETE FROM SaleLine sl " +
             "WHERE sl IN (" +
@@ -1,19 +1,26 @@
 package nicoAntonelli.managefy.repositories;
 
+import jakarta.persistence.LockModeType;
+import nicoAntonelli.managefy.entities.Client;
 import nicoAntonelli.managefy.entities.Sale;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SaleRepository extends JpaRepository<Sale, Long> {
+    // Sales returned by the API: their lines in the same query (never loaded lazily while writing the response)
     @Query("SELECT s " +
             "FROM Sale s " +
+            "LEFT JOIN FETCH s.saleLines " +
             "INNER JOIN s.business b " +
             "WHERE s.date >= ?1 AND s.date <= ?2 " +
             "AND s.state <> SaleState.Cancelled AND b.id = ?3 " +
@@ -22,6 +29,7 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
 
     @Query("SELECT s " +
             "FROM Sale s " +
+            "LEFT JOIN FETCH s.saleLines " +
             "INNER JOIN s.business b " +
             "WHERE (s.state = SaleState.PendingPayment OR s.state = SaleState.PartialPayment) " +
             "AND b.id = ?1 " +
@@ -30,6 +38,7 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
 
     @Query("SELECT s " +
             "FROM Sale s " +
+            "LEFT JOIN FETCH s.saleLines " +
             "INNER JOIN s.business b " +
             "INNER JOIN s.client c " +
             "WHERE s.state <> SaleState.Cancelled " +
@@ -39,11 +48,19 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
 
     @Query("SELECT s " +
             "FROM Sale s " +
+            "LEFT JOIN FETCH s.saleLines " +
             "INNER JOIN s.business b " +
             "WHERE s.id = ?1 AND s.state <> SaleState.Cancelled AND b.id = ?2 " +
             "ORDER BY s.date DESC")
     Optional<Sale> findByIdActiveAndBusiness(Long productID, Long businessID);
 
+    // Row lock (no join: only the sale's row), released at commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s " +
+            "FROM Sale s " +
+            "WHERE s.id = ?1 AND s.state <> SaleState.Cancelled AND s.business.id = ?2")
+    Optional<Sale> findByIdActiveAndBusinessForUpdate(Long saleID, Long businessID);
+
     @Query("SELECT COUNT(s) > 0 " +
             "FROM Sale s " +
             "INNER JOIN s.business b " +
@@ -51,6 +68,30 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
             "ORDER BY s.date DESC")
     Boolean existsByIdActiveAndBusiness(Long productID, Long businessID);
 
+    @Query("SELECT s.id " +
+            "FROM Sale s " +
+            "INNER JOIN s.business b " +
+            "WHERE b.id = ?1")
+    List<Long> findIDsByBusiness(Long businessID, Limit limit);
+
+    @Query("SELECT DISTINCT c.id " +
+            "FROM Sale s " +
+            "INNER JOIN s.client c " +
+            "WHERE s.id IN ?1")
+    List<Long> findClientIDsBySales(Collection<Long> saleIDs);
+
+    @Modifying
+    @Query("DELETE FROM Sale s " +
+            "WHERE s.id IN ?1")
+    void deleteAllByIDs(Collection<Long> saleIDs);
+
+    // Merged clients: their sales of the business moved to the kept one
+    @Modifying
+    @Query("UPDATE Sale s " +
+            "SET s.client = ?1 " +
+            "WHERE s.business.id = ?2 AND s.client.id IN ?3")
+    int updateClientByBusinessAndClients(Client client, Long businessID, Collection<Long> clientIDs);
+
     @Modifying
     @Query("DELETE FROM Sale s " +
             "WHERE s IN (" +
@@ -2,9 +2,11 @@ package nicoAntonelli.managefy.repositories;
 
 import nicoAntonelli.managefy.entities.Supplier;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,4 +39,10 @@ public interface SupplierRepository extends JpaRepository<Supplier, Long> {
             "INNER JOIN p.business b " +
             "WHERE s.id = ?1 AND s.deletionDate IS NULL AND b.id = ?2")
     Boolean existsByIdActiveAndBusiness(Long supplierID, Long businessID);
+
+    // Only the ones left without any product
+    @Modifying
+    @Query("DELETE FROM Supplier s " +
+            "WHERE s.id IN ?1 AND s.products IS EMPTY")
+    int deleteOrphansByIDs(Collection<Long> supplierIDs);
 }
@@ -1,14 +1,17 @@
 package nicoAntonelli.managefy.services;
 
+import io.micrometer.core.annotation.Timed;
 import nicoAntonelli.managefy.entities.User;
 import nicoAntonelli.managefy.utils.Exceptions;
 import nicoAntonelli.managefy.utils.JWTHelper;
+import nicoAntonelli.managefy.utils.ReplicaRoutingDataSource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
 @Service
+@Timed(value = "managefy.service", histogram = true)
 public class AuthService {
     // Fails with null
     public User validateToken(String token) {
@@ -44,6 +47,9 @@ public class AuthService {
             throw new Exceptions.UnauthorizedException(methodName + " - The user is not correctly validated yet!");
         }
 
+        // Read-your-writes: replica reads of this request only if it already has the user's last commit
+        ReplicaRoutingDataSource.setCurrentUser(user.getId());
+
         return user;
     }
 }
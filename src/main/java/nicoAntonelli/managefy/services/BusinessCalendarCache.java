@@ -0,0 +1,95 @@
+package nicoAntonelli.managefy.services;
+
+import nicoAntonelli.managefy.entities.Business;
+import nicoAntonelli.managefy.repositories.BusinessRepository;
+import nicoAntonelli.managefy.utils.BusinessCalendar;
+import nicoAntonelli.managefy.utils.Exceptions;
+import nicoAntonelli.managefy.utils.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Compiled business days by business ('BusinessCalendar', shared instances): date math for aging, projections and
+// reports without loading the business nor its days map again. Callers validate the business and the user first
+// Evicted after the commit of the business' update (or deletion). A calendar reloaded after that must not come from
+// a replica still behind the change: callers ask for fresh reads ('RequireFreshReads') before their first statement.
+// The TTL bounds what's left (a transaction already on the replica when the eviction happened)
+@Component
+public class BusinessCalendarCache {
+    private final BusinessRepository businessRepository;
+    private final Long ttlMillis;
+
+    // Bumped by every invalidation: a calendar loaded before one of them isn't stored
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Long, Entry> calendars = new ConcurrentHashMap<>();
+    private final Map<Long, Long> changedAt = new ConcurrentHashMap<>(); // Epoch millis of the last eviction
+
+    private record Entry(BusinessCalendar calendar, long expiresAt) { }
+
+    @Autowired
+    public BusinessCalendarCache(BusinessRepository businessRepository, Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        this.businessRepository = businessRepository;
+        ttlMillis = env.getProperty("businesses.calendarCache.ttlSeconds", Long.class, 300L) * 1000;
+    }
+
+    // Reads of the current transaction must include the last change of the business' days (before its first statement,
+    // the connection is chosen there): a replica behind it isn't used, so a reloaded calendar is never the old one
+    public void RequireFreshReads(Long businessID) {
+        Long at = changedAt.get(businessID);
+        if (at != null) ReplicaRoutingDataSource.requireCommittedSince(at);
+    }
+
+    // Loaded from the shard the caller is bound to (the business' one)
+    public BusinessCalendar Get(Long businessID) {
+        long now = System.currentTimeMillis();
+        Entry entry = calendars.get(businessID);
+        if (entry != null && entry.expiresAt() > now) return entry.calendar();
+
+        long loadedAt = generation.get();
+        Business business = businessRepository.findById(businessID).orElseThrow(
+                () -> new Exceptions.BadRequestException("Error at 'Get' - Business with ID: " + businessID + " doesn't exist")
+        );
+        BusinessCalendar calendar = BusinessCalendar.of(business.getBusinessDays());
+
+        synchronized (calendars) {
+            if (generation.get() == loadedAt) {
+                calendars.put(businessID, new Entry(calendar, now + ttlMillis));
+            }
+        }
+
+        return calendar;
+    }
+
+    // After the caller's transaction commits: readers before it still see the old days in DB
+    public void Invalidate(Long businessID) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Evict(businessID);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Evict(businessID);
+            }
+        });
+    }
+
+    private void Evict(Long businessID) {
+        synchronized (calendars) {
+            generation.incrementAndGet();
+            changedAt.put(businessID, System.currentTimeMillis());
+            calendars.remove(businessID);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package nicoAntonelli.managefy.services;
+
+import nicoAntonelli.managefy.AsyncConfig;
+import nicoAntonelli.managefy.entities.User;
+import nicoAntonelli.managefy.entities.dto.BusinessDeletion;
+import nicoAntonelli.managefy.entities.dto.BusinessDeletion.DeletionState;
+import nicoAntonelli.managefy.entities.dto.NotificationC;
+import nicoAntonelli.managefy.repositories.*;
+import nicoAntonelli.managefy.utils.Exceptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Physical deletion of a business (already detached from its users) in bounded transactions:
+// every chunk deletes a page of sales (with lines, receivables, payments & orphan clients), products (with movements & orphan suppliers)
+// or change events.
+// Not '@Transactional': each chunk commits on its own, so a restart resumes from what's left
+@Service
+public class BusinessDeletionService {
+    private final BusinessRepository businessRepository;
+    private final ChangeEventRepository changeEventRepository; // Dependency
+    private final ClientRepository clientRepository; // Dependency
+    private final InventoryMovementRepository inventoryMovementRepository; // Dependency
+    private final PaymentRepository paymentRepository; // Dependency
+    private final ProductRepository productRepository; // Dependency
+    private final ReceivableRepository receivableRepository; // Dependency
+    private final SaleRepository saleRepository; // Dependency
+    private final SaleLineRepository saleLineRepository; // Dependency
+    private final SupplierRepository supplierRepository; // Dependency
+    private final UserRoleRepository userRoleRepository; // Dependency
+    private final NotificationService notificationService; // Dependency
+    private final ErrorLogService errorLogService; // Dependency
+    private final ShardDirectory shardDirectory; // Dependency
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor jobExecutor;
+    private final Integer chunkSize;
+    private final Long retentionMinutes;
+
+    // Progress by business ID (snapshots replaced after every chunk)
+    private final Map<Long, DeletionJob> jobs = new ConcurrentHashMap<>();
+
+    private record DeletionJob(Long userID, BusinessDeletion progress) { }
+
+    @Autowired
+    public BusinessDeletionService(BusinessRepository businessRepository,
+                                   ChangeEventRepository changeEventRepository,
+                                   ClientRepository clientRepository,
+                                   InventoryMovementRepository inventoryMovementRepository,
+                                   PaymentRepository paymentRepository,
+                                   ProductRepository productRepository,
+                                   ReceivableRepository receivableRepository,
+                                   SaleRepository saleRepository,
+                                   SaleLineRepository saleLineRepository,
+                                   SupplierRepository supplierRepository,
+                                   UserRoleRepository userRoleRepository,
+                                   NotificationService notificationService,
+                                   ErrorLogService errorLogService,
+                                   ShardDirectory shardDirectory,
+                                   PlatformTransactionManager transactionManager,
+                                   @Qualifier(AsyncConfig.JOB_EXECUTOR) TaskExecutor jobExecutor,
+                                   Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        this.businessRepository = businessRepository;
+        this.changeEventRepository = changeEventRepository;
+        this.clientRepository = clientRepository;
+        this.inventoryMovementRepository = inventoryMovementRepository;
+        this.paymentRepository = paymentRepository;
+        this.productRepository = productRepository;
+        this.receivableRepository = receivableRepository;
+        this.saleRepository = saleRepository;
+        this.saleLineRepository = saleLineRepository;
+        this.supplierRepository = supplierRepository;
+        this.userRoleRepository = userRoleRepository;
+        this.notificationService = notificationService;
+        this.errorLogService = errorLogService;
+        this.shardDirectory = shardDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobExecutor = jobExecutor;
+        chunkSize = env.getProperty("businesses.deletion.chunkSize", Integer.class, 500);
+        retentionMinutes = env.getProperty("businesses.deletion.retentionMinutes", Long.class, 60L);
+    }
+
+    public BusinessDeletion GetDeletion(Long businessID, User user) {
+        DeletionJob job = jobs.get(businessID);
+        if (job == null || !user.getId().equals(job.userID())) {
+            throw new Exceptions.NotFoundException("Error at 'GetDeletion' - There's no deletion in progress for business with ID: " + businessID + " requested by the user: " + user.getId());
+        }
+
+        return job.progress();
+    }
+
+    // Starts once the caller's transaction (the one detaching the business) commits
+    public BusinessDeletion StartDeletion(Long businessID, User user) {
+        BusinessDeletion progress = new BusinessDeletion(businessID, DeletionState.Running, "Pending",
+                0L, 0L, 0L, 0L, LocalDateTime.now(), null, null);
+        Long userID = user != null ? user.getId() : null;
+
+        DeletionJob previous = jobs.putIfAbsent(businessID, new DeletionJob(userID, progress));
+        if (previous != null) {
+            if (previous.progress().getState() == DeletionState.Running) return previous.progress();
+            jobs.put(businessID, new DeletionJob(userID, progress));
+        }
+
+        Runnable task = () -> RunDeletion(businessID, user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    jobExecutor.execute(task);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) jobs.remove(businessID);
+                }
+            });
+        }
+        else {
+            jobExecutor.execute(task);
+        }
+
+        return progress;
+    }
+
+    // Businesses marked for deletion were being deleted when the app stopped (on every shard, jobs keep theirs)
+    @EventListener(ApplicationReadyEvent.class)
+    public void ResumeDeletions() {
+        shardDirectory.ForEachShard(() -> {
+            for (Long businessID : businessRepository.findIDsPendingDeletion()) {
+                StartDeletion(businessID, null);
+            }
+        });
+    }
+
+    // Finished deletions (completed or failed) readable for a while, then forgotten
+    @Scheduled(fixedDelayString = "${businesses.deletion.evictionMillis:60000}")
+    public void EvictFinished() {
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.progress().getEndDate() != null && job.progress().getEndDate().isBefore(limit));
+    }
+
+    private void RunDeletion(Long businessID, User user) {
+        BusinessDeletion progress = jobs.get(businessID).progress();
+        long sales = 0, clients = 0, products = 0, suppliers = 0;
+
+        try {
+            // Sales first: lines reference products
+            List<Long> saleIDs;
+            while (!(saleIDs = NextSales(businessID)).isEmpty()) {
+                List<Long> chunk = saleIDs;
+                clients += Execute(() -> {
+                    List<Long> clientIDs = saleRepository.findClientIDsBySales(chunk);
+                    saleLineRepository.deleteAllBySales(chunk);
+                    receivableRepository.deleteAllBySales(chunk);
+                    paymentRepository.deleteAllBySales(chunk);
+                    saleRepository.deleteAllByIDs(chunk);
+                    return clientIDs.isEmpty() ? 0 : clientRepository.deleteOrphansByIDs(clientIDs);
+                });
+                sales += chunk.size();
+                progress = Publish(businessID, progress, "Sales", sales, clients, products, suppliers);
+            }
+
+            List<Long> productIDs;
+            while (!(productIDs = NextProducts(businessID)).isEmpty()) {
+                List<Long> chunk = productIDs;
+                suppliers += Execute(() -> {
+                    List<Long> supplierIDs = productRepository.findSupplierIDsByProducts(chunk);
+                    saleLineRepository.deleteAllByProducts(chunk);
+                    inventoryMovementRepository.deleteAllByProducts(chunk);
+                    productRepository.deleteAllByIDs(chunk);
+                    return supplierIDs.isEmpty() ? 0 : supplierRepository.deleteOrphansByIDs(supplierIDs);
+                });
+                products += chunk.size();
+                progress = Publish(businessID, progress, "Products", sales, clients, products, suppliers);
+            }
+
+            // Feed of a business that no longer exists: nobody can read it
+            List<Long> eventIDs;
+            while (!(eventIDs = changeEventRepository.findIDsByBusiness(businessID, Limit.of(chunkSize))).isEmpty()) {
+                List<Long> chunk = eventIDs;
+                Execute(() -> {
+                    changeEventRepository.deleteAllByIDs(chunk);
+                    return 0;
+                });
+                progress = Publish(businessID, progress, "Events", sales, clients, products, suppliers);
+            }
+
+            // Finally, the business itself (and any role created meanwhile)
+            progress = Publish(businessID, progress, "Business", sales, clients, products, suppliers);
+            Execute(() -> {
+                userRoleRepository.deleteAllByBusiness(businessID);
+                businessRepository.deleteById(businessID);
+                return 0;
+            });
+        }
+        catch (Exception ex) {
+            Finish(businessID, progress, DeletionState.Failed, ex.getMessage());
+            errorLogService.SetBackendError("Error at 'RunDeletion' - Deletion of business with ID: " + businessID + " stopped, it will be resumed on restart", Exceptions.InternalServerErrorException.status, ex);
+            return;
+        }
+
+        Finish(businessID, progress, DeletionState.Completed, null);
+
+        // Notification for deleted business (not for resumed deletions: nobody waiting)
+        if (user != null) {
+            NotificationC notification = new NotificationC("Your business was correctly deleted, with all the associated info (sales, products, clients, suppliers, etc...)", "priority");
+            notificationService.CreateNotification(notification, user);
+        }
+    }
+
+    private List<Long> NextSales(Long businessID) {
+        return saleRepository.findIDsByBusiness(businessID, Limit.of(chunkSize));
+    }
+
+    private List<Long> NextProducts(Long businessID) {
+        return productRepository.findIDsByBusiness(businessID, Limit.of(chunkSize));
+    }
+
+    private int Execute(Supplier<Integer> chunk) {
+        Integer result = transactionTemplate.execute(_ -> chunk.get());
+        return result != null ? result : 0;
+    }
+
+    private BusinessDeletion Publish(Long businessID, BusinessDeletion previous, String stage,
+                                     long sales, long clients, long products, long suppliers) {
+        BusinessDeletion progress = new BusinessDeletion(businessID, DeletionState.Running, stage,
+                sales, clients, products, suppliers, previous.getStartDate(), null, null);
+        jobs.computeIfPresent(businessID, (_, job) -> new DeletionJob(job.userID(), progress));
+        return progress;
+    }
+
+    private void Finish(Long businessID, BusinessDeletion previous, DeletionState state, String error) {
+        BusinessDeletion progress = new BusinessDeletion(businessID, state, previous.getStage(),
+                previous.getSalesDeleted(), previous.getClientsDeleted(), previous.getProductsDeleted(),
+                previous.getSuppliersDeleted(), previous.getStartDate(), LocalDateTime.now(), error);
+        jobs.computeIfPresent(businessID, (_, job) -> new DeletionJob(job.userID(), progress));
+    }
+}
@@ -0,0 +1,72 @@
+package nicoAntonelli.managefy.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// In-memory index by business (LRU, bounded), rebuilt when the version of its scope changes ('ChangeVersions')
+public abstract class BusinessIndexCache<I> {
+    private final ChangeVersions changeVersions;
+    private final ChangeVersions.Scope scope;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final LinkedHashMap<Long, Indexed<I>> indexes;
+
+    private record Indexed<I>(long version, I index) { }
+
+    protected BusinessIndexCache(String name, ChangeVersions.Scope scope, int maxBusinesses,
+                                 ChangeVersions changeVersions, MeterRegistry registry) {
+        this.changeVersions = changeVersions;
+        this.scope = scope;
+
+        // Access order: the least recently used business is evicted first
+        indexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Indexed<I>> eldest) {
+                return size() > maxBusinesses;
+            }
+        };
+
+        hits = Counter.builder("managefy.cache.requests").tag("cache", name).tag("result", "hit").register(registry);
+        misses = Counter.builder("managefy.cache.requests").tag("cache", name).tag("result", "miss").register(registry);
+        Gauge.builder("managefy.cache.size", this, cache -> cache.Size()).tag("cache", name).register(registry);
+    }
+
+    // Builder: loads from DB (inside the caller's transaction), only called on a miss
+    public I Get(Long businessID, Supplier<I> builder) {
+        long version = changeVersions.Current(scope, businessID);
+
+        Indexed<I> indexed;
+        synchronized (indexes) {
+            indexed = indexes.get(businessID);
+        }
+        if (indexed != null && indexed.version() == version) {
+            hits.increment();
+            return indexed.index();
+        }
+
+        misses.increment();
+        I index = builder.get();
+
+        // A write committed meanwhile: use it once, but don't keep it (checked outside the lock, it's a query: one
+        // bumped right after is stored anyway, never served since its version doesn't match)
+        if (changeVersions.Current(scope, businessID) == version) {
+            synchronized (indexes) {
+                indexes.put(businessID, new Indexed<>(version, index));
+            }
+        }
+
+        return index;
+    }
+
+    public int Size() {
+        synchronized (indexes) {
+            return indexes.size();
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package nicoAntonelli.managefy.services;
 
-import jakarta.transaction.Transactional;
-import nicoAntonelli.managefy.entities.*;
+import io.micrometer.core.annotation.Timed;
+import nicoAntonelli.managefy.entities.Business;
+import nicoAntonelli.managefy.entities.User;
 import nicoAntonelli.managefy.entities.dto.BusinessCU;
+import nicoAntonelli.managefy.entities.dto.BusinessDeletion;
 import nicoAntonelli.managefy.entities.dto.NotificationC;
-import nicoAntonelli.managefy.repositories.*;
+import nicoAntonelli.managefy.repositories.BusinessRepository;
+import nicoAntonelli.managefy.repositories.UserRoleRepository;
+import nicoAntonelli.managefy.utils.BusinessCalendar;
 import nicoAntonelli.managefy.utils.Exceptions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -16,37 +22,37 @@ import java.util.SortedMap;
 
 @Service
 @Transactional
+@Timed(value = "managefy.service", histogram = true)
 public class BusinessService {
     private final BusinessRepository businessRepository;
-    private final ClientRepository clientRepository; // Dependency
-    private final ProductRepository productRepository; // Dependency
-    private final SaleRepository saleRepository; // Dependency
-    private final SaleLineRepository saleLineRepository; // Dependency
-    private final SupplierRepository supplierRepository; // Dependency
     private final UserRoleRepository userRoleRepository; // Dependency
     private final NotificationService notificationService; // Dependency
+    private final BusinessDeletionService businessDeletionService; // Dependency
+    private final PublicBusinessCache publicBusinessCache; // Dependency
+    private final BusinessCalendarCache businessCalendarCache; // Dependency
+    private final ShardDirectory shardDirectory; // Dependency
 
     @Autowired
     public BusinessService(BusinessRepository businessRepository,
-                           ClientRepository clientRepository,
-                           ProductRepository productRepository,
-                           SaleRepository saleRepository,
-                           SaleLineRepository saleLineRepository,
-                           SupplierRepository supplierRepository,
                            UserRoleRepository userRoleRepository,
-                           NotificationService notificationService) {
+                           NotificationService notificationService,
+                           BusinessDeletionService businessDeletionService,
+                           PublicBusinessCache publicBusinessCache,
+                           BusinessCalendarCache businessCalendarCache,
+                           ShardDirectory shardDirectory) {
         this.businessRepository = businessRepository;
-        this.clientRepository = clientRepository;
-        this.productRepository = productRepository;
-        this.saleRepository = saleRepository;
-        this.saleLineRepository = saleLineRepository;
-        this.supplierRepository = supplierRepository;
         this.userRoleRepository = userRoleRepository;
         this.notificationService = notificationService;
+        this.businessDeletionService = businessDeletionService;
+        this.publicBusinessCache = publicBusinessCache;
+        this.businessCalendarCache = businessCalendarCache;
+        this.shardDirectory = shardDirectory;
     }
 
+    @Transactional(readOnly = true)
     public List<Business> GetBusinesses(User user) {
-        return businessRepository.findByUser(user.getId());
+        // The user's businesses can be on any shard
+        return shardDirectory.FanOut(() -> businessRepository.findByUser(user.getId()));
     }
 
     public Boolean ExistsBusiness(Long businessID, User user, String minimumRole) {
@@ -57,6 +63,7 @@ public class BusinessService {
         };
     }
 
+    @Transactional(readOnly = true)
     public Business GetOneBusiness(Long businessID, User user) {
         Optional<Business> business = businessRepository.findByIdAndUser(businessID, user.getId());
         if (business.isEmpty()) {
@@ -66,8 +73,9 @@ public class BusinessService {
         return business.get();
     }
 
+    @Transactional(readOnly = true)
     public Business GetOneBusinessByLink(String link, User user) {
-        Optional<Business> business = businessRepository.findByLink(link, user.getId());
+        Optional<Business> business = shardDirectory.FanOutFirst(() -> businessRepository.findByLink(link, user.getId()));
         if (business.isEmpty()) {
             throw new Exceptions.BadRequestException("Error at 'GetOneBusinessByLink' - Business with Link: " + link + " doesn't exist or the user: " + user.getId() + " don't have a rol in it");
         }
@@ -75,8 +83,9 @@ public class BusinessService {
         return business.get();
     }
 
+    @Transactional(readOnly = true)
     public Business GetOneBusinessByLinkPublic(String link) {
-        Optional<Business> business = businessRepository.findByLinkPublic(link);
+        Optional<Business> business = shardDirectory.FanOutFirst(() -> businessRepository.findByLinkPublic(link));
         if (business.isEmpty()) {
             throw new Exceptions.BadRequestException("Error at 'GetOneBusinessByLinkPublic' - Business with Link: " + link + " doesn't exist or the business it's not public");
         }
@@ -91,7 +100,7 @@ public class BusinessService {
         }
 
         // Link unique validation
-        Optional<Business> possibleBusiness = businessRepository.findByLink(businessCU.getLink(), user.getId());
+        Optional<Business> possibleBusiness = shardDirectory.FanOutFirst(() -> businessRepository.findByLink(businessCU.getLink(), user.getId()));
         if (possibleBusiness.isPresent()) {
             throw new Exceptions.BadRequestException("Error at 'CreateBusiness' - Link '" + businessCU.getLink() + "' already taken");
         }
@@ -106,6 +115,9 @@ public class BusinessService {
         // Note: user role "Manager" creation it's called from controller to prevent circular dependency
         business = businessRepository.save(business);
 
+        // The link could be cached as not found
+        publicBusinessCache.Invalidate(business.getLink());
+
         // Notification for new business
         NotificationC notification = new NotificationC("Your new business '" + business.getName() + "' is ready! You can load some products and sales!", "normal");
         notificationService.CreateNotification(notification, user);
@@ -128,7 +140,7 @@ public class BusinessService {
         ValidateBusinessDays(businessCU);
 
         // Link unique validation
-        Optional<Business> possibleBusiness = businessRepository.findByLink(businessCU.getLink(), user.getId());
+        Optional<Business> possibleBusiness = shardDirectory.FanOutFirst(() -> businessRepository.findByLink(businessCU.getLink(), user.getId()));
         if (possibleBusiness.isPresent()) {
             // Only fail validation if it's not the same business
             if (!Objects.equals(possibleBusiness.get().getId(), businessCU.getId())) {
@@ -139,6 +151,10 @@ public class BusinessService {
         // Validate business existence and obtain it loaded from DB
         Business business = GetOneBusiness(businessCU.getId(), user);
 
+        // Public page: the previous link and the new one
+        publicBusinessCache.Invalidate(business.getLink(), businessCU.getLink());
+        businessCalendarCache.Invalidate(business.getId());
+
         // Merge DTO's client with the original - Don't mess up relation with other entities
         business.setName(businessCU.getName());
         business.setDescription(businessCU.getDescription());
@@ -156,34 +172,29 @@ public class BusinessService {
     }
 
     // Warning: deletes everything related also!
-    public Long DeleteBusiness(Long businessID, User user) {
+    // Only detaches the business here (no roles, not public, link released), the rest is deleted in chunks by a background job
+    public BusinessDeletion DeleteBusiness(Long businessID, User user) {
         boolean exists = ExistsBusiness(businessID, user, "manager");
         if (!exists) {
             throw new Exceptions.BadRequestException("Error at 'DeleteBusiness' - Business with ID: " + businessID + " doesn't exist or the user: " + user.getId() + " isn't the Manager");
         }
 
-        // Get associated clients & suppliers, actives or not
-        List<Client> associatedClients = clientRepository.findByBusiness(businessID);
-        List<Supplier> associatedSuppliers = supplierRepository.findByBusiness(businessID);
+        Business business = GetOneBusiness(businessID, user);
+        publicBusinessCache.Invalidate(business.getLink());
+        businessCalendarCache.Invalidate(businessID);
+        business.setIsPublic(false);
+        business.setLink("deleted-" + businessID);
+        business.setDeletionRequestedAt(LocalDateTime.now());
+        businessRepository.save(business);
 
-        // Physically delete associated: saleLines, sales, products & roles
-        saleLineRepository.deleteAllByBusiness(businessID);
-        saleRepository.deleteAllByBusiness(businessID);
-        productRepository.deleteAllByBusiness(businessID);
         userRoleRepository.deleteAllByBusiness(businessID);
 
-        // Physically delete associated: clients & suppliers
-        clientRepository.deleteAll(associatedClients);
-        supplierRepository.deleteAll(associatedSuppliers);
-
-        // Finally, physically delete business
-        businessRepository.deleteById(businessID);
-
-        // Notification for deleted business
-        NotificationC notification = new NotificationC("Your business was correctly deleted, with all the associated info (sales, products, clients, suppliers, etc...)", "priority");
-        notificationService.CreateNotification(notification, user);
+        // Physical deletion (and its notification) once this transaction commits
+        return businessDeletionService.StartDeletion(businessID, user);
+    }
 
-        return businessID;
+    public BusinessDeletion GetBusinessDeletion(Long businessID, User user) {
+        return businessDeletionService.GetDeletion(businessID, user);
     }
 
     private void ValidateBusinessDays(BusinessCU businessCU) {
@@ -193,9 +204,8 @@ public class BusinessService {
                 throw new Exceptions.BadRequestException("Error at 'ValidateBusinessDays' - Business days need to have a total of 7 days");
             }
 
-            List<String> weekDays = List.of("Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday");
             for (String key : businessDays.keySet()) {
-                if (!weekDays.contains(key)) {
+                if (!BusinessCalendar.WEEK_DAYS.contains(key)) {
                     throw new Exceptions.BadRequestException("Error at 'ValidateBusinessDays' - Business days don't contain '" + key + "'");
                 }
             }
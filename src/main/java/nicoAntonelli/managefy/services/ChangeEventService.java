@@ -0,0 +1,335 @@
+package nicoAntonelli.managefy.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import nicoAntonelli.managefy.AsyncConfig;
+import nicoAntonelli.managefy.entities.ChangeEvent;
+import nicoAntonelli.managefy.entities.ChangeEventPosition;
+import nicoAntonelli.managefy.entities.InventoryMovement;
+import nicoAntonelli.managefy.entities.User;
+import nicoAntonelli.managefy.entities.dto.ChangeFeed;
+import nicoAntonelli.managefy.entities.dto.ChangePayloads;
+import nicoAntonelli.managefy.repositories.ChangeEventPositionRepository;
+import nicoAntonelli.managefy.repositories.ChangeEventRepository;
+import nicoAntonelli.managefy.utils.Exceptions;
+import nicoAntonelli.managefy.utils.RequestConnection;
+import nicoAntonelli.managefy.utils.ShardRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Change feed (transactional outbox): services record an event with every change, in their own transaction, and a
+// sequencer numbers the committed ones right after (commit order, one at a time per database). Consumers read a
+// business' events after the last sequence they saw, and can wait for new ones (long poll, woken by the sequencer).
+// A waiting poll holds no thread, connection nor transaction: its feed completes later, from the feed executor
+@Service
+@Transactional
+@Timed(value = "managefy.service", histogram = true)
+public class ChangeEventService {
+    private final ChangeEventRepository changeEventRepository;
+    private final ChangeEventPositionRepository changeEventPositionRepository;
+    private final BusinessService businessService; // Dependency
+    private final ShardDirectory shardDirectory; // Dependency
+    private final TaskExecutor changeEventExecutor;
+    private final TaskExecutor changeFeedExecutor;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper cborMapper;
+    private final Integer sequencerBatchSize;
+    private final Integer defaultLimit;
+    private final Integer maxLimit;
+    private final Long maxWaitMillis;
+
+    private final AtomicBoolean[] sequencing; // By shard: a sequencer run already queued
+    private final Map<Long, Set<Waiter>> waiting = new ConcurrentHashMap<>(); // By business: long polls waiting
+
+    // A long poll waiting for events, on the shard of its business
+    private record Waiter(Long businessID, Long after, Integer limit, int shard, long deadline,
+                          CompletableFuture<ChangeFeed> feed, AtomicBoolean polling) { }
+
+    @Autowired
+    public ChangeEventService(ChangeEventRepository changeEventRepository,
+                              ChangeEventPositionRepository changeEventPositionRepository,
+                              BusinessService businessService,
+                              ShardDirectory shardDirectory,
+                              @Qualifier(AsyncConfig.CHANGE_EVENT_EXECUTOR) TaskExecutor changeEventExecutor,
+                              @Qualifier(AsyncConfig.CHANGE_FEED_EXECUTOR) TaskExecutor changeFeedExecutor,
+                              EntityManagerFactory entityManagerFactory,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        this.changeEventRepository = changeEventRepository;
+        this.changeEventPositionRepository = changeEventPositionRepository;
+        this.businessService = businessService;
+        this.shardDirectory = shardDirectory;
+        this.changeEventExecutor = changeEventExecutor;
+        this.changeFeedExecutor = changeFeedExecutor;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+        sequencerBatchSize = env.getProperty("changeEvents.sequencerBatchSize", Integer.class, 5000);
+        defaultLimit = env.getProperty("changeEvents.feed.defaultLimit", Integer.class, 1000);
+        maxLimit = env.getProperty("changeEvents.feed.maxLimit", Integer.class, 5000);
+        maxWaitMillis = env.getProperty("changeEvents.feed.maxWaitMillis", Long.class, 30000L);
+
+        sequencing = new AtomicBoolean[shardDirectory.Count()];
+        for (int shard = 0; shard < sequencing.length; shard++) {
+            sequencing[shard] = new AtomicBoolean();
+        }
+    }
+
+    // Page after a sequence number (0: from the start). Empty: completes when new ones are sequenced or after
+    // 'waitMillis' (empty), without holding the request's thread nor its connection meanwhile
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<ChangeFeed> GetEvents(Long businessID, Long after, Integer limit, Long waitMillis, User user) {
+        if (after == null) after = 0L;
+        if (limit == null) limit = defaultLimit;
+        if (waitMillis == null) waitMillis = 0L;
+        if (after < 0) {
+            throw new Exceptions.BadRequestException("Error at 'GetEvents' - After must be a positive sequence number (or 0)");
+        }
+        if (limit <= 0 || limit > maxLimit) {
+            throw new Exceptions.BadRequestException("Error at 'GetEvents' - Limit must be between 1 and " + maxLimit);
+        }
+        if (waitMillis < 0 || waitMillis > maxWaitMillis) {
+            throw new Exceptions.BadRequestException("Error at 'GetEvents' - Wait must be between 0 and " + maxWaitMillis + " millis");
+        }
+
+        // Validate business, user and role
+        businessService.GetOneBusiness(businessID, user);
+
+        Waiter waiter = new Waiter(businessID, after, limit, ShardRoutingDataSource.currentShard(),
+                System.currentTimeMillis() + waitMillis, new CompletableFuture<>(), new AtomicBoolean());
+        Poll(waiter);
+        if (waiter.feed().isDone()) return waiter.feed();
+
+        // Sequenced between the poll and this: found by the next sweep ('PollWaiting')
+        RequestConnection.release(entityManagerFactory);
+        waiting.compute(businessID, (_, waiters) -> {
+            if (waiters == null) waiters = ConcurrentHashMap.newKeySet();
+            waiters.add(waiter);
+            return waiters;
+        });
+
+        return waiter.feed();
+    }
+
+    // Joins the caller's transaction: the event exists only if the change commits
+    public void Record(ChangeEvent.EntityType entity, ChangeEvent.Action action, Long entityID, Object payload, Long businessID) {
+        changeEventRepository.save(new ChangeEvent(entity, action, entityID, Serialize(payload), businessID));
+        SequenceAfterCommit();
+    }
+
+    // Stock movements of one change (a sale's lines, a cancellation): a single event, however many products
+    public void RecordMovements(List<InventoryMovement> movements) {
+        if (movements.isEmpty()) return;
+
+        InventoryMovement first = movements.getFirst();
+        Long entityID = first.getSaleID() != null ? first.getSaleID() : first.getProduct().getId();
+        Record(ChangeEvent.EntityType.Stock, ChangeEvent.Action.Created, entityID, ChangePayloads.StockChange.of(movements),
+                first.getBusiness().getId());
+    }
+
+    // Waiting long polls checked again: other instances' events (no wake-up from this sequencer), missed wake-ups and
+    // expired waits (completed empty). One query by shard for every waiting business' last sequence: only the waiters
+    // behind it (and the expired ones) are polled
+    @Scheduled(fixedDelayString = "${changeEvents.feed.pollMillis:250}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void PollWaiting() {
+        long now = System.currentTimeMillis();
+        Map<Integer, List<Waiter>> byShard = new HashMap<>();
+        waiting.values().forEach(waiters -> waiters.forEach(waiter -> {
+            if (now >= waiter.deadline()) PollLater(waiter);
+            else byShard.computeIfAbsent(waiter.shard(), _ -> new ArrayList<>()).add(waiter);
+        }));
+
+        byShard.forEach((shard, waiters) -> ShardRoutingDataSource.on(shard, () -> {
+            Set<Long> businessIDs = new HashSet<>();
+            waiters.forEach(waiter -> businessIDs.add(waiter.businessID()));
+
+            // Primary (not read-only): the replica may not have the last sequenced events yet
+            List<Object[]> rows = transactionTemplate.execute(_ -> changeEventRepository.findLastSequencesByBusinesses(businessIDs));
+            if (rows == null) return null;
+
+            Map<Long, Long> lastSequences = new HashMap<>();
+            for (Object[] row : rows) {
+                if (row[1] != null) lastSequences.put((Long) row[0], (Long) row[1]);
+            }
+
+            WakeUp(waiters, lastSequences);
+            return null;
+        }));
+    }
+
+    // Sweep on every shard: events whose trigger was lost (another instance's, a restart) get sequenced anyway
+    @Scheduled(fixedDelayString = "${changeEvents.sequencerMillis:1000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void SequenceEvents() {
+        shardDirectory.ForEachShard(this::Sequence);
+    }
+
+    private byte[] Serialize(Object payload) {
+        try {
+            return cborMapper.writeValueAsBytes(payload);
+        }
+        catch (JsonProcessingException ex) {
+            throw new Exceptions.InternalServerErrorException("Error at 'Serialize' - Change event's payload can't be serialized", ex);
+        }
+    }
+
+    // Once per transaction: the sequencer runs after its commit, on the same shard
+    private void SequenceAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            RequestSequencing();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) return;
+
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                RequestSequencing();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChangeEventService.this);
+            }
+        });
+    }
+
+    // Commits meanwhile coalesce into the queued run (cleared when it starts: later ones queue another)
+    private void RequestSequencing() {
+        AtomicBoolean queued = sequencing[ShardRoutingDataSource.currentShard()];
+        if (!queued.compareAndSet(false, true)) return;
+
+        changeEventExecutor.execute(() -> {
+            queued.set(false);
+            Sequence();
+        });
+    }
+
+    // Waiters woken from the committed range only: the businesses sequenced, up to their last sequence number
+    private void Sequence() {
+        Map<Long, Long> lastSequences = new HashMap<>();
+        Integer sequenced;
+        do {
+            sequenced = transactionTemplate.execute(status -> SequenceBatch(status, lastSequences));
+        } while (sequenced != null && sequenced.equals(sequencerBatchSize));
+
+        for (Long businessID : lastSequences.keySet()) {
+            Set<Waiter> waiters = waiting.get(businessID);
+            if (waiters != null) WakeUp(waiters, lastSequences);
+        }
+    }
+
+    // Polls the waiters behind their business' last sequence number (the others would find nothing)
+    private void WakeUp(Collection<Waiter> waiters, Map<Long, Long> lastSequences) {
+        for (Waiter waiter : waiters) {
+            Long last = lastSequences.get(waiter.businessID());
+            if (last != null && last > waiter.after()) PollLater(waiter);
+        }
+    }
+
+    private int SequenceBatch(TransactionStatus status, Map<Long, Long> lastSequences) {
+        // Position locked first: other sequencers (other instances) wait, then see these events already numbered
+        ChangeEventPosition position = changeEventPositionRepository.findByIdForUpdate(ChangeEventPosition.ID)
+                .orElseGet(() -> changeEventPositionRepository.saveAndFlush(new ChangeEventPosition(ChangeEventPosition.ID, 0L)));
+
+        List<Object[]> rows = changeEventRepository.findPending(Limit.of(sequencerBatchSize));
+        if (rows.isEmpty()) return 0;
+
+        List<Long> eventIDs = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            eventIDs.add((Long) row[0]);
+        }
+
+        Long first = eventIDs.getFirst();
+        Long last = position.getLastSequence();
+        if (changeEventRepository.updateSequences(last, first, eventIDs) != eventIDs.size()) {
+            status.setRollbackOnly();
+            return 0;
+        }
+
+        // Same numbering as the update (rows in ID order: the last one by business is its highest)
+        for (Object[] row : rows) {
+            lastSequences.put((Long) row[1], last + (Long) row[0] - first + 1);
+        }
+
+        position.setLastSequence(last + eventIDs.getLast() - first + 1);
+        return rows.size();
+    }
+
+    // On the feed executor, bound to the waiter's shard. Full queue: skipped, the next sweep polls it again
+    private void PollLater(Waiter waiter) {
+        try {
+            changeFeedExecutor.execute(() -> ShardRoutingDataSource.on(waiter.shard(), () -> {
+                Poll(waiter);
+                return null;
+            }));
+        }
+        catch (TaskRejectedException ex) {
+            // Next sweep
+        }
+    }
+
+    // Completes the feed with the events after the waiter's sequence, or empty once its deadline passed
+    // One poll at a time by waiter (sweep and wake-up can overlap)
+    private void Poll(Waiter waiter) {
+        if (waiter.feed().isDone() || !waiter.polling().compareAndSet(false, true)) return;
+
+        try {
+            // Primary (not read-only): the replica may not have the last sequenced events yet
+            List<ChangeEvent> events = transactionTemplate.execute(_ ->
+                    changeEventRepository.findByBusinessAfter(waiter.businessID(), waiter.after(), Limit.of(waiter.limit())));
+            if (events == null) events = List.of();
+
+            if (!events.isEmpty() || System.currentTimeMillis() >= waiter.deadline()) {
+                Long next = events.isEmpty() ? waiter.after() : events.getLast().getSequence();
+                Complete(waiter, new ChangeFeed(waiter.businessID(), next, events.size() == waiter.limit(), events), null);
+            }
+        }
+        catch (RuntimeException ex) {
+            Complete(waiter, null, ex);
+        }
+        finally {
+            waiter.polling().set(false);
+        }
+    }
+
+    // The business' waiters removed with the last one
+    private void Complete(Waiter waiter, ChangeFeed feed, RuntimeException ex) {
+        waiting.computeIfPresent(waiter.businessID(), (_, waiters) -> {
+            waiters.remove(waiter);
+            return waiters.isEmpty() ? null : waiters;
+        });
+
+        if (ex != null) waiter.feed().completeExceptionally(ex);
+        else waiter.feed().complete(feed);
+    }
+}
@@ -0,0 +1,153 @@
+package nicoAntonelli.managefy.services;
+
+import nicoAntonelli.managefy.repositories.ChangeVersionRepository;
+import nicoAntonelli.managefy.utils.ReplicaRoutingDataSource;
+import nicoAntonelli.managefy.utils.ShardRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Version of every list (by business or by user), bumped by the writes changing it, in their own transaction
+// ETags for conditional GETs: same version = not modified, without querying nor serializing the list (one key lookup)
+// Versions live in DB (the shard of the list): every instance serves the same ETag, the caches of the others
+// see the bump on their next read. Read in the caller's transaction, so from the same database as the list
+@Component
+public class ChangeVersions {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeVersions.class);
+
+    public enum Scope { Products, ProductNames, Suppliers, Clients, Notifications }
+
+    private record Key(Scope scope, Long id) { }
+
+    private record Retry(Key key, int shard) { }
+
+    // Scopes bumped by the current transaction: each one once, in this order (the same for every writer)
+    private static final Comparator<Key> order = Comparator.comparing(Key::scope).thenComparing(Key::id);
+
+    private final ChangeVersionRepository changeVersionRepository; // Dependency
+    private final TransactionTemplate bumpTemplate;
+    private final TransactionTemplate insertTemplate;
+    private final Map<Key, Long> changedAt = new ConcurrentHashMap<>(); // Epoch millis of this instance's last bump
+    private final Set<Retry> retries = ConcurrentHashMap.newKeySet(); // Failed bumps of changes already committed
+
+    @Autowired
+    public ChangeVersions(ChangeVersionRepository changeVersionRepository, PlatformTransactionManager transactionManager) {
+        this.changeVersionRepository = changeVersionRepository;
+
+        // Writers without a transaction: one of their own
+        bumpTemplate = new TransactionTemplate(transactionManager);
+
+        // First bump of a list: its row inserted apart, so a concurrent insert doesn't fail the writer's transaction
+        insertTemplate = new TransactionTemplate(transactionManager);
+        insertTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public long Current(Scope scope, Long id) {
+        return changeVersionRepository.findVersion(scope.name(), id).orElse(0L);
+    }
+
+    // Read it before loading the list: a write committed meanwhile only makes the next request reload
+    public String ETag(Scope scope, Long id) {
+        return "W/\"" + scope.name().toLowerCase() + "-" + id + "-" + Current(scope, id) + "\"";
+    }
+
+    // Reads of the current transaction must include the last change of the list (before its first statement):
+    // a replica behind it isn't used, so a list (or a cache) is never older than the version it's served with
+    // Changes made through this instance only: the others' reach replicas within the usual replication lag
+    public void RequireFreshReads(Scope scope, Long id) {
+        Long at = changedAt.get(new Key(scope, id));
+        if (at != null) ReplicaRoutingDataSource.requireCommittedSince(at);
+    }
+
+    // Right before the caller's transaction commits (once by scope, however many writes), in it: the version commits
+    // with the change or not at all, and its row stays locked only for the commit. Readers before it see the old list
+    public void Bump(Scope scope, Long id) {
+        if (id == null) return;
+
+        Key key = new Key(scope, id);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                bumpTemplate.executeWithoutResult(_ -> Increment(key));
+            }
+            catch (RuntimeException ex) {
+                // The change is already committed: bumped by the retries' sweep, not served as not modified for long
+                logger.warn("Version of {} by ID: {} couldn't be bumped, it will be retried", scope, id, ex);
+                retries.add(new Retry(key, ShardRoutingDataSource.currentShard()));
+            }
+            changedAt.put(key, System.currentTimeMillis());
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Key> bumped = (Set<Key>) TransactionSynchronizationManager.getResource(this);
+        if (bumped != null) {
+            bumped.add(key);
+            return;
+        }
+
+        Set<Key> keys = new TreeSet<>(order);
+        keys.add(key);
+        TransactionSynchronizationManager.bindResource(this, keys);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                keys.forEach(ChangeVersions.this::Increment);
+            }
+
+            @Override
+            public void afterCommit() {
+                long now = System.currentTimeMillis();
+                keys.forEach(bumpedKey -> changedAt.put(bumpedKey, now));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChangeVersions.this);
+            }
+        });
+    }
+
+    // One increment by failed list (however many bumps failed), on its shard. Failed again: the next sweep
+    @Scheduled(fixedDelayString = "${changeVersions.retryMillis:5000}")
+    public void RetryBumps() {
+        for (Retry retry : retries) {
+            try {
+                ShardRoutingDataSource.on(retry.shard(), () -> {
+                    bumpTemplate.executeWithoutResult(_ -> Increment(retry.key()));
+                    return null;
+                });
+                retries.remove(retry);
+            }
+            catch (RuntimeException ex) {
+                logger.warn("Version of {} by ID: {} couldn't be bumped again", retry.key().scope(), retry.key().id(), ex);
+            }
+        }
+    }
+
+    // First bump of the list: its row (version 0, the same as no row) inserted first, a concurrent one may win
+    private void Increment(Key key) {
+        if (changeVersionRepository.increment(key.scope().name(), key.id()) > 0) return;
+
+        try {
+            insertTemplate.executeWithoutResult(_ -> changeVersionRepository.insertFirst(key.scope().name(), key.id()));
+        }
+        catch (DataIntegrityViolationException ex) {
+            // Inserted by the concurrent one
+        }
+        changeVersionRepository.increment(key.scope().name(), key.id());
+    }
+}
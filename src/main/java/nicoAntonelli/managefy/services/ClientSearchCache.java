@@ -0,0 +1,24 @@
+package nicoAntonelli.managefy.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import nicoAntonelli.managefy.utils.ClientSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// Clients lookup index by business, rebuilt when the clients list changes ('Clients' version)
+@Component
+public class ClientSearchCache extends BusinessIndexCache<ClientSearchIndex> {
+    @Autowired
+    public ClientSearchCache(ChangeVersions changeVersions, MeterRegistry registry, Environment env) {
+        super("clientSearch", ChangeVersions.Scope.Clients, MaxBusinesses(env), changeVersions, registry);
+    }
+
+    private static int MaxBusinesses(Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        return env.getProperty("clients.searchCache.maxBusinesses", Integer.class, 200);
+    }
+}
@@ -1,44 +1,102 @@
 package nicoAntonelli.managefy.services;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import nicoAntonelli.managefy.entities.*;
+import nicoAntonelli.managefy.entities.dto.ChangePayloads;
 import nicoAntonelli.managefy.entities.dto.ClientCU;
+import nicoAntonelli.managefy.entities.dto.ClientDeduplication;
 import nicoAntonelli.managefy.entities.dto.NotificationC;
 import nicoAntonelli.managefy.repositories.ClientRepository;
+import nicoAntonelli.managefy.repositories.ReceivableRepository;
 import nicoAntonelli.managefy.repositories.SaleRepository;
+import nicoAntonelli.managefy.utils.ClientSearchIndex;
 import nicoAntonelli.managefy.utils.Exceptions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
 @Transactional
+@Timed(value = "managefy.service", histogram = true)
 public class ClientService {
     private final ClientRepository clientRepository;
     private final BusinessService businessService; // Dependency
     private final NotificationService notificationService; // Dependency
     private final SaleRepository saleRepository; // Dependency
+    private final ReceivableRepository receivableRepository; // Dependency
+    private final ClientSearchCache clientSearchCache; // Dependency
+    private final ChangeVersions changeVersions; // Dependency
+    private final ChangeEventService changeEventService; // Dependency
 
     @Autowired
     public ClientService(ClientRepository clientRepository,
                          BusinessService businessService,
                          NotificationService notificationService,
-                         SaleRepository saleRepository) {
+                         SaleRepository saleRepository,
+                         ReceivableRepository receivableRepository,
+                         ClientSearchCache clientSearchCache,
+                         ChangeVersions changeVersions,
+                         ChangeEventService changeEventService) {
         this.clientRepository = clientRepository;
         this.businessService = businessService;
         this.notificationService = notificationService;
         this.saleRepository = saleRepository;
+        this.receivableRepository = receivableRepository;
+        this.clientSearchCache = clientSearchCache;
+        this.changeVersions = changeVersions;
+        this.changeEventService = changeEventService;
     }
 
+    // Current version of the clients list (ETag), access validated
+    @Transactional(readOnly = true)
+    public String GetClientsETag(Long businessID, User user) {
+        // Validate business, user and role
+        businessService.GetOneBusiness(businessID, user);
+
+        return changeVersions.ETag(ChangeVersions.Scope.Clients, businessID);
+    }
+
+    @Transactional(readOnly = true)
     public List<Client> GetClients(Long businessID, User user) {
+        changeVersions.RequireFreshReads(ChangeVersions.Scope.Clients, businessID);
+
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
 
         return clientRepository.findActivesByBusiness(businessID);
     }
 
+    // Search-as-you-type by email, phone or name over an in-memory index, the clients loaded from DB
+    @Transactional(readOnly = true)
+    public List<Client> SearchClients(Long businessID, String query, Integer limit, User user) {
+        if (query == null || query.isBlank()) {
+            throw new Exceptions.BadRequestException("Error at 'SearchClients' - Query not supplied");
+        }
+        if (limit == null) limit = 10;
+        if (limit <= 0 || limit > 50) {
+            throw new Exceptions.BadRequestException("Error at 'SearchClients' - Limit must be between 1 and 50");
+        }
+
+        changeVersions.RequireFreshReads(ChangeVersions.Scope.Clients, businessID);
+
+        // Validate business, user and role
+        businessService.GetOneBusiness(businessID, user);
+
+        List<Long> clientIDs = GetClientsIndex(businessID).search(query, limit).ids();
+        if (clientIDs.isEmpty()) return List.of();
+
+        // Same order as found
+        Map<Long, Client> loaded = new HashMap<>();
+        for (Client client : clientRepository.findActivesByIDsAndBusiness(clientIDs, businessID)) {
+            loaded.put(client.getId(), client);
+        }
+
+        return clientIDs.stream().map(loaded::get).filter(Objects::nonNull).toList();
+    }
+
     public Boolean ExistsClient(Long clientID, Long businessID, User user) {
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
@@ -46,6 +104,7 @@ public class ClientService {
         return clientRepository.existsByIdActiveAndBusiness(clientID, businessID);
     }
 
+    @Transactional(readOnly = true)
     public Client GetOneClient(Long clientID, Long businessID, User user) {
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
@@ -58,18 +117,30 @@ public class ClientService {
         return client.get();
     }
 
-    // On a new sale context
-    public Client CreateClientForNewSale(ClientCU clientCU, User user) {
+    // On a new sale context: a client of the business with the same email or phone is only reused when asked for
+    // ('reuseExisting'), otherwise it's an error (never a silent swap of the supplied client for another one)
+    public Client CreateClientForNewSale(ClientCU clientCU, Long businessID, User user) {
         // Validate name
         if (clientCU.getName() == null || clientCU.getName().isBlank()) {
             throw new Exceptions.BadRequestException("Error at 'CreateClientForNewSale' - Name field was not supplied");
         }
 
+        for (Long clientID : GetClientsIndex(businessID).matches(clientCU.getEmail(), clientCU.getPhone())) {
+            Optional<Client> existing = clientRepository.findByIdActiveAndBusiness(clientID, businessID);
+            if (existing.isEmpty()) continue;
+
+            if (!Boolean.TRUE.equals(clientCU.getReuseExisting())) {
+                throw new Exceptions.BadRequestException("Error at 'CreateClientForNewSale' - Client with ID: " + clientID + " already has the same email or phone, supply its ID (or 'reuseExisting')");
+            }
+            return existing.get();
+        }
+
         // New client object with DTO info
         Client client = new Client(clientCU.getName(), clientCU.getDescription(),
                                    clientCU.getEmail(), clientCU.getPhone());
 
         client = clientRepository.save(client);
+        RecordChange(client, ChangeEvent.Action.Created, null, businessID);
 
         // Notification for new client
         NotificationC notification = new NotificationC("Your new client '" + clientCU.getName() + "' was created successfully", "low");
@@ -102,8 +173,12 @@ public class ClientService {
             sale.setClientByID(client.getId());
         }
 
-        // Save sales with client set
+        // Save sales with client set (their receivables too)
         saleRepository.saveAll(sales);
+        if (!sales.isEmpty()) receivableRepository.updateClientBySales(client, sales.stream().map(Sale::getId).toList());
+        RecordChange(client, ChangeEvent.Action.Created, null, clientCU.getBusinessID());
+        RecordSalesChange(sales, clientCU.getBusinessID());
+        changeVersions.Bump(ChangeVersions.Scope.Clients, clientCU.getBusinessID());
 
         // Notification for new client
         NotificationC notification = new NotificationC("Your new client '" + clientCU.getName() + "' was created successfully", "low");
@@ -141,8 +216,12 @@ public class ClientService {
             sale.setClientByID(client.getId());
         }
 
-        // Save sales with client set
+        // Save sales with client set (their receivables too)
         saleRepository.saveAll(sales);
+        if (!sales.isEmpty()) receivableRepository.updateClientBySales(client, sales.stream().map(Sale::getId).toList());
+        RecordChange(client, ChangeEvent.Action.Updated, null, clientCU.getBusinessID());
+        RecordSalesChange(sales, clientCU.getBusinessID());
+        changeVersions.Bump(ChangeVersions.Scope.Clients, clientCU.getBusinessID());
 
         // Notification for update client
         NotificationC notification = new NotificationC("Your client '" + clientCU.getName() + "' was updated successfully", "low");
@@ -169,6 +248,10 @@ public class ClientService {
             sale.setClient(null);
         }
         saleRepository.saveAll(sales);
+        receivableRepository.updateClientByBusinessAndClients(null, businessID, List.of(clientID));
+        RecordChange(client, ChangeEvent.Action.Deleted, null, businessID);
+        RecordSalesChange(sales, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Clients, businessID);
 
         // Notification for delete client
         NotificationC notification = new NotificationC("Your client was deleted successfully, and erased from associated sales", "low");
@@ -177,15 +260,101 @@ public class ClientService {
         return clientID;
     }
 
+    // Clients with the same email or phone merged into the oldest one: missing fields completed, sales moved in bulk
+    // Only clients of this business alone: ones with sales of other businesses are left as they are
+    public ClientDeduplication DeduplicateClients(Long businessID, User user) {
+        // Validate admin role
+        boolean exists = businessService.ExistsBusiness(businessID, user, "admin");
+        if (!exists) {
+            throw new Exceptions.BadRequestException("Error at 'DeduplicateClients' - Business with ID: " + businessID + " doesn't exist or the user: " + user.getId() + " isn't an Admin or the Manager");
+        }
+
+        List<List<Long>> duplicateGroups = GetClientsIndex(businessID).duplicateGroups();
+        List<Long> groupedIDs = duplicateGroups.stream().flatMap(List::stream).toList();
+        Set<Long> shared = groupedIDs.isEmpty() ? Set.of() : new HashSet<>(clientRepository.findSharedIDs(groupedIDs, businessID));
+
+        List<List<Long>> groups = new ArrayList<>();
+        for (List<Long> group : duplicateGroups) {
+            List<Long> exclusive = group.stream().filter(clientID -> !shared.contains(clientID)).toList();
+            if (exclusive.size() > 1) groups.add(exclusive);
+        }
+        int merged = 0, salesMoved = 0, deleted = 0;
+
+        for (List<Long> group : groups) {
+            Long keptID = group.getFirst();
+            List<Long> duplicateIDs = group.subList(1, group.size());
+
+            Map<Long, Client> clients = new HashMap<>();
+            for (Client client : clientRepository.findAllById(group)) {
+                clients.put(client.getId(), client);
+            }
+            Client kept = clients.get(keptID);
+            if (kept == null) continue;
+
+            for (Long duplicateID : duplicateIDs) {
+                Client duplicate = clients.get(duplicateID);
+                if (duplicate == null) continue;
+
+                if (kept.getEmail() == null || kept.getEmail().isBlank()) kept.setEmail(duplicate.getEmail());
+                if (kept.getPhone() == null || kept.getPhone().isBlank()) kept.setPhone(duplicate.getPhone());
+                if (kept.getDescription() == null || kept.getDescription().isBlank()) kept.setDescription(duplicate.getDescription());
+            }
+            clientRepository.save(kept);
+
+            salesMoved += saleRepository.updateClientByBusinessAndClients(kept, businessID, duplicateIDs);
+            receivableRepository.updateClientByBusinessAndClients(kept, businessID, duplicateIDs);
+            deleted += clientRepository.deleteOrphansByIDs(duplicateIDs);
+            merged += duplicateIDs.size();
+
+            // Sales moved in bulk: consumers move them with the merged client ('mergedInto')
+            RecordChange(kept, ChangeEvent.Action.Updated, null, businessID);
+            for (Long duplicateID : duplicateIDs) {
+                Client duplicate = clients.get(duplicateID);
+                if (duplicate != null) RecordChange(duplicate, ChangeEvent.Action.Deleted, keptID, businessID);
+            }
+        }
+
+        if (merged > 0) {
+            changeVersions.Bump(ChangeVersions.Scope.Clients, businessID);
+
+            // Notification for deduplicated clients
+            NotificationC notification = new NotificationC("Your clients were deduplicated: " + merged + " duplicates merged into " + groups.size() + " clients", "low");
+            notificationService.CreateNotification(notification, user);
+        }
+
+        return new ClientDeduplication(businessID, groups.size(), merged, salesMoved, deleted, shared.size());
+    }
+
     // On a cancel sale context
-    public void DeleteClientAfterCancelSale(Long clientID, User user) {
-        clientRepository.deleteById(clientID);
+    public void DeleteClientAfterCancelSale(Long clientID, Long businessID, User user) {
+        Optional<Client> client = clientRepository.findById(clientID);
+        if (client.isEmpty()) return;
+
+        clientRepository.delete(client.get());
+        RecordChange(client.get(), ChangeEvent.Action.Deleted, null, businessID);
 
         // Notification for delete client
         NotificationC notification = new NotificationC("After your sale cancellation, the client without sales was also deleted successfully", "low");
         notificationService.CreateNotification(notification, user);
     }
 
+    private void RecordChange(Client client, ChangeEvent.Action action, Long mergedInto, Long businessID) {
+        changeEventService.Record(ChangeEvent.EntityType.Client, action, client.getId(), ChangePayloads.ClientChange.of(client, mergedInto), businessID);
+    }
+
+    // Sales with their client changed
+    private void RecordSalesChange(Collection<Sale> sales, Long businessID) {
+        for (Sale sale : sales) {
+            changeEventService.Record(ChangeEvent.EntityType.Sale, ChangeEvent.Action.Updated, sale.getId(), ChangePayloads.SaleChange.of(sale, false), businessID);
+        }
+    }
+
+    private ClientSearchIndex GetClientsIndex(Long businessID) {
+        return clientSearchCache.Get(businessID, () -> ClientSearchIndex.build(clientRepository.findSearchEntriesByBusiness(businessID).stream()
+                .map(row -> new ClientSearchIndex.Entry((Long) row[0], (String) row[1], (String) row[2], (String) row[3]))
+                .toList()));
+    }
+
     private Set<Sale> ValidateSalesForClient(ClientCU clientCU, User user) {
         // At least one sale
         Set<Long> salesIDs = clientCU.getSalesIDs();
@@ -1,5 +1,8 @@
 package nicoAntonelli.managefy.services;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import nicoAntonelli.managefy.AsyncConfig;
 import nicoAntonelli.managefy.entities.Notification;
 import nicoAntonelli.managefy.utils.Exceptions;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,19 +15,21 @@ import org.springframework.stereotype.Service;
 @Service
 public class EmailService {
     private final JavaMailSender javaMailSender;
+    private final MeterRegistry registry;
     private final String username;
 
     @Autowired
-    public EmailService(JavaMailSender javaMailSender, Environment env) {
+    public EmailService(JavaMailSender javaMailSender, MeterRegistry registry, Environment env) {
         if (env == null) {
             throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
         }
 
         this.javaMailSender = javaMailSender;
+        this.registry = registry;
         username = env.getProperty("spring.mail.username");
     }
 
-    @Async
+    @Async(AsyncConfig.MAIL_EXECUTOR)
     public void CodeValidationEmail(String address, String code) {
         String text = "Hi there, this is an email from Managefy App!\n\n" +
                 "In order to validate your email you must now enter " +
@@ -38,7 +43,7 @@ public class EmailService {
         SendEmail(address, subject, text);
     }
 
-    @Async
+    @Async(AsyncConfig.MAIL_EXECUTOR)
     public void NotificationEmail(String address, Notification notification) {
         String text = "Hi there, this is an email from Managefy App!\n\n" +
                 "You received a notification " +
@@ -53,7 +58,7 @@ public class EmailService {
         SendEmail(address, subject, text);
     }
 
-    @Async
+    @Async(AsyncConfig.MAIL_EXECUTOR)
     public void SendEmail(String address, String subject, String body) {
         if (address == null || address.isBlank()) {
             throw new Exceptions.BadRequestException("Error at 'SendEmail' - Address not supplied");
@@ -71,6 +76,21 @@ public class EmailService {
         message.setSubject(subject);
         message.setText(body);
 
-        javaMailSender.send(message);
+        // Send latency (SMTP round-trips), by outcome
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        try {
+            javaMailSender.send(message);
+        }
+        catch (RuntimeException ex) {
+            outcome = "failure";
+            throw ex;
+        }
+        finally {
+            sample.stop(Timer.builder("managefy.mail.send")
+                    .description("Email send latency")
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
     }
 }
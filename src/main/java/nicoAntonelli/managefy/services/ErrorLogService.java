@@ -1,32 +1,133 @@
 package nicoAntonelli.managefy.services;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import nicoAntonelli.managefy.AsyncConfig;
 import nicoAntonelli.managefy.entities.ErrorLog;
+import nicoAntonelli.managefy.entities.dto.ErrorLogPage;
 import nicoAntonelli.managefy.utils.DateFormatterSingleton;
 import nicoAntonelli.managefy.repositories.ErrorLogRepository;
+import nicoAntonelli.managefy.utils.ErrorFingerprint;
 import nicoAntonelli.managefy.utils.Exceptions;
+import nicoAntonelli.managefy.utils.RateLimiter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 
 @Service
 @Transactional
+@Timed(value = "managefy.service", histogram = true)
 public class ErrorLogService {
     private final ErrorLogRepository errorLogRepository;
     private final DateFormatterSingleton dateFormatterSingleton;
+    private final TaskExecutor errorLogExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final RateLimiter rateLimiter;
+    private final long dedupWindowMinutes;
+    private final Counter savedCounter;
+    private final Counter aggregatedCounter;
+    private final Counter rateLimitedCounter;
+    private final Counter droppedCounter;
 
     @Autowired
-    public ErrorLogService(ErrorLogRepository errorLogRepository) {
+    public ErrorLogService(ErrorLogRepository errorLogRepository,
+                           @Qualifier(AsyncConfig.ERROR_LOG_EXECUTOR) TaskExecutor errorLogExecutor,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry registry,
+                           Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
         this.errorLogRepository = errorLogRepository;
         this.dateFormatterSingleton = DateFormatterSingleton.getInstance();
+        this.errorLogExecutor = errorLogExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        dedupWindowMinutes = env.getProperty("errorLogs.dedup.windowMinutes", Long.class, 60L);
+        if (dedupWindowMinutes <= 0) {
+            throw new RuntimeException("The property 'errorLogs.dedup.windowMinutes' must be greater than 0 (current: " + dedupWindowMinutes + ")");
+        }
+        int writesPerMinute = env.getProperty("errorLogs.rateLimit.perMinute", Integer.class, 30);
+        rateLimiter = new RateLimiter(writesPerMinute, 60000);
+
+        // Error logs by result: new row, added to a repeated one, rate limited (added later) or dropped (no room in the
+        // rate limiter for its fingerprint, full executor queue)
+        savedCounter = registry.counter("managefy.errorLogs", "result", "saved");
+        aggregatedCounter = registry.counter("managefy.errorLogs", "result", "aggregated");
+        rateLimitedCounter = registry.counter("managefy.errorLogs", "result", "rateLimited");
+        droppedCounter = registry.counter("managefy.errorLogs", "result", "dropped");
     }
 
-    public List<ErrorLog> GetErrors() {
-        return errorLogRepository.findAll();
+    @Transactional(readOnly = true)
+    public ErrorLogPage GetErrors(String origin, String httpCode, String cursor, Integer limit) {
+        if (limit == null) limit = 50;
+        if (limit <= 0 || limit > 500) {
+            throw new Exceptions.BadRequestException("Error at 'GetErrors' - Limit must be between 1 and 500");
+        }
+
+        // First page: no cursor
+        LocalDateTime cursorDate = null;
+        Long cursorID = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.lastIndexOf('_');
+                cursorDate = LocalDateTime.parse(decoded.substring(0, separator));
+                cursorID = Long.parseLong(decoded.substring(separator + 1));
+            }
+            catch (Exception ex) {
+                throw new Exceptions.BadRequestException("Error at 'GetErrors' - Invalid cursor: " + cursor, ex);
+            }
+        }
+
+        boolean byOrigin = origin != null && !origin.isBlank();
+        boolean byHttpCode = httpCode != null && !httpCode.isBlank();
+
+        // One query per filter combination, so every page is a single index range scan
+        Limit pageLimit = Limit.of(limit);
+        List<ErrorLog> errors;
+        if (cursorDate == null) {
+            if (byOrigin && byHttpCode) errors = errorLogRepository.findPageByOriginAndHttpCode(origin, httpCode, pageLimit);
+            else if (byOrigin) errors = errorLogRepository.findPageByOrigin(origin, pageLimit);
+            else if (byHttpCode) errors = errorLogRepository.findPageByHttpCode(httpCode, pageLimit);
+            else errors = errorLogRepository.findPage(pageLimit);
+        }
+        else {
+            if (byOrigin && byHttpCode) errors = errorLogRepository.findPageByOriginAndHttpCodeBefore(origin, httpCode, cursorDate, cursorID, pageLimit);
+            else if (byOrigin) errors = errorLogRepository.findPageByOriginBefore(origin, cursorDate, cursorID, pageLimit);
+            else if (byHttpCode) errors = errorLogRepository.findPageByHttpCodeBefore(httpCode, cursorDate, cursorID, pageLimit);
+            else errors = errorLogRepository.findPageBefore(cursorDate, cursorID, pageLimit);
+        }
+
+        // Partial page: no more rows
+        String nextCursor = null;
+        if (errors.size() == limit) {
+            ErrorLog last = errors.getLast();
+            String raw = last.getDate().toString() + "_" + last.getId();
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return new ErrorLogPage(errors, nextCursor);
     }
 
+    @Transactional(readOnly = true)
     public List<ErrorLog> GetBackendErrorsByInterval(String initialDate, String finalDate) {
         if (initialDate == null || finalDate == null
             || initialDate.isBlank() || finalDate.isBlank()) {
@@ -45,6 +146,7 @@ public class ErrorLogService {
         return errorLogRepository.findByOriginAndInterval(ErrorLog.SERVER, startDate, endDate);
     }
 
+    @Transactional(readOnly = true)
     public List<ErrorLog> GetFrontendErrorsByInterval(String initialDate, String finalDate) {
         if (initialDate == null || finalDate == null
             || initialDate.isBlank() || finalDate.isBlank()) {
@@ -63,6 +165,9 @@ public class ErrorLogService {
         return errorLogRepository.findByOriginAndInterval(ErrorLog.CLIENT, startDate, endDate);
     }
 
+    // Off the request thread: callers are already answering with an error. Rate limited before being queued (a flood
+    // of one error never fills the queue), a full queue drops it: this never throws nor blocks the caller
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void SetBackendError(String description, String httpCode, Throwable innerException) {
         // Empty error message - No save
         if (description == null || description.isBlank()) return;
@@ -73,9 +178,18 @@ public class ErrorLogService {
         String innerExceptionMessage = innerException != null ? innerException.getMessage() : null;
         ErrorLog errorLog = new ErrorLog(description, ErrorLog.SERVER, httpCode, innerExceptionMessage);
 
-        errorLogRepository.save(errorLog);
+        long occurrences = Acquire(errorLog);
+        if (occurrences < 0) return;
+
+        try {
+            errorLogExecutor.execute(() -> SaveOrAggregate(errorLog, occurrences));
+        }
+        catch (TaskRejectedException ex) {
+            droppedCounter.increment();
+        }
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Boolean SetFrontendError(ErrorLog errorLog) {
         try {
             // Empty error message
@@ -83,13 +197,68 @@ public class ErrorLogService {
 
             errorLog.setId(null);
             errorLog.setOrigin(ErrorLog.CLIENT);
-            if (errorLog.getDate() == null) errorLog.setDate(LocalDateTime.now());
+            // Client clock can't be trusted: out of range dates are replaced (rows are partitioned by date)
+            LocalDateTime now = LocalDateTime.now();
+            if (errorLog.getDate() == null || errorLog.getDate().isAfter(now) || errorLog.getDate().isBefore(now.minusDays(1))) {
+                errorLog.setDate(now);
+            }
 
-            errorLogRepository.save(errorLog);
+            // Flooding clients are cut here, before touching the DB
+            long occurrences = Acquire(errorLog);
+            if (occurrences < 0) return false;
 
+            SaveOrAggregate(errorLog, occurrences);
             return true;
         } catch(Exception ex) {
             return false;
         }
     }
+
+    // Rate limited: negative, counted as suppressed (it will be added with the next accepted occurrence), or as dropped
+    // when the limiter had no room for its fingerprint (never added). Otherwise the occurrences to save: this one plus
+    // the ones suppressed before it
+    private long Acquire(ErrorLog errorLog) {
+        String fingerprint = ErrorFingerprint.of(errorLog.getOrigin(), errorLog.getHttpCode(), errorLog.getDescription());
+        errorLog.setFingerprint(fingerprint);
+
+        long occurrences = rateLimiter.tryAcquire(fingerprint);
+        if (occurrences == RateLimiter.REFUSED) droppedCounter.increment();
+        else if (occurrences < 0) rateLimitedCounter.increment();
+        return occurrences;
+    }
+
+    // Repeated errors inside the window only bump the aggregate row: count & last date. One row per fingerprint & window
+    // (unique index): increment first, else insert; a writer losing the insert race increments the winner's row
+    // Each step in its own transaction: a failed insert doesn't take the caller's one with it
+    private void SaveOrAggregate(ErrorLog errorLog, long occurrences) {
+        errorLog.setWindowStart(WindowStart(errorLog.getDate()));
+        if (Aggregate(errorLog, occurrences)) return;
+
+        try {
+            errorLog.setOccurrences(occurrences);
+            errorLog.setLastDate(errorLog.getDate());
+            transactionTemplate.executeWithoutResult(_ -> errorLogRepository.saveAndFlush(errorLog));
+            savedCounter.increment();
+        }
+        catch (DataIntegrityViolationException ex) {
+            Aggregate(errorLog, occurrences);
+        }
+    }
+
+    private boolean Aggregate(ErrorLog errorLog, long occurrences) {
+        Integer updated = transactionTemplate.execute(_ -> errorLogRepository.addOccurrences(errorLog.getFingerprint(),
+                errorLog.getWindowStart(), occurrences, errorLog.getDate()));
+        if (updated == null || updated == 0) return false;
+
+        aggregatedCounter.increment();
+        return true;
+    }
+
+    // Fixed windows counted from the start of the month (the last one cut there): a window never spans two monthly
+    // partitions, so the unique index holds on the partitioned table too (see 'db/errorLogs-partitioning.sql')
+    private LocalDateTime WindowStart(LocalDateTime date) {
+        LocalDateTime month = date.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        long minutes = Duration.between(month, date).toMinutes();
+        return month.plusMinutes(minutes - minutes % dedupWindowMinutes);
+    }
 }
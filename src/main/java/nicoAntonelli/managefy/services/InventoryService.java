@@ -0,0 +1,192 @@
+package nicoAntonelli.managefy.services;
+
+import io.micrometer.core.annotation.Timed;
+import nicoAntonelli.managefy.entities.InventoryMovement;
+import nicoAntonelli.managefy.entities.Product;
+import nicoAntonelli.managefy.entities.User;
+import nicoAntonelli.managefy.repositories.InventoryMovementRepository;
+import nicoAntonelli.managefy.repositories.ProductRepository;
+import nicoAntonelli.managefy.utils.DateFormatterSingleton;
+import nicoAntonelli.managefy.utils.Exceptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Stock as snapshot plus deltas: writers append movements (no contention on the product row), readers add the pending
+// ones to 'Product.stock' and a compaction folds them into it every few seconds (see 'InventoryMovement')
+@Service
+@Transactional
+@Timed(value = "managefy.service", histogram = true)
+public class InventoryService {
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final ProductRepository productRepository; // Dependency
+    private final BusinessService businessService; // Dependency
+    private final ShardDirectory shardDirectory; // Dependency
+    private final ChangeEventService changeEventService; // Dependency
+    private final TransactionTemplate transactionTemplate;
+    private final DateFormatterSingleton dateFormatterSingleton;
+    private final Integer compactionBatchSize;
+
+    @Autowired
+    public InventoryService(InventoryMovementRepository inventoryMovementRepository,
+                            ProductRepository productRepository,
+                            BusinessService businessService,
+                            ShardDirectory shardDirectory,
+                            ChangeEventService changeEventService,
+                            PlatformTransactionManager transactionManager,
+                            Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        this.inventoryMovementRepository = inventoryMovementRepository;
+        this.productRepository = productRepository;
+        this.businessService = businessService;
+        this.shardDirectory = shardDirectory;
+        this.changeEventService = changeEventService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dateFormatterSingleton = DateFormatterSingleton.getInstance();
+        compactionBatchSize = env.getProperty("products.inventory.compactionBatchSize", Integer.class, 5000);
+    }
+
+    // Each movement first moves the current stock with a conditional update (the oversell check, no row lock held
+    // before it), in product ID order. Then saved in JDBC batches ('hibernate.jdbc.batch_size'), pending until the next
+    // compaction. One change event for all of them
+    public void AppendMovements(List<InventoryMovement> movements, String method) {
+        if (movements.isEmpty()) return;
+
+        List<InventoryMovement> ordered = new ArrayList<>(movements);
+        ordered.sort(Comparator.comparing(movement -> movement.getProduct().getId()));
+        for (InventoryMovement movement : ordered) {
+            if (productRepository.addToAvailable(movement.getProduct().getId(), movement.getQuantity()) == 0) {
+                throw new Exceptions.BadRequestException("Error at '" + method + "' - Product with ID: " +
+                        movement.getProduct().getId() + " don't have enough stock!");
+            }
+        }
+
+        inventoryMovementRepository.saveAll(movements);
+        changeEventService.RecordMovements(movements);
+    }
+
+    // Product saved with its initial stock already in the snapshot: the movement is history only
+    public void AppendInitialStock(Product product, Long businessID) {
+        if (product.getStock() == 0) return;
+
+        InventoryMovement movement = new InventoryMovement(InventoryMovement.MovementType.Import, product.getStock(),
+                null, product.getId(), businessID);
+        movement.setCompacted(true);
+        inventoryMovementRepository.save(movement);
+        changeEventService.RecordMovements(List.of(movement));
+    }
+
+    // Current stock in the products ('getStock'): one query for all of them
+    public void LoadCurrentStock(Collection<Product> products) {
+        if (products.isEmpty()) return;
+
+        SetCurrentStock(products, inventoryMovementRepository.findCurrentStockByProducts(products.stream().map(Product::getId).toList()));
+    }
+
+    // Whole catalog: by business instead of a list of IDs
+    public void LoadCurrentStockByBusiness(Collection<Product> products, Long businessID) {
+        SetCurrentStock(products, inventoryMovementRepository.findCurrentStockByBusiness(businessID));
+    }
+
+    @Transactional(readOnly = true)
+    public List<InventoryMovement> GetMovements(Long productID, Long businessID, Integer limit, User user) {
+        if (limit == null) limit = 50;
+        if (limit <= 0 || limit > 500) {
+            throw new Exceptions.BadRequestException("Error at 'GetMovements' - Limit must be between 1 and 500");
+        }
+
+        ValidateProduct(productID, businessID, user, "GetMovements");
+
+        return inventoryMovementRepository.findByProduct(productID, Limit.of(limit));
+    }
+
+    // Point-in-time: current stock minus everything moved after that date
+    @Transactional(readOnly = true)
+    public Integer GetStockAt(Long productID, Long businessID, String dateText, User user) {
+        if (dateText == null || dateText.isBlank()) {
+            throw new Exceptions.BadRequestException("Error at 'GetStockAt' - Date must be supplied");
+        }
+
+        LocalDateTime date;
+        try {
+            date = LocalDateTime.parse(dateText, dateFormatterSingleton.value);
+        }
+        catch(Exception ex) {
+            throw new Exceptions.BadRequestException("Error at 'GetStockAt' - Date must be a valid date form", ex);
+        }
+
+        Product product = ValidateProduct(productID, businessID, user, "GetStockAt");
+        LoadCurrentStock(List.of(product));
+
+        Long after = inventoryMovementRepository.sumByProductAfter(productID, date);
+        return product.getStock() - after.intValue();
+    }
+
+    // Runs on every shard, each batch in its own transaction (not the caller's one)
+    @Scheduled(fixedDelayString = "${products.inventory.compactionMillis:5000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void CompactMovements() {
+        shardDirectory.ForEachShard(() -> {
+            Integer compacted;
+            do {
+                compacted = transactionTemplate.execute(this::CompactBatch);
+            } while (compacted != null && compacted == compactionBatchSize);
+        });
+    }
+
+    private int CompactBatch(TransactionStatus status) {
+        List<Object[]> rows = inventoryMovementRepository.findPending(Limit.of(compactionBatchSize));
+        if (rows.isEmpty()) return 0;
+
+        // Marked first (row locks): a concurrent compaction (another instance) waits, then finds them taken
+        List<Long> movementIDs = rows.stream().map(row -> (Long) row[0]).toList();
+        if (inventoryMovementRepository.markCompacted(movementIDs) != movementIDs.size()) {
+            status.setRollbackOnly();
+            return 0;
+        }
+
+        // Products in ID order: same lock order for every compaction
+        SortedMap<Long, Integer> deltas = new TreeMap<>();
+        for (Object[] row : rows) {
+            deltas.merge((Long) row[1], (Integer) row[2], Integer::sum);
+        }
+        deltas.forEach((productID, delta) -> {
+            if (delta != 0) productRepository.addToStock(productID, delta);
+        });
+
+        return rows.size();
+    }
+
+    private void SetCurrentStock(Collection<Product> products, List<Object[]> rows) {
+        Map<Long, Integer> current = new HashMap<>();
+        for (Object[] row : rows) {
+            current.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        for (Product product : products) {
+            Integer stock = current.get(product.getId());
+            if (stock != null) product.setCurrentStock(stock);
+        }
+    }
+
+    private Product ValidateProduct(Long productID, Long businessID, User user, String method) {
+        // Validate business, user and role
+        businessService.GetOneBusiness(businessID, user);
+
+        return productRepository.findByIdActiveAndBusiness(productID, businessID).orElseThrow(
+                () -> new Exceptions.BadRequestException("Error at '" + method + "' - Product with ID: " + productID + " doesn't exist or it's not associated with the business: " + businessID)
+        );
+    }
+}
@@ -1,6 +1,6 @@
 package nicoAntonelli.managefy.services;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import nicoAntonelli.managefy.entities.Notification;
 import nicoAntonelli.managefy.entities.User;
 import nicoAntonelli.managefy.entities.dto.NotificationC;
@@ -8,26 +8,53 @@ import nicoAntonelli.managefy.repositories.NotificationRepository;
 import nicoAntonelli.managefy.utils.Exceptions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 @Transactional
+@Timed(value = "managefy.service", histogram = true)
 public class NotificationService {
     private final NotificationRepository notificationRepository;
     private final EmailService emailService; // Dependency
+    private final ChangeVersions changeVersions; // Dependency
+    private final ShardDirectory shardDirectory; // Dependency
+
+    // Same order as 'findByUser', for the lists merged from every shard
+    private static final Comparator<Notification> listOrder = Comparator.comparing(Notification::getState)
+            .thenComparing(Notification::getType).thenComparing(Notification::getDate).reversed();
 
     @Autowired
-    public NotificationService(NotificationRepository notificationRepository, EmailService emailService) {
+    public NotificationService(NotificationRepository notificationRepository, EmailService emailService,
+                               ChangeVersions changeVersions, ShardDirectory shardDirectory) {
         this.notificationRepository = notificationRepository;
         this.emailService = emailService;
+        this.changeVersions = changeVersions;
+        this.shardDirectory = shardDirectory;
+    }
+
+    // Current version of the user's notifications list (ETag)
+    public String GetNotificationsETag(User user) {
+        return changeVersions.ETag(ChangeVersions.Scope.Notifications, user.getId());
     }
 
+    @Transactional(readOnly = true)
     public List<Notification> GetNotifications(User user) {
-        return notificationRepository.findByUser(user.getId());
+        changeVersions.RequireFreshReads(ChangeVersions.Scope.Notifications, user.getId());
+
+        // Notifications are stored with their business: on any shard
+        if (!shardDirectory.Enabled()) return notificationRepository.findByUser(user.getId());
+
+        List<Notification> notifications = new ArrayList<>(shardDirectory.FanOut(() -> notificationRepository.findByUser(user.getId())));
+        notifications.sort(listOrder);
+        return notifications;
     }
 
+    @Transactional(readOnly = true)
     public Notification GetOneNotification(Long notificationID, User user) {
         Optional<Notification> notification = notificationRepository.findByIdAndUser(notificationID, user.getId());
         if (notification.isEmpty()) {
@@ -56,6 +83,7 @@ public class NotificationService {
 
         // Save notification
         notification = notificationRepository.save(notification);
+        changeVersions.Bump(ChangeVersions.Scope.Notifications, user.getId());
 
         // Optional - Send notifications by email (Ignore exception if fails)
         if (user.getEmailNotifications()) {
@@ -74,6 +102,7 @@ public class NotificationService {
         if (!result) {
             throw new Exceptions.BadRequestException("Error at 'UpdateNotificationState' - Unexpected value: " + state);
         }
+        changeVersions.Bump(ChangeVersions.Scope.Notifications, user.getId());
 
         return notification;
     }
@@ -83,6 +112,7 @@ public class NotificationService {
         Notification notification = GetOneNotification(notificationID, user);
         notification.setState(Notification.NotificationState.Closed);
         notificationRepository.save(notification);
+        changeVersions.Bump(ChangeVersions.Scope.Notifications, user.getId());
 
         return notificationID;
     }
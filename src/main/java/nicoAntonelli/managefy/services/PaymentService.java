@@ -0,0 +1,109 @@
+package nicoAntonelli.managefy.services;
+
+import io.micrometer.core.annotation.Timed;
+import nicoAntonelli.managefy.entities.Payment;
+import nicoAntonelli.managefy.entities.User;
+import nicoAntonelli.managefy.entities.dto.CashFlow;
+import nicoAntonelli.managefy.repositories.PaymentRepository;
+import nicoAntonelli.managefy.utils.BusinessCalendar;
+import nicoAntonelli.managefy.utils.DateFormatterSingleton;
+import nicoAntonelli.managefy.utils.Exceptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Payments are only appended (by 'SaleService', under the sale's row lock): reads are plain indexed scans
+@Service
+@Transactional
+@Timed(value = "managefy.service", histogram = true)
+public class PaymentService {
+    private final PaymentRepository paymentRepository;
+    private final BusinessService businessService; // Dependency
+    private final BusinessCalendarCache businessCalendarCache; // Dependency
+    private final DateFormatterSingleton dateFormatterSingleton;
+
+    @Autowired
+    public PaymentService(PaymentRepository paymentRepository,
+                          BusinessService businessService,
+                          BusinessCalendarCache businessCalendarCache) {
+        this.paymentRepository = paymentRepository;
+        this.businessService = businessService;
+        this.businessCalendarCache = businessCalendarCache;
+        this.dateFormatterSingleton = DateFormatterSingleton.getInstance();
+    }
+
+    @Transactional(readOnly = true)
+    public List<Payment> GetSalePayments(Long saleID, Long businessID, User user) {
+        // Validate business, user and role
+        businessService.GetOneBusiness(businessID, user);
+
+        return paymentRepository.findBySaleAndBusiness(saleID, businessID);
+    }
+
+    @Transactional(readOnly = true)
+    public CashFlow GetCashFlow(Long businessID, String initialDate, String finalDate, User user) {
+        businessCalendarCache.RequireFreshReads(businessID);
+
+        // Validate business, user and role
+        businessService.GetOneBusiness(businessID, user);
+
+        // Interval validations
+        if (initialDate == null || finalDate == null
+                || initialDate.isBlank() || finalDate.isBlank()) {
+            throw new Exceptions.BadRequestException("Error at 'GetCashFlow' - Both start and end dates must be supplied");
+        }
+
+        LocalDateTime startDate, endDate;
+        try {
+            startDate = LocalDateTime.parse(initialDate, dateFormatterSingleton.value);
+            endDate = LocalDateTime.parse(finalDate, dateFormatterSingleton.value);
+        }
+        catch(Exception ex) {
+            throw new Exceptions.BadRequestException("Error at 'GetCashFlow' - Both start and end dates must be a valid date form", ex);
+        }
+
+        if (startDate.isAfter(endDate)) {
+            throw new Exceptions.BadRequestException("Error at 'GetCashFlow' - End date can't have a value before start date");
+        }
+
+        // Days bucketed by the business' calendar: payments on days it doesn't work are told apart
+        BusinessCalendar calendar = businessCalendarCache.Get(businessID);
+        int businessDays = calendar.businessDaysBetween(startDate.toLocalDate(), endDate.toLocalDate().plusDays(1));
+
+        List<CashFlow.Day> days = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        long payments = 0;
+
+        for (Object[] row : paymentRepository.sumByBusinessAndDays(businessID, startDate, endDate)) {
+            LocalDate date = (LocalDate) row[0];
+            CashFlow.Day day = new CashFlow.Day(date, calendar.isBusinessDay(date), ((Number) row[1]).longValue(), (BigDecimal) row[2]);
+            days.add(day);
+            total = total.add(day.getAmount());
+            payments += day.getPayments();
+        }
+
+        return new CashFlow(businessID, startDate, endDate, businessDays, payments, total, days);
+    }
+
+    // Previous payment with the same key (retried request), if any. Called under the sale's lock (primary)
+    public Optional<Payment> FindPayment(Long businessID, String idempotencyKey) {
+        if (idempotencyKey == null) return Optional.empty();
+
+        return paymentRepository.findByBusinessAndKey(businessID, idempotencyKey);
+    }
+
+    public BigDecimal SumPayments(Long saleID) {
+        return paymentRepository.sumBySale(saleID);
+    }
+
+    public Payment AppendPayment(Long saleID, Long businessID, BigDecimal amount, String idempotencyKey) {
+        return paymentRepository.save(new Payment(amount, idempotencyKey, saleID, businessID));
+    }
+}
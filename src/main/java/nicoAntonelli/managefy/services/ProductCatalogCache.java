@@ -0,0 +1,106 @@
+package nicoAntonelli.managefy.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import nicoAntonelli.managefy.entities.Product;
+import nicoAntonelli.managefy.utils.Exceptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Active products by business (LRU, bounded): a snapshot is the catalog's JSON & CBOR (sync clients), encoded once per
+// change. Only bytes are kept: no entity is shared between requests (nor can be changed by one of them)
+// Writes bump the products version of the business ('ChangeVersions'), snapshots of an older one are never served (nor stored)
+// ETag: hash of the JSON, the same for the same catalog (across restarts and instances)
+@Component
+public class ProductCatalogCache {
+    private final ObjectWriter jsonWriter; // Root serializer ('List<Product>') resolved once, not on every write
+    private final ObjectWriter cborWriter;
+    private final ChangeVersions changeVersions; // Dependency
+    private final Integer maxBusinesses;
+    private final Counter hits;
+    private final Counter misses;
+    private final LinkedHashMap<Long, Snapshot> snapshots;
+
+    public record Snapshot(Long businessID, long version, String etag, byte[] json, byte[] cbor) { }
+
+    @Autowired
+    public ProductCatalogCache(ObjectMapper objectMapper, ChangeVersions changeVersions, MeterRegistry registry, Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        TypeReference<List<Product>> catalogType = new TypeReference<>() { };
+        this.jsonWriter = objectMapper.writerFor(catalogType);
+        this.cborWriter = objectMapper.copyWith(new CBORFactory()).writerFor(catalogType);
+        this.changeVersions = changeVersions;
+        maxBusinesses = env.getProperty("products.catalogCache.maxBusinesses", Integer.class, 1000);
+
+        // Access order: the least recently read business is evicted first
+        snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Snapshot> eldest) {
+                return size() > maxBusinesses;
+            }
+        };
+
+        hits = Counter.builder("managefy.cache.requests").tag("cache", "productCatalog").tag("result", "hit").register(registry);
+        misses = Counter.builder("managefy.cache.requests").tag("cache", "productCatalog").tag("result", "miss").register(registry);
+        Gauge.builder("managefy.cache.size", this, cache -> cache.Size()).tag("cache", "productCatalog").register(registry);
+    }
+
+    // Loader: the catalog from DB (inside the caller's transaction), only called on a miss
+    public Snapshot Get(Long businessID, Supplier<List<Product>> loader) {
+        long version = changeVersions.Current(ChangeVersions.Scope.Products, businessID);
+
+        Snapshot snapshot;
+        synchronized (snapshots) {
+            snapshot = snapshots.get(businessID);
+        }
+        if (snapshot != null && snapshot.version() == version) {
+            hits.increment();
+            return snapshot;
+        }
+
+        misses.increment();
+        List<Product> products = loader.get();
+        byte[] json, cbor;
+        try {
+            json = jsonWriter.writeValueAsBytes(products);
+            cbor = cborWriter.writeValueAsBytes(products);
+        }
+        catch (JsonProcessingException ex) {
+            throw new Exceptions.InternalServerErrorException("Error at 'Get' - Product catalog of business with ID: " + businessID + " couldn't be serialized", ex);
+        }
+
+        snapshot = new Snapshot(businessID, version, "\"" + DigestUtils.md5DigestAsHex(json) + "\"", json, cbor);
+
+        // A write committed meanwhile: serve it once, but don't keep it (checked outside the lock, it's a query: one
+        // bumped right after is stored anyway, never served since its version doesn't match)
+        if (changeVersions.Current(ChangeVersions.Scope.Products, businessID) == version) {
+            synchronized (snapshots) {
+                snapshots.put(businessID, snapshot);
+            }
+        }
+
+        return snapshot;
+    }
+
+    public int Size() {
+        synchronized (snapshots) {
+            return snapshots.size();
+        }
+    }
+}
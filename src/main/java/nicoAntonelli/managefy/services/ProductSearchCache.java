@@ -0,0 +1,25 @@
+package nicoAntonelli.managefy.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import nicoAntonelli.managefy.utils.ProductSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// Search index by business, rebuilt only when codes or names change ('ProductNames' version):
+// stock & prices don't touch it, results are loaded from DB by ID
+@Component
+public class ProductSearchCache extends BusinessIndexCache<ProductSearchIndex> {
+    @Autowired
+    public ProductSearchCache(ChangeVersions changeVersions, MeterRegistry registry, Environment env) {
+        super("productSearch", ChangeVersions.Scope.ProductNames, MaxBusinesses(env), changeVersions, registry);
+    }
+
+    private static int MaxBusinesses(Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        return env.getProperty("products.searchCache.maxBusinesses", Integer.class, 200);
+    }
+}
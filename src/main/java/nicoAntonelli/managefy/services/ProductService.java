@@ -1,52 +1,211 @@
 package nicoAntonelli.managefy.services;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import nicoAntonelli.managefy.entities.ChangeEvent;
+import nicoAntonelli.managefy.entities.InventoryMovement;
 import nicoAntonelli.managefy.entities.Product;
 import nicoAntonelli.managefy.entities.Supplier;
 import nicoAntonelli.managefy.entities.User;
+import nicoAntonelli.managefy.entities.dto.ChangePayloads;
 import nicoAntonelli.managefy.entities.dto.NotificationC;
 import nicoAntonelli.managefy.entities.dto.ProductCU;
+import nicoAntonelli.managefy.entities.dto.ProductSearch;
+import nicoAntonelli.managefy.entities.dto.ReorderReport;
 import nicoAntonelli.managefy.entities.dto.SupplierCU;
 import nicoAntonelli.managefy.repositories.ProductRepository;
+import nicoAntonelli.managefy.repositories.SaleLineRepository;
+import nicoAntonelli.managefy.utils.BusinessCalendar;
 import nicoAntonelli.managefy.utils.Exceptions;
+import nicoAntonelli.managefy.utils.ProductSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
 @Transactional
+@Timed(value = "managefy.service", histogram = true)
 public class ProductService {
     private final ProductRepository productRepository;
+    private final SaleLineRepository saleLineRepository; // Dependency
     private final BusinessService businessService; // Dependency
     private final NotificationService notificationService; // Dependency
     private final SupplierService supplierService; // Dependency
+    private final ProductCatalogCache productCatalogCache; // Dependency
+    private final ProductSearchCache productSearchCache; // Dependency
+    private final InventoryService inventoryService; // Dependency
+    private final ChangeVersions changeVersions; // Dependency
+    private final ChangeEventService changeEventService; // Dependency
+    private final BusinessCalendarCache businessCalendarCache; // Dependency
+    private final Integer reorderVelocityDays;
+    private final Integer reorderCoverDays;
 
     @Autowired
     public ProductService(ProductRepository productRepository,
+                          SaleLineRepository saleLineRepository,
                           BusinessService businessService,
                           NotificationService notificationService,
-                          SupplierService supplierService) {
+                          SupplierService supplierService,
+                          ProductCatalogCache productCatalogCache,
+                          ProductSearchCache productSearchCache,
+                          InventoryService inventoryService,
+                          ChangeVersions changeVersions,
+                          ChangeEventService changeEventService,
+                          BusinessCalendarCache businessCalendarCache,
+                          Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
         this.productRepository = productRepository;
+        this.saleLineRepository = saleLineRepository;
         this.businessService = businessService;
         this.notificationService = notificationService;
         this.supplierService = supplierService;
+        this.productCatalogCache = productCatalogCache;
+        this.productSearchCache = productSearchCache;
+        this.inventoryService = inventoryService;
+        this.changeVersions = changeVersions;
+        this.changeEventService = changeEventService;
+        this.businessCalendarCache = businessCalendarCache;
+        reorderVelocityDays = env.getProperty("products.reorder.velocityDays", Integer.class, 30);
+        reorderCoverDays = env.getProperty("products.reorder.coverDays", Integer.class, 14);
     }
 
+    // Entities of this call (the cache keeps only bytes)
+    @Transactional(readOnly = true)
     public List<Product> GetProducts(Long businessID, User user) {
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
 
-        return productRepository.findActivesByBusiness(businessID);
+        return LoadCatalog(businessID);
+    }
+
+    // Cached snapshot (immutable): the access is validated anyway, only the query & serialization are skipped
+    @Transactional(readOnly = true)
+    public ProductCatalogCache.Snapshot GetProductCatalog(Long businessID, User user) {
+        changeVersions.RequireFreshReads(ChangeVersions.Scope.Products, businessID);
+
+        // Validate business, user and role
+        businessService.GetOneBusiness(businessID, user);
+
+        return productCatalogCache.Get(businessID, () -> LoadCatalog(businessID));
+    }
+
+    // Ranked by code, name & typos over an in-memory index, the page loaded from DB (current stock & prices)
+    @Transactional(readOnly = true)
+    public ProductSearch SearchProducts(Long businessID, String query, Integer page, Integer size, User user) {
+        if (query == null || query.isBlank()) {
+            throw new Exceptions.BadRequestException("Error at 'SearchProducts' - Query not supplied");
+        }
+        if (page == null) page = 0;
+        if (size == null) size = 20;
+        if (page < 0 || size <= 0 || size > 100) {
+            throw new Exceptions.BadRequestException("Error at 'SearchProducts' - Page can't be negative and size must be between 1 and 100");
+        }
+
+        changeVersions.RequireFreshReads(ChangeVersions.Scope.ProductNames, businessID);
+
+        // Validate business, user and role
+        businessService.GetOneBusiness(businessID, user);
+
+        ProductSearchIndex index = productSearchCache.Get(businessID, () -> ProductSearchIndex.build(productRepository.findSearchEntriesByBusiness(businessID).stream()
+                .map(row -> new ProductSearchIndex.Entry((Long) row[0], (String) row[1], (String) row[2]))
+                .toList()));
+        ProductSearchIndex.Page result = index.search(query, page, size);
+
+        // Same order as ranked (a product deleted meanwhile is skipped)
+        Map<Long, Product> loaded = new HashMap<>();
+        if (!result.ids().isEmpty()) {
+            for (Product product : productRepository.findActivesByIDsAndBusiness(result.ids(), businessID)) {
+                loaded.put(product.getId(), product);
+            }
+        }
+        List<Product> products = result.ids().stream().map(loaded::get).filter(Objects::nonNull).toList();
+        inventoryService.LoadCurrentStock(products);
+
+        return new ProductSearch(query, page, size, result.total(), result.fuzzy(), products);
     }
 
+    @Transactional(readOnly = true)
     public List<Product> GetProductsBySupplier(Long businessID, Long supplierID, User user) {
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
 
-        return productRepository.findActivesByBusinessAndSupplier(businessID, supplierID);
+        List<Product> products = productRepository.findActivesByBusinessAndSupplier(businessID, supplierID);
+        inventoryService.LoadCurrentStock(products);
+        return products;
+    }
+
+    // Products at or under min stock (index range, not the catalog) with their sales velocity from the lines in the
+    // window: suggested quantity = back to the min stock + the units sold in 'coverDays' at that velocity (at least 1)
+    // Stock left projected in business days: the window's sales spread over the days the business works in it
+    @Transactional(readOnly = true)
+    public ReorderReport GetReorderReport(Long businessID, Integer velocityDays, User user) {
+        businessCalendarCache.RequireFreshReads(businessID);
+
+        if (velocityDays == null) velocityDays = reorderVelocityDays;
+        if (velocityDays <= 0 || velocityDays > 365) {
+            throw new Exceptions.BadRequestException("Error at 'GetReorderReport' - Velocity days must be between 1 and 365");
+        }
+
+        // Validate business, user and role
+        businessService.GetOneBusiness(businessID, user);
+
+        List<Product> products = productRepository.findActivesAtMinStockByBusiness(businessID);
+        inventoryService.LoadCurrentStock(products);
+
+        LocalDate today = LocalDate.now();
+        BusinessCalendar calendar = businessCalendarCache.Get(businessID);
+        int businessDays = Math.max(1, calendar.businessDaysBetween(today.minusDays(velocityDays), today));
+
+        Map<Long, Long> sold = new HashMap<>();
+        if (!products.isEmpty()) {
+            List<Long> productIDs = products.stream().map(Product::getId).toList();
+            LocalDateTime since = LocalDateTime.now().minusDays(velocityDays);
+            for (Object[] row : saleLineRepository.sumAmountsByProductsSince(productIDs, since)) {
+                sold.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+        }
+
+        // By supplier ID, products without supplier last
+        Map<Long, ReorderReport.SupplierOrder> orders = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        BigDecimal totalCost = BigDecimal.ZERO;
+        for (Product product : products) {
+            long units = sold.getOrDefault(product.getId(), 0L);
+            long demand = (units * reorderCoverDays + velocityDays - 1) / velocityDays;
+            int suggested = (int) Math.max(1, product.getStockMin() - product.getStock() + demand);
+            BigDecimal cost = product.getUnitCost().multiply(BigDecimal.valueOf(suggested));
+
+            // Without sales in the window: no projection
+            Integer daysLeft = null;
+            LocalDate stockout = null;
+            if (units > 0) {
+                daysLeft = (int) Math.min(Integer.MAX_VALUE, Math.max(0, (long) product.getStock()) * businessDays / units);
+                stockout = calendar.plusBusinessDays(today, daysLeft);
+            }
+
+            ReorderReport.Line line = new ReorderReport.Line(product.getId(), product.getCode(), product.getName(),
+                    product.getStock(), product.getStockMin(), units,
+                    BigDecimal.valueOf(units).divide(BigDecimal.valueOf(velocityDays), 2, RoundingMode.HALF_UP),
+                    daysLeft, stockout, suggested, product.getUnitCost(), cost);
+
+            Supplier supplier = product.getSupplier();
+            ReorderReport.SupplierOrder order = orders.computeIfAbsent(supplier != null ? supplier.getId() : null,
+                    _ -> new ReorderReport.SupplierOrder(supplier, BigDecimal.ZERO, new ArrayList<>()));
+            order.getLines().add(line);
+            order.setTotalCost(order.getTotalCost().add(cost));
+            totalCost = totalCost.add(cost);
+        }
+
+        return new ReorderReport(businessID, velocityDays, reorderCoverDays, products.size(), totalCost,
+                new ArrayList<>(orders.values()));
     }
 
     public Boolean ExistsProduct(Long productID, Long businessID, User user) {
@@ -56,6 +215,7 @@ public class ProductService {
         return productRepository.existsByIdActiveAndBusiness(productID, businessID);
     }
 
+    @Transactional(readOnly = true)
     public Product GetOneProduct(Long productID, Long businessID, User user) {
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
@@ -65,6 +225,7 @@ public class ProductService {
             throw new Exceptions.BadRequestException("Error at 'GetOneProduct' - Product with ID: " + productID + " doesn't exist or it's not associated with the business: " + businessID);
         }
 
+        inventoryService.LoadCurrentStock(List.of(product.get()));
         return product.get();
     }
 
@@ -98,6 +259,11 @@ public class ProductService {
         }
 
         product = productRepository.save(product);
+        RecordChange(product, ChangeEvent.Action.Created, businessID);
+        inventoryService.AppendInitialStock(product, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Products, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Suppliers, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.ProductNames, businessID);
 
         // Notification for new product
         NotificationC notification = new NotificationC("Your new product '" + productCU.getCode() + " - " + productCU.getName() + "' was created successfully", "low");
@@ -131,7 +297,6 @@ public class ProductService {
         product.setDescription(productCU.getDescription());
         product.setUnitCost(productCU.getUnitCost());
         product.setUnitPrice(productCU.getUnitPrice());
-        product.setStock(productCU.getStock());
         product.setStockMin(productCU.getStockMin());
         product.setSaleMinAmount(productCU.getSaleMinAmount());
 
@@ -141,6 +306,11 @@ public class ProductService {
         }
 
         product = productRepository.save(product);
+        RecordChange(product, ChangeEvent.Action.Updated, businessID);
+        AdjustStock(product, productCU.getStock(), businessID, "UpdateProduct");
+        changeVersions.Bump(ChangeVersions.Scope.Products, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Suppliers, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.ProductNames, businessID);
 
         // Notification for update product
         NotificationC notification = new NotificationC("Your product '" + productCU.getCode() + " - " + productCU.getName() + "' was updated successfully", "low");
@@ -156,15 +326,15 @@ public class ProductService {
             throw new Exceptions.BadRequestException("Error at 'UpdateProductStock' - Stock can't be negative");
         }
 
-        product.setStock(stock);
-        product = productRepository.save(product);
+        AdjustStock(product, stock, businessID, "UpdateProductStock");
+        changeVersions.Bump(ChangeVersions.Scope.Products, businessID);
 
         // Notification for update product stock
         NotificationC notification = new NotificationC("The stock field for your product was updated to '" + stock + "' successfully", "low");
         notificationService.CreateNotification(notification, user);
 
         // Min stock threshold
-        if (product.getStockMin() != null && product.getStockMin() <= product.getStock()) {
+        if (product.getStockMin() != null && product.getStock() <= product.getStockMin()) {
             // Notification for product min stock threshold reached
             notification = new NotificationC("Your product '" + product.getCode() + " - " + product.getName() + "' reached the minimum stock threshold of " + product.getStockMin() + ". Make sure to update its stock!", "normal");
             notificationService.CreateNotification(notification, user);
@@ -182,6 +352,9 @@ public class ProductService {
         product.setSupplierByID(supplierID);
 
         product = productRepository.save(product);
+        RecordChange(product, ChangeEvent.Action.Updated, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Products, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Suppliers, businessID);
 
         // Notification for set supplier for product
         NotificationC notification = new NotificationC("Your product was updated with a supplier successfully", "low");
@@ -195,6 +368,9 @@ public class ProductService {
         product.setSupplier(null);
 
         product = productRepository.save(product);
+        RecordChange(product, ChangeEvent.Action.Updated, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Products, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Suppliers, businessID);
 
         // Notification for erase supplier for product
         NotificationC notification = new NotificationC("Your product was updated with no supplier field successfully", "low");
@@ -203,43 +379,62 @@ public class ProductService {
         return product;
     }
 
-    // For sales
-    public void UpdateProductStockByMany(Map<Long, Integer> products, Long businessID, User user) {
+    // For sales: one movement by product (appended, the products' snapshots aren't written). Nothing locked before the
+    // stock check: it's the conditional decrement of each product's current stock (see 'InventoryService')
+    public void UpdateProductStockByMany(Map<Long, Integer> products, Long businessID, Long saleID, User user) {
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
 
-        List<Product> productsBatch = new ArrayList<>();
+        Map<Long, Product> loaded = new HashMap<>();
+        for (Product product : productRepository.findActivesByIDsAndBusiness(products.keySet(), businessID)) {
+            loaded.put(product.getId(), product);
+        }
+
+        List<InventoryMovement> movements = new ArrayList<>();
 
-        // Control stock for every product
+        // Control every product (the stock, when appending)
         products.forEach((id, amountNeeded) -> {
-            Product product = productRepository.findByIdActiveAndBusiness(id, businessID).orElseThrow(
-                    () -> new Exceptions.BadRequestException("Error at 'UpdateProductStockByMany' - Problem validating product with ID: " + id)
-            );
+            Product product = loaded.get(id);
+            if (product == null) {
+                throw new Exceptions.BadRequestException("Error at 'UpdateProductStockByMany' - Problem validating product with ID: " + id);
+            }
 
             // Optional - Minimum sale amount validation
             if (product.getSaleMinAmount() != null && amountNeeded < product.getSaleMinAmount()) {
                 throw new Exceptions.BadRequestException("Error at 'UpdateProductStockByMany' - Product with ID: " + id + " have a minimum sale amount of " + product.getSaleMinAmount() + " units unaccomplished");
             }
 
-            // Stock validation
-            Integer currentStock = product.getStock();
-            if (currentStock < amountNeeded) {
-                throw new Exceptions.BadRequestException("Error at 'UpdateProductStockByMany' - Product with ID: " + id + " don't have enough stock!");
-            }
+            movements.add(new InventoryMovement(InventoryMovement.MovementType.Sale, -amountNeeded, saleID, id, businessID));
+        });
+
+        inventoryService.AppendMovements(movements, "UpdateProductStockByMany");
+        changeVersions.Bump(ChangeVersions.Scope.Products, businessID);
+
+        // Min stock threshold (only when this sale crosses it, not on every sale under it): current stock read only
+        // for products with a minimum, after the decrement (before it = after + sold units)
+        List<Long> withMin = loaded.values().stream().filter(product -> product.getStockMin() != null).map(Product::getId).toList();
+        if (withMin.isEmpty()) return;
 
-            product.setStock(currentStock - amountNeeded);
+        for (Object[] row : productRepository.findAvailableByIDs(withMin)) {
+            Product product = loaded.get((Long) row[0]);
+            int currentStock = (Integer) row[1];
+            product.setCurrentStock(currentStock);
 
-            // Min stock threshold
-            if (product.getStockMin() != null && product.getStockMin() <= product.getStock()) {
+            if (currentStock <= product.getStockMin() && currentStock + products.get(product.getId()) > product.getStockMin()) {
                 // Notification for product min stock threshold reached
                 NotificationC notification = new NotificationC("Your product '" + product.getCode() + " - " + product.getName() + "' reached the minimum stock threshold of " + product.getStockMin() + ". Make sure to update its stock!", "normal");
                 notificationService.CreateNotification(notification, user);
             }
+        }
+    }
 
-            productsBatch.add(product);
-        });
+    // For cancelled sales: the sold units back (also for products deleted meanwhile, the ledger keeps them)
+    public void RestoreProductStockByMany(Map<Long, Integer> products, Long businessID, Long saleID) {
+        List<InventoryMovement> movements = new ArrayList<>();
+        products.forEach((id, amount) -> movements.add(new InventoryMovement(InventoryMovement.MovementType.Cancel, amount, saleID, id, businessID)));
 
-        productRepository.saveAll(productsBatch);
+        inventoryService.AppendMovements(movements, "RestoreProductStockByMany");
+        changeVersions.Bump(ChangeVersions.Scope.Products, businessID);
     }
 
     // Logic deletion (field: deletion date)
@@ -259,12 +454,16 @@ public class ProductService {
         product.setDeletionDate(LocalDateTime.now());
         product.setSupplier(null);
         productRepository.save(product);
+        RecordChange(product, ChangeEvent.Action.Deleted, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Products, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Suppliers, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.ProductNames, businessID);
 
         // Delete supplier if it doesn't have more associated products
         if (supplier != null) {
             List<Product> productsBySupplier = productRepository.findActivesByBusinessAndSupplier(businessID, supplier.getId());
             if (productsBySupplier.size() == 1) {
-                supplierService.DeleteSupplierAfterDeleteProduct(supplier.getId(), user);
+                supplierService.DeleteSupplierAfterDeleteProduct(supplier.getId(), businessID, user);
             }
         }
 
@@ -275,6 +474,27 @@ public class ProductService {
         return productID;
     }
 
+    // Stock changes are their own events (movements, see 'InventoryService')
+    // Active products with their current stock
+    private List<Product> LoadCatalog(Long businessID) {
+        List<Product> products = productRepository.findActivesByBusiness(businessID);
+        inventoryService.LoadCurrentStockByBusiness(products, businessID);
+        return products;
+    }
+
+    private void RecordChange(Product product, ChangeEvent.Action action, Long businessID) {
+        changeEventService.Record(ChangeEvent.EntityType.Product, action, product.getId(), ChangePayloads.ProductChange.of(product), businessID);
+    }
+
+    // Manual stock (absolute): the difference with the current one as a movement
+    private void AdjustStock(Product product, Integer stock, Long businessID, String method) {
+        int delta = stock - product.getStock();
+        if (delta == 0) return;
+
+        inventoryService.AppendMovements(List.of(new InventoryMovement(InventoryMovement.MovementType.Adjust, delta, null, product.getId(), businessID)), method);
+        product.setCurrentStock(stock);
+    }
+
     private void ValidateSimpleAttributesForProduct(ProductCU productCU) {
         if (productCU.getCode() == null || productCU.getName() == null || productCU.getDescription() == null ||
             productCU.getUnitCost() == null || productCU.getUnitPrice() == null || productCU.getStock() == null) {
@@ -332,7 +552,7 @@ public class ProductService {
         }
 
         // Without ID: create it, then set it updated in product
-        Supplier supplier = supplierService.CreateSupplierForNewProduct(supplierCU, user);
+        Supplier supplier = supplierService.CreateSupplierForNewProduct(supplierCU, productCU.getBusinessID(), user);
         productCU.getSupplier().setId(supplier.getId());
     }
 }
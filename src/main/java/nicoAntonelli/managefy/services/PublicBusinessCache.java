@@ -0,0 +1,145 @@
+package nicoAntonelli.managefy.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import nicoAntonelli.managefy.entities.Business;
+import nicoAntonelli.managefy.utils.Exceptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Public business pages by link (LRU, short TTL): the JSON already serialized, hot links served without DB nor Jackson
+// Unknown or private links are kept too (as the same error), so bogus links don't reach the DB on every hit.
+// Not '@Transactional' on purpose: a hit doesn't even take a connection from the pool
+@Component
+public class PublicBusinessCache {
+    private final ObjectWriter pageWriter; // Root serializer ('Business') resolved once
+    private final Long ttlMillis;
+    private final Integer maxLinks;
+    private final Counter hits;
+    private final Counter misses;
+
+    // Bumped by every invalidation: a page loaded before one of them isn't stored
+    private final AtomicLong generation = new AtomicLong();
+    private final LinkedHashMap<String, Page> pages;
+
+    // JSON null: not found (or not public), with its error message
+    public record Page(String link, byte[] json, String etag, String error, long expiresAt) { }
+
+    @Autowired
+    public PublicBusinessCache(ObjectMapper objectMapper, MeterRegistry registry, Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        this.pageWriter = objectMapper.writerFor(Business.class);
+        ttlMillis = env.getProperty("businesses.publicCache.ttlSeconds", Long.class, 30L) * 1000;
+        maxLinks = env.getProperty("businesses.publicCache.maxLinks", Integer.class, 10000);
+
+        // Access order: the least recently read link is evicted first
+        pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Page> eldest) {
+                return size() > maxLinks;
+            }
+        };
+
+        hits = Counter.builder("managefy.cache.requests").tag("cache", "publicBusiness").tag("result", "hit").register(registry);
+        misses = Counter.builder("managefy.cache.requests").tag("cache", "publicBusiness").tag("result", "miss").register(registry);
+        Gauge.builder("managefy.cache.size", this, cache -> cache.Size()).tag("cache", "publicBusiness").register(registry);
+    }
+
+    public Long GetTTLSeconds() {
+        return ttlMillis / 1000;
+    }
+
+    // Loader: the public business from DB, a 'BadRequestException' if it doesn't exist or it's not public
+    public Page Get(String link, Supplier<Business> loader) {
+        long now = System.currentTimeMillis();
+
+        Page page;
+        synchronized (pages) {
+            page = pages.get(link);
+        }
+
+        if (page == null || page.expiresAt() <= now) {
+            misses.increment();
+            page = Load(link, loader, now);
+        }
+        else {
+            hits.increment();
+        }
+
+        if (page.json() == null) {
+            throw new Exceptions.BadRequestException(page.error());
+        }
+
+        return page;
+    }
+
+    // After the caller's transaction commits (old & new link when it changes)
+    public void Invalidate(String... links) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Evict(links);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Evict(links);
+            }
+        });
+    }
+
+    public int Size() {
+        synchronized (pages) {
+            return pages.size();
+        }
+    }
+
+    private Page Load(String link, Supplier<Business> loader, long now) {
+        long loadedAt = generation.get();
+
+        Page page;
+        try {
+            byte[] json = pageWriter.writeValueAsBytes(loader.get());
+            page = new Page(link, json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"", null, now + ttlMillis);
+        }
+        catch (Exceptions.BadRequestException ex) {
+            page = new Page(link, null, null, ex.getMessage(), now + ttlMillis);
+        }
+        catch (JsonProcessingException ex) {
+            throw new Exceptions.InternalServerErrorException("Error at 'Load' - Public business with Link: " + link + " couldn't be serialized", ex);
+        }
+
+        synchronized (pages) {
+            if (generation.get() == loadedAt) {
+                pages.put(link, page);
+            }
+        }
+
+        return page;
+    }
+
+    private void Evict(String... links) {
+        synchronized (pages) {
+            generation.incrementAndGet();
+            for (String link : links) {
+                if (link != null) pages.remove(link);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package nicoAntonelli.managefy.services;
+
+import io.micrometer.core.annotation.Timed;
+import nicoAntonelli.managefy.entities.Client;
+import nicoAntonelli.managefy.entities.Receivable;
+import nicoAntonelli.managefy.entities.Sale;
+import nicoAntonelli.managefy.entities.User;
+import nicoAntonelli.managefy.entities.dto.Receivables;
+import nicoAntonelli.managefy.repositories.ReceivableRepository;
+import nicoAntonelli.managefy.utils.BusinessCalendar;
+import nicoAntonelli.managefy.utils.Exceptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Receivables maintained on every sale change ('SyncSale'): views aggregate the unpaid sales' balances only
+@Service
+@Transactional
+@Timed(value = "managefy.service", histogram = true)
+public class ReceivableService {
+    private final ReceivableRepository receivableRepository;
+    private final BusinessService businessService; // Dependency
+    private final ClientService clientService; // Dependency
+    private final BusinessCalendarCache businessCalendarCache; // Dependency
+
+    @Autowired
+    public ReceivableService(ReceivableRepository receivableRepository,
+                             BusinessService businessService,
+                             ClientService clientService,
+                             BusinessCalendarCache businessCalendarCache) {
+        this.receivableRepository = receivableRepository;
+        this.businessService = businessService;
+        this.clientService = clientService;
+        this.businessCalendarCache = businessCalendarCache;
+    }
+
+    // Business days: aged by the days the business works (the 'businessDays' of the business), not calendar days
+    @Transactional(readOnly = true)
+    public Receivables GetReceivables(Long businessID, Boolean businessDays, User user) {
+        businessCalendarCache.RequireFreshReads(businessID);
+
+        // Validate business, user and role
+        businessService.GetOneBusiness(businessID, user);
+
+        LocalDate today = LocalDate.now();
+        LocalDateTime[] limits = Limits(businessID, today, businessDays);
+        List<Object[]> rows = receivableRepository.findBalancesByBusiness(businessID, limits[0], limits[1], limits[2]);
+
+        return BuildReceivables(businessID, today, businessDays, rows);
+    }
+
+    @Transactional(readOnly = true)
+    public Receivables GetClientReceivables(Long businessID, Long clientID, Boolean businessDays, User user) {
+        businessCalendarCache.RequireFreshReads(businessID);
+
+        if (!clientService.ExistsClient(clientID, businessID, user)) {
+            throw new Exceptions.BadRequestException("Error at 'GetClientReceivables' - Client with ID: " + clientID + " doesn't exist or it's not associated with the business: " + businessID);
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDateTime[] limits = Limits(businessID, today, businessDays);
+        List<Object[]> rows = receivableRepository.findBalancesByBusinessAndClient(businessID, clientID, limits[0], limits[1], limits[2]);
+
+        return BuildReceivables(businessID, today, businessDays, rows);
+    }
+
+    // After every save of the sale: its balance (client, outstanding) replaced, or removed once paid or cancelled
+    public void SyncSale(Sale sale, Long businessID) {
+        BigDecimal outstanding = Outstanding(sale);
+        if (outstanding.compareTo(BigDecimal.ZERO) <= 0) {
+            receivableRepository.deleteBySale(sale.getId());
+            return;
+        }
+
+        Client client = sale.getClient() != null ? new Client(sale.getClient().getId()) : null;
+        if (receivableRepository.updateBySale(sale.getId(), outstanding, client) > 0) return;
+
+        Long clientID = client != null ? client.getId() : null;
+        receivableRepository.save(new Receivable(sale.getId(), sale.getDate(), outstanding, businessID, clientID));
+    }
+
+    private BigDecimal Outstanding(Sale sale) {
+        if (sale.getState() != Sale.SaleState.PendingPayment && sale.getState() != Sale.SaleState.PartialPayment) {
+            return BigDecimal.ZERO;
+        }
+
+        BigDecimal paid = sale.getPartialPayment() != null ? sale.getPartialPayment() : BigDecimal.ZERO;
+        return sale.getTotalPrice().subtract(paid);
+    }
+
+    // Sales since the start of the day, that many days ago (30, 60, 90), are younger than the bucket limit
+    private LocalDateTime[] Limits(Long businessID, LocalDate today, Boolean businessDays) {
+        BusinessCalendar calendar = Boolean.TRUE.equals(businessDays) ? businessCalendarCache.Get(businessID) : null;
+
+        LocalDateTime[] limits = new LocalDateTime[3];
+        for (int bucket = 0; bucket < limits.length; bucket++) {
+            int days = 30 * (bucket + 1);
+            LocalDate limit = calendar != null ? calendar.plusBusinessDays(today, -days) : today.minusDays(days);
+            limits[bucket] = limit.atStartOfDay();
+        }
+        return limits;
+    }
+
+    private Receivables BuildReceivables(Long businessID, LocalDate today, Boolean businessDays, List<Object[]> rows) {
+        List<Receivables.ClientBalance> clients = new ArrayList<>();
+        Receivables.Aging total = new Receivables.Aging(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        long sales = 0;
+
+        for (Object[] row : rows) {
+            Receivables.Aging balance = new Receivables.Aging(Amount(row[3]), Amount(row[4]), Amount(row[5]), Amount(row[6]), Amount(row[7]));
+            Long count = ((Number) row[2]).longValue();
+            clients.add(new Receivables.ClientBalance((Long) row[0], (String) row[1], count, balance));
+
+            total.setOutstanding(total.getOutstanding().add(balance.getOutstanding()));
+            total.setDays0To30(total.getDays0To30().add(balance.getDays0To30()));
+            total.setDays31To60(total.getDays31To60().add(balance.getDays31To60()));
+            total.setDays61To90(total.getDays61To90().add(balance.getDays61To90()));
+            total.setOver90(total.getOver90().add(balance.getOver90()));
+            sales += count;
+        }
+
+        return new Receivables(businessID, today, Boolean.TRUE.equals(businessDays), sales, total, clients);
+    }
+
+    private BigDecimal Amount(Object value) {
+        if (value == null) return BigDecimal.ZERO;
+        if (value instanceof BigDecimal amount) return amount;
+
+        return new BigDecimal(value.toString());
+    }
+}
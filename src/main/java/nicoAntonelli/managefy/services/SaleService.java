@@ -1,7 +1,8 @@
 package nicoAntonelli.managefy.services;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import nicoAntonelli.managefy.entities.*;
+import nicoAntonelli.managefy.entities.dto.ChangePayloads;
 import nicoAntonelli.managefy.entities.dto.ClientCU;
 import nicoAntonelli.managefy.entities.dto.NotificationC;
 import nicoAntonelli.managefy.entities.dto.SaleC;
@@ -10,8 +11,10 @@ import nicoAntonelli.managefy.utils.DateFormatterSingleton;
 import nicoAntonelli.managefy.repositories.SaleRepository;
 import nicoAntonelli.managefy.repositories.SaleLineRepository;
 import nicoAntonelli.managefy.utils.Exceptions;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -19,6 +22,7 @@ import java.util.*;
 
 @Service
 @Transactional
+@Timed(value = "managefy.service", histogram = true)
 public class SaleService {
     private final SaleRepository saleRepository;
     private final SaleLineRepository saleLineRepository;
@@ -26,6 +30,10 @@ public class SaleService {
     private final ClientService clientService; // Dependency
     private final NotificationService notificationService; // Dependency
     private final ProductService productService; // Dependency
+    private final ReceivableService receivableService; // Dependency
+    private final PaymentService paymentService; // Dependency
+    private final ChangeVersions changeVersions; // Dependency
+    private final ChangeEventService changeEventService; // Dependency
     private final DateFormatterSingleton dateFormatterSingleton;
 
     @Autowired
@@ -34,16 +42,25 @@ public class SaleService {
                        BusinessService businessService,
                        ClientService clientService,
                        NotificationService notificationService,
-                       ProductService productService) {
+                       ProductService productService,
+                       ReceivableService receivableService,
+                       PaymentService paymentService,
+                       ChangeVersions changeVersions,
+                       ChangeEventService changeEventService) {
         this.saleRepository = saleRepository;
         this.saleLineRepository = saleLineRepository;
         this.businessService = businessService;
         this.clientService = clientService;
         this.notificationService = notificationService;
         this.productService = productService;
+        this.receivableService = receivableService;
+        this.paymentService = paymentService;
+        this.changeVersions = changeVersions;
+        this.changeEventService = changeEventService;
         this.dateFormatterSingleton = DateFormatterSingleton.getInstance();
     }
 
+    @Transactional(readOnly = true)
     public List<Sale> GetSalesIncomplete(Long businessID, User user) {
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
@@ -51,6 +68,7 @@ public class SaleService {
         return saleRepository.findIncompleteByBusiness(businessID);
     }
 
+    @Transactional(readOnly = true)
     public List<Sale> GetSalesByClient(Long businessID, Long clientID, User user) {
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
@@ -58,6 +76,7 @@ public class SaleService {
         return saleRepository.findActivesByBusinessAndClient(businessID, clientID);
     }
 
+    @Transactional(readOnly = true)
     public List<Sale> GetSalesByInterval(Long businessID, String initialDate, String finalDate, User user) {
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
@@ -84,6 +103,7 @@ public class SaleService {
         return saleRepository.findActivesByIntervalAndBusiness(startDate, endDate, businessID);
     }
 
+    @Transactional(readOnly = true)
     public Sale GetOneSale(Long saleID, Long businessID, User user) {
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
@@ -190,23 +210,36 @@ public class SaleService {
             productsToUpdate.put(productID, amount);
         }
 
-        // Check available stock for products and save all
-        productService.UpdateProductStockByMany(productsToUpdate, businessID, user);
-
         // New sale object with DTO info
         Sale sale = new Sale(saleC.getPartialPayment(), saleC.getState(), saleC.getObservation());
 
         // Set business
         sale.setBusinessByID(businessID);
 
-        // Update sale with client
+        // Update sale with client (clients are listed through their sales)
         if (saleC.getClient() != null) {
             sale.setClientByID(saleC.getClient().getId());
+            changeVersions.Bump(ChangeVersions.Scope.Clients, businessID);
         }
 
         // Calculate total price and save the sale before saleLines
         sale.calculateAndSetTotalPrice(saleLines);
+
+        // Paid at creation (all of it or the partial payment): its first payment, state derived from it
+        BigDecimal paid = PaidAtCreation(sale);
+        sale.setPartialPayment(paid);
+        if (paid.compareTo(sale.getTotalPrice()) >= 0 && sale.getState() == Sale.SaleState.PartialPayment) {
+            sale.setState(Sale.SaleState.Paid);
+        }
+
         sale = saleRepository.save(sale);
+        if (paid.compareTo(BigDecimal.ZERO) > 0) {
+            paymentService.AppendPayment(sale.getId(), businessID, paid, null);
+        }
+        receivableService.SyncSale(sale, businessID);
+
+        // Check available stock for products and append their movements (referencing the sale)
+        productService.UpdateProductStockByMany(productsToUpdate, businessID, sale.getId(), user);
 
         // Now save the saleLines with the now-loaded sale
         for (SaleLine saleLine : saleLines) {
@@ -216,6 +249,7 @@ public class SaleService {
 
         // Set saved lines in the sale and return it
         sale.setSaleLines(saleLines);
+        RecordChange(sale, ChangeEvent.Action.Created, businessID);
 
         // Notification for new sale
         NotificationC notification = new NotificationC("You made a new sale with date '" + sale.getDate() + "' successfully!", "low");
@@ -229,6 +263,7 @@ public class SaleService {
         sale.setObservation(observation);
 
         sale = saleRepository.save(sale);
+        RecordChange(sale, ChangeEvent.Action.Updated, businessID);
 
         // Notification for update sale observation
         NotificationC notification = new NotificationC("The observation field for your sale was updated to '" + observation + "' successfully", "low");
@@ -238,18 +273,22 @@ public class SaleService {
     }
 
     public Sale UpdateSaleState(Long saleID, Long businessID, String state, User user) {
-        Sale sale = GetOneSale(saleID, businessID, user);
+        Sale sale = GetSaleForPayment(saleID, businessID, user, "UpdateSaleState");
+        if (sale.getState() == Sale.SaleState.Cancelled) {
+            throw new Exceptions.BadRequestException("Error at 'UpdateSaleState' - Sale with ID: " + saleID + " is already cancelled");
+        }
         Boolean result = sale.setStateByText(state);
         if (!result) {
             throw new Exceptions.BadRequestException("Error at 'UpdateSaleState' - Unexpected value: " + state);
         }
 
-        // Erase partial payment if it has a different state than 'partial payment'
-        if (sale.getState() != Sale.SaleState.PartialPayment) {
-            sale.setPartialPayment(BigDecimal.ZERO);
+        // Cancelled through its state: the same as 'CancelSale' (stock back, client detached)
+        if (sale.getState() == Sale.SaleState.Cancelled) {
+            Cancel(sale, businessID, user);
+        }
+        else {
+            UpdatePaymentState(sale, businessID);
         }
-
-        sale = saleRepository.save(sale);
 
         // Notification for update sale state
         NotificationC notification = new NotificationC("The state field for your sale was updated to '" + state + "' successfully", "low");
@@ -258,28 +297,44 @@ public class SaleService {
         return sale;
     }
 
-    public Sale UpdateSalePartialPayment(Long saleID, Long businessID, BigDecimal partialPayment, User user) {
-        Sale sale = GetOneSale(saleID, businessID, user);
+    // Appends a payment (optional idempotency key: a retried request returns the sale without paying twice)
+    public Sale UpdateSalePartialPayment(Long saleID, Long businessID, BigDecimal partialPayment, String idempotencyKey, User user) {
+        if (partialPayment.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new Exceptions.BadRequestException("Error at 'UpdateSalePartialPayment' - Can't make a partial payment of $" + partialPayment + ", sale: " + saleID);
+        }
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 255)) {
+            throw new Exceptions.BadRequestException("Error at 'UpdateSalePartialPayment' - Invalid idempotency key, sale: " + saleID);
+        }
+
+        // Locked: concurrent payments of this sale wait until this one commits (the key is checked after it)
+        Sale sale = GetSaleForPayment(saleID, businessID, user, "UpdateSalePartialPayment");
+
+        Optional<Payment> previous = paymentService.FindPayment(businessID, idempotencyKey);
+        if (previous.isPresent()) {
+            if (!saleID.equals(previous.get().getSaleID())) {
+                throw new Exceptions.BadRequestException("Error at 'UpdateSalePartialPayment' - Idempotency key already used for a payment of another sale: " + previous.get().getSaleID());
+            }
+
+            return sale;
+        }
+
         if (sale.getState() != Sale.SaleState.PendingPayment &&
             sale.getState() != Sale.SaleState.PartialPayment) {
             throw new Exceptions.BadRequestException("Error at 'UpdateSalePartialPayment' - Sale: " + saleID + " has the state: " + sale.getState());
         }
 
-        if (partialPayment.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new Exceptions.BadRequestException("Error at 'UpdateSalePartialPayment' - Can't make a partial payment of $" + partialPayment + ", sale: " + saleID);
-        }
+        // Only what's still owed is recorded: the payment completing the sale sets it as 'paid'
+        BigDecimal paid = paymentService.SumPayments(saleID);
+        BigDecimal payment = partialPayment.min(sale.getTotalPrice().subtract(paid));
+        paymentService.AppendPayment(saleID, businessID, payment, idempotencyKey);
 
-        BigDecimal updatedPartialPayment = sale.getPartialPayment().add(partialPayment);
-        if (updatedPartialPayment.compareTo(sale.getTotalPrice()) < 0) {
-            sale.setPartialPayment(updatedPartialPayment);
-            sale.setState(Sale.SaleState.PendingPayment);
-        } else {
-            // Ignore value and set 'paid' state
-            sale.setPartialPayment(BigDecimal.ZERO);
-            sale.setState(Sale.SaleState.Paid);
-        }
+        paid = paid.add(payment);
+        sale.setPartialPayment(paid);
+        sale.setState(paid.compareTo(sale.getTotalPrice()) < 0 ? Sale.SaleState.PartialPayment : Sale.SaleState.Paid);
 
         sale = saleRepository.save(sale);
+        receivableService.SyncSale(sale, businessID);
+        RecordChange(sale, ChangeEvent.Action.Updated, businessID);
 
         // Notification for update sale state
         NotificationC notification = new NotificationC("The partial payment field for your sale was updated to $" + partialPayment + " successfully", "low");
@@ -297,6 +352,9 @@ public class SaleService {
         sale.setClientByID(clientID);
 
         sale = saleRepository.save(sale);
+        receivableService.SyncSale(sale, businessID);
+        RecordChange(sale, ChangeEvent.Action.Updated, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Clients, businessID);
 
         // Notification for set client for sale
         NotificationC notification = new NotificationC("Your sale was updated with a client successfully", "low");
@@ -310,6 +368,9 @@ public class SaleService {
         sale.setClient(null);
 
         sale = saleRepository.save(sale);
+        receivableService.SyncSale(sale, businessID);
+        RecordChange(sale, ChangeEvent.Action.Updated, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Clients, businessID);
 
         // Notification for erase client for sale
         NotificationC notification = new NotificationC("Your sale was updated with no client field successfully", "low");
@@ -326,29 +387,110 @@ public class SaleService {
             throw new Exceptions.BadRequestException("Error at 'CancelSale' - Business with ID: " + businessID + " doesn't exist or the user: " + user.getId() + " isn't an Admin or the Manager");
         }
 
-        Sale sale = GetOneSale(saleID, businessID, user);
+        // Locked: a concurrent cancellation (or state change to cancelled) waits, then finds it cancelled
+        Sale sale = GetSaleForPayment(saleID, businessID, user, "CancelSale");
+        if (sale.getState() == Sale.SaleState.Cancelled) {
+            throw new Exceptions.BadRequestException("Error at 'CancelSale' - Sale with ID: " + saleID + " is already cancelled");
+        }
+
+        sale.setState(Sale.SaleState.Cancelled);
+        Cancel(sale, businessID, user);
 
+        // Notification for cancel sale
+        NotificationC notification = new NotificationC("Your sale with date '" + sale.getDate().toString() + "' was cancelled successfully. Its products' stock was restored", "normal");
+        notificationService.CreateNotification(notification, user);
+
+        return saleID;
+    }
+
+    // Not cancelled: the new state against the sale's payments
+    private void UpdatePaymentState(Sale sale, Long businessID) {
+        Long saleID = sale.getId();
+
+        // Payments are kept (history): the paid amount comes from them, whatever the state
+        BigDecimal paid = paymentService.SumPayments(saleID);
+        BigDecimal remaining = sale.getTotalPrice().subtract(paid);
+
+        switch (sale.getState()) {
+            // Set as paid: the remaining amount was received now
+            case Paid, PaidAndBilled -> {
+                if (remaining.compareTo(BigDecimal.ZERO) > 0) {
+                    paymentService.AppendPayment(saleID, businessID, remaining, null);
+                    paid = sale.getTotalPrice();
+                }
+            }
+            // Back to unpaid: only while something is still owed (partial or pending, by its payments)
+            case PendingPayment, PartialPayment -> {
+                if (remaining.compareTo(BigDecimal.ZERO) <= 0) {
+                    throw new Exceptions.BadRequestException("Error at 'UpdateSaleState' - Sale: " + saleID + " is already paid ($" + paid + ")");
+                }
+                sale.setState(paid.compareTo(BigDecimal.ZERO) > 0 ? Sale.SaleState.PartialPayment : Sale.SaleState.PendingPayment);
+            }
+        }
+        sale.setPartialPayment(paid);
+
+        saleRepository.save(sale);
+        receivableService.SyncSale(sale, businessID);
+        RecordChange(sale, ChangeEvent.Action.Updated, businessID);
+    }
+
+    // Sale already locked & set as cancelled ('CancelSale' & 'UpdateSaleState'): logic deletion, its products' stock back
+    private void Cancel(Sale sale, Long businessID, User user) {
         // Sale's client (optional)
         Client client = sale.getClient();
 
-        // Sale deletion (don't update stock)
-        sale.setState(Sale.SaleState.Cancelled);
+        RestoreStock(sale, businessID);
         sale.setClient(null);
         saleRepository.save(sale);
+        receivableService.SyncSale(sale, businessID);
+        RecordChange(sale, ChangeEvent.Action.Deleted, businessID);
 
-        // Delete client if it doesn't have more associated sales
+        // Delete client if it doesn't have more associated sales (this one is already cancelled & detached)
         if (client != null) {
+            changeVersions.Bump(ChangeVersions.Scope.Clients, businessID);
+
             List<Sale> salesByClient = saleRepository.findActivesByBusinessAndClient(businessID, client.getId());
-            if (salesByClient.size() == 1) {
-                clientService.DeleteClientAfterCancelSale(client.getId(), user);
+            if (salesByClient.isEmpty()) {
+                clientService.DeleteClientAfterCancelSale(client.getId(), businessID, user);
             }
         }
+    }
 
-        // Notification for cancel sale
-        NotificationC notification = new NotificationC("Your sale with date '" + sale.getDate().toString() + "' was cancelled successfully. Update products' stock manually if you still have them!", "normal");
-        notificationService.CreateNotification(notification, user);
+    // Sale's row locked until the end of the transaction (payments, state changes & cancellations of one sale in turns)
+    private Sale GetSaleForPayment(Long saleID, Long businessID, User user, String method) {
+        // Validate business, user and role
+        businessService.GetOneBusiness(businessID, user);
 
-        return saleID;
+        Sale sale = saleRepository.findByIdActiveAndBusinessForUpdate(saleID, businessID).orElseThrow(
+                () -> new Exceptions.BadRequestException("Error at '" + method + "' - Sale with ID: " + saleID + " doesn't exist or it's not associated with the business: " + businessID)
+        );
+
+        // Lines after the lock (not joined to it): the returned sale includes them
+        Hibernate.initialize(sale.getSaleLines());
+        return sale;
+    }
+
+    // Lines only at creation: they never change afterward
+    private void RecordChange(Sale sale, ChangeEvent.Action action, Long businessID) {
+        ChangePayloads.SaleChange payload = ChangePayloads.SaleChange.of(sale, action == ChangeEvent.Action.Created);
+        changeEventService.Record(ChangeEvent.EntityType.Sale, action, sale.getId(), payload, businessID);
+    }
+
+    private BigDecimal PaidAtCreation(Sale sale) {
+        return switch (sale.getState()) {
+            case Paid, PaidAndBilled -> sale.getTotalPrice();
+            case PartialPayment -> sale.getPartialPayment() != null ? sale.getPartialPayment().min(sale.getTotalPrice()) : BigDecimal.ZERO;
+            default -> BigDecimal.ZERO;
+        };
+    }
+
+    private void RestoreStock(Sale sale, Long businessID) {
+        Map<Long, Integer> products = new HashMap<>();
+        for (SaleLine line : sale.getSaleLines()) {
+            products.merge(line.getProduct().getId(), line.getAmount(), Integer::sum);
+        }
+
+        productService.RestoreProductStockByMany(products, businessID, sale.getId());
     }
 
     private void CheckOrCreateClientForSale(SaleC saleC, User user) {
@@ -368,8 +510,8 @@ public class SaleService {
             return;
         }
 
-        // Without ID: create it, then set it updated in sale
-        Client client = clientService.CreateClientForNewSale(clientCU, user);
+        // Without ID: create it (or reuse the one with the same email or phone, if asked for), then set it updated in sale
+        Client client = clientService.CreateClientForNewSale(clientCU, saleC.getBusinessID(), user);
         saleC.getClient().setId(client.getId());
     }
 }
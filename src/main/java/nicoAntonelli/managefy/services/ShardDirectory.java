@@ -0,0 +1,206 @@
+package nicoAntonelli.managefy.services;
+
+import nicoAntonelli.managefy.utils.ShardRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Business -> shard. Every shard allocates IDs in its own range (shard N: sequences from N * idRange), so the shard of a
+// business (and of any row created in it) is its ID range; the directory table ('business_shards', in shard 0) only
+// keeps the businesses moved out of theirs. Shard 0 also holds the global tables (users, validations, error logs)
+// and users are copied to every shard (roles & notifications reference them). Without sharding: one shard, no fan-outs
+@Component
+public class ShardDirectory {
+    private static final Logger logger = LoggerFactory.getLogger(ShardDirectory.class);
+
+    private final ShardRoutingDataSource routing; // Null: sharding disabled
+    private final TransactionTemplate fanOutTemplate;
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+    private final Long idRange;
+
+    private volatile Map<Long, Integer> moved = Map.of();
+    private final long[] businesses; // By shard: placement of new businesses
+
+    @Autowired
+    public ShardDirectory(ObjectProvider<ShardRoutingDataSource> routing, PlatformTransactionManager transactionManager, Environment env) {
+        if (env == null) {
+            throw new RuntimeException("Can't access to environment variables from the file 'application.properties'!");
+        }
+
+        this.routing = routing.getIfAvailable();
+        idRange = env.getProperty("datasource.shards.idRange", Long.class, 1L << 40);
+
+        // Every shard in its own transaction, not joining the caller's one (bound to another shard)
+        fanOutTemplate = new TransactionTemplate(transactionManager);
+        fanOutTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        fanOutTemplate.setReadOnly(true);
+
+        int count = this.routing != null ? this.routing.count() : 1;
+        businesses = new long[count];
+        if (this.routing == null) return;
+
+        for (int shard = 0; shard < count; shard++) {
+            shards.add(new JdbcTemplate(this.routing.shard(shard)));
+        }
+        shards.getFirst().execute("CREATE TABLE IF NOT EXISTS business_shards (businessid BIGINT PRIMARY KEY, shard INTEGER NOT NULL)");
+        Refresh();
+    }
+
+    public Boolean Enabled() {
+        return routing != null;
+    }
+
+    public int Count() {
+        return businesses.length;
+    }
+
+    public Long IDRange() {
+        return idRange;
+    }
+
+    public int ShardOfBusiness(Long businessID) {
+        Integer shard = moved.get(businessID);
+        return shard != null ? shard : ShardOfID(businessID);
+    }
+
+    // Unknown ranges go to shard 0, where they just don't exist
+    public int ShardOfID(Long id) {
+        if (routing == null || id == null || id < 0) return 0;
+
+        long shard = id / idRange;
+        return shard < businesses.length ? (int) shard : 0;
+    }
+
+    // The one with fewer businesses (counted locally until the next refresh, so a burst spreads too)
+    public synchronized int ShardForNewBusiness() {
+        int best = 0;
+        for (int shard = 1; shard < businesses.length; shard++) {
+            if (businesses[shard] < businesses[best]) best = shard;
+        }
+        businesses[best]++;
+
+        return best;
+    }
+
+    // User-scoped queries: the same query on every shard (read-only), results in shard order
+    public <T> List<T> FanOut(Supplier<List<T>> query) {
+        if (routing == null) return query.get();
+
+        List<T> result = new ArrayList<>();
+        for (int shard = 0; shard < businesses.length; shard++) {
+            List<T> part = ShardRoutingDataSource.on(shard, () -> fanOutTemplate.execute(_ -> query.get()));
+            if (part != null) result.addAll(part);
+        }
+
+        return result;
+    }
+
+    // Globally unique lookups (like links): stops at the first shard having it
+    public <T> Optional<T> FanOutFirst(Supplier<Optional<T>> query) {
+        if (routing == null) return query.get();
+
+        for (int shard = 0; shard < businesses.length; shard++) {
+            Optional<T> found = ShardRoutingDataSource.on(shard, () -> fanOutTemplate.execute(_ -> query.get()));
+            if (found != null && found.isPresent()) return found;
+        }
+
+        return Optional.empty();
+    }
+
+    // Background work on every shard, each one bound while it runs (outside of any transaction)
+    public void ForEachShard(Runnable work) {
+        for (int shard = 0; shard < businesses.length; shard++) {
+            ShardRoutingDataSource.on(shard, () -> {
+                work.run();
+                return null;
+            });
+        }
+    }
+
+    // Users row (from shard 0) copied to the other shards, once the caller's transaction commits
+    public void ReplicateUser(Long userID) {
+        if (routing == null || userID == null) return;
+
+        AfterCommit(() -> {
+            List<Map<String, Object>> rows = shards.getFirst().queryForList("SELECT * FROM users WHERE id = ?", userID);
+            if (rows.isEmpty()) return;
+
+            Map<String, Object> row = rows.getFirst();
+            List<String> columns = row.keySet().stream().filter(column -> !column.equalsIgnoreCase("id")).toList();
+            List<Object> values = new ArrayList<>(columns.stream().map(row::get).toList());
+            values.add(userID);
+
+            String update = "UPDATE users SET " + columns.stream().map(column -> column + " = ?").collect(Collectors.joining(", ")) + " WHERE id = ?";
+            String insert = "INSERT INTO users (" + String.join(", ", columns) + ", id) VALUES (" + "?, ".repeat(columns.size()) + "?)";
+            for (JdbcTemplate shard : shards.subList(1, shards.size())) {
+                if (shard.update(update, values.toArray()) == 0) shard.update(insert, values.toArray());
+            }
+        });
+    }
+
+    // Users copies (and their notifications there) deleted once the caller's transaction commits
+    public void RemoveUser(Long userID) {
+        if (routing == null || userID == null) return;
+
+        AfterCommit(() -> {
+            for (JdbcTemplate shard : shards.subList(1, shards.size())) {
+                shard.update("DELETE FROM notifications WHERE userid = ?", userID);
+                shard.update("DELETE FROM users WHERE id = ?", userID);
+            }
+        });
+    }
+
+    // Moved businesses & businesses per shard
+    @Scheduled(fixedDelayString = "${datasource.shards.directoryRefreshMillis:60000}")
+    public void Refresh() {
+        if (routing == null) return;
+
+        try {
+            Map<Long, Integer> directory = new HashMap<>();
+            shards.getFirst().query("SELECT businessid, shard FROM business_shards",
+                    result -> { directory.put(result.getLong(1), result.getInt(2)); });
+            moved = Map.copyOf(directory);
+
+            long[] counts = new long[businesses.length];
+            for (int shard = 0; shard < counts.length; shard++) {
+                Long count = shards.get(shard).queryForObject("SELECT COUNT(*) FROM businesses", Long.class);
+                counts[shard] = count != null ? count : 0;
+            }
+            synchronized (this) {
+                System.arraycopy(counts, 0, businesses, 0, counts.length);
+            }
+        }
+        catch (Exception ex) {
+            // Schema not created yet (first start): keeps the previous state
+            logger.warn("Shard directory refresh failed: {}", ex.getMessage());
+        }
+    }
+
+    private void AfterCommit(Runnable work) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            work.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                work.run();
+            }
+        });
+    }
+}
@@ -1,9 +1,11 @@
 package nicoAntonelli.managefy.services;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import nicoAntonelli.managefy.entities.ChangeEvent;
 import nicoAntonelli.managefy.entities.Product;
 import nicoAntonelli.managefy.entities.Supplier;
 import nicoAntonelli.managefy.entities.User;
+import nicoAntonelli.managefy.entities.dto.ChangePayloads;
 import nicoAntonelli.managefy.entities.dto.NotificationC;
 import nicoAntonelli.managefy.entities.dto.SupplierCU;
 import nicoAntonelli.managefy.repositories.ProductRepository;
@@ -11,30 +13,50 @@ import nicoAntonelli.managefy.repositories.SupplierRepository;
 import nicoAntonelli.managefy.utils.Exceptions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
 @Transactional
+@Timed(value = "managefy.service", histogram = true)
 public class SupplierService {
     private final SupplierRepository supplierRepository;
     private final BusinessService businessService; // Dependency
     private final NotificationService notificationService; // Dependency
     private final ProductRepository productRepository; // Dependency
+    private final ChangeVersions changeVersions; // Dependency
+    private final ChangeEventService changeEventService; // Dependency
 
     @Autowired
     public SupplierService(SupplierRepository supplierRepository,
                            BusinessService businessService,
                            NotificationService notificationService,
-                           ProductRepository ProductRepository) {
+                           ProductRepository ProductRepository,
+                           ChangeVersions changeVersions,
+                           ChangeEventService changeEventService) {
         this.supplierRepository = supplierRepository;
         this.businessService = businessService;
         this.notificationService = notificationService;
         this.productRepository = ProductRepository;
+        this.changeVersions = changeVersions;
+        this.changeEventService = changeEventService;
     }
 
+    // Current version of the suppliers list (ETag), access validated
+    @Transactional(readOnly = true)
+    public String GetSuppliersETag(Long businessID, User user) {
+        // Validate business, user and role
+        businessService.GetOneBusiness(businessID, user);
+
+        return changeVersions.ETag(ChangeVersions.Scope.Suppliers, businessID);
+    }
+
+    @Transactional(readOnly = true)
     public List<Supplier> GetSuppliers(Long businessID, User user) {
+        changeVersions.RequireFreshReads(ChangeVersions.Scope.Suppliers, businessID);
+
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
 
@@ -48,6 +70,7 @@ public class SupplierService {
         return supplierRepository.existsByIdActiveAndBusiness(supplierID, businessID);
     }
 
+    @Transactional(readOnly = true)
     public Supplier GetOneSupplier(Long supplierID, Long businessID, User user) {
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
@@ -61,7 +84,7 @@ public class SupplierService {
     }
 
     // On a new product context
-    public Supplier CreateSupplierForNewProduct(SupplierCU supplierCU, User user) {
+    public Supplier CreateSupplierForNewProduct(SupplierCU supplierCU, Long businessID, User user) {
         // Validate name
         if (supplierCU.getName() == null || supplierCU.getName().isBlank()) {
             throw new Exceptions.BadRequestException("Error at 'CreateSupplierForNewProduct' - Name field was not supplied");
@@ -72,6 +95,7 @@ public class SupplierService {
                                          supplierCU.getEmail(), supplierCU.getPhone());
 
         supplier = supplierRepository.save(supplier);
+        RecordChange(supplier, ChangeEvent.Action.Created, businessID);
 
         // Notification for new supplier
         NotificationC notification = new NotificationC("Your new supplier '" + supplierCU.getName() + "' was created successfully", "low");
@@ -106,6 +130,12 @@ public class SupplierService {
 
         // Save products with supplier set
         productRepository.saveAll(products);
+        RecordChange(supplier, ChangeEvent.Action.Created, supplierCU.getBusinessID());
+        RecordProductsChange(products, supplierCU.getBusinessID());
+
+        // Products embed their supplier
+        changeVersions.Bump(ChangeVersions.Scope.Suppliers, supplierCU.getBusinessID());
+        changeVersions.Bump(ChangeVersions.Scope.Products, supplierCU.getBusinessID());
 
         // Notification for new supplier
         NotificationC notification = new NotificationC("Your new supplier '" + supplierCU.getName() + "' was created successfully", "low");
@@ -145,6 +175,12 @@ public class SupplierService {
 
         // Save products with supplier set
         productRepository.saveAll(products);
+        RecordChange(supplier, ChangeEvent.Action.Updated, supplierCU.getBusinessID());
+        RecordProductsChange(products, supplierCU.getBusinessID());
+
+        // Products embed their supplier
+        changeVersions.Bump(ChangeVersions.Scope.Suppliers, supplierCU.getBusinessID());
+        changeVersions.Bump(ChangeVersions.Scope.Products, supplierCU.getBusinessID());
 
         // Notification for update supplier
         NotificationC notification = new NotificationC("Your supplier '" + supplierCU.getName() + "' was updated successfully", "low");
@@ -171,6 +207,10 @@ public class SupplierService {
             product.setSupplier(null);
         }
         productRepository.saveAll(products);
+        RecordChange(supplier, ChangeEvent.Action.Deleted, businessID);
+        RecordProductsChange(products, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Suppliers, businessID);
+        changeVersions.Bump(ChangeVersions.Scope.Products, businessID);
 
         // Notification for delete supplier
         NotificationC notification = new NotificationC("Your supplier was deleted successfully, and erased from associated products", "low");
@@ -180,14 +220,29 @@ public class SupplierService {
     }
 
     // On a delete product context
-    public void DeleteSupplierAfterDeleteProduct(Long supplierID, User user) {
-        supplierRepository.deleteById(supplierID);
+    public void DeleteSupplierAfterDeleteProduct(Long supplierID, Long businessID, User user) {
+        Optional<Supplier> supplier = supplierRepository.findById(supplierID);
+        if (supplier.isEmpty()) return;
+
+        supplierRepository.delete(supplier.get());
+        RecordChange(supplier.get(), ChangeEvent.Action.Deleted, businessID);
 
         // Notification for delete supplier
         NotificationC notification = new NotificationC("After your product elimination, the supplier without products was also deleted successfully", "low");
         notificationService.CreateNotification(notification, user);
     }
 
+    private void RecordChange(Supplier supplier, ChangeEvent.Action action, Long businessID) {
+        changeEventService.Record(ChangeEvent.EntityType.Supplier, action, supplier.getId(), ChangePayloads.SupplierChange.of(supplier), businessID);
+    }
+
+    // Products with their supplier changed
+    private void RecordProductsChange(Collection<Product> products, Long businessID) {
+        for (Product product : products) {
+            changeEventService.Record(ChangeEvent.EntityType.Product, ChangeEvent.Action.Updated, product.getId(), ChangePayloads.ProductChange.of(product), businessID);
+        }
+    }
+
     private Set<Product> ValidateProductsForSupplier(SupplierCU supplierCU, User user) {
         // At least one product
         Set<Long> productsIDs = supplierCU.getProductsIDs();
@@ -1,6 +1,6 @@
 package nicoAntonelli.managefy.services;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import nicoAntonelli.managefy.entities.User;
 import nicoAntonelli.managefy.entities.UserRole;
 import nicoAntonelli.managefy.entities.UserRoleKey;
@@ -9,33 +9,41 @@ import nicoAntonelli.managefy.repositories.UserRoleRepository;
 import nicoAntonelli.managefy.utils.Exceptions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 @Service
 @Transactional
+@Timed(value = "managefy.service", histogram = true)
 public class UserRoleService {
     private final UserRoleRepository userRoleRepository;
     private final BusinessService businessService; // Dependency
     private final NotificationService notificationService; // Dependency
     private final UserService userService; // Dependency
+    private final ShardDirectory shardDirectory; // Dependency
 
     @Autowired
     public UserRoleService(UserRoleRepository userRoleRepository,
                            BusinessService businessService,
                            NotificationService notificationService,
-                           UserService userService) {
+                           UserService userService,
+                           ShardDirectory shardDirectory) {
         this.userRoleRepository = userRoleRepository;
         this.businessService = businessService;
         this.notificationService = notificationService;
         this.userService = userService;
+        this.shardDirectory = shardDirectory;
     }
 
+    @Transactional(readOnly = true)
     public List<UserRole> GetUserRoles(User user) {
-        return userRoleRepository.findByUser(user.getId());
+        // The user's roles are stored with their businesses: on any shard
+        return shardDirectory.FanOut(() -> userRoleRepository.findByUser(user.getId()));
     }
 
+    @Transactional(readOnly = true)
     public List<UserRole> GetUserRolesByBusiness(Long businessID, User user) {
         // Validate business, user and role
         businessService.GetOneBusiness(businessID, user);
@@ -43,6 +51,7 @@ public class UserRoleService {
         return userRoleRepository.findByBusiness(businessID);
     }
 
+    @Transactional(readOnly = true)
     public UserRole GetOneUserRoleForOther(Long otherUserID, Long businessID, User user) {
         // Validate business, logged user and role
         businessService.GetOneBusiness(businessID, user);
@@ -60,6 +69,7 @@ public class UserRoleService {
         return userRole.get();
     }
 
+    @Transactional(readOnly = true)
     public UserRole GetOneUserRoleForLogged(Long businessID, User user) {
         // Validate business, logged user and role
         businessService.GetOneBusiness(businessID, user);
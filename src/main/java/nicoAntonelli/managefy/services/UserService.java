@@ -1,6 +1,6 @@
 package nicoAntonelli.managefy.services;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import nicoAntonelli.managefy.entities.Business;
 import nicoAntonelli.managefy.entities.User;
 import nicoAntonelli.managefy.entities.UserValidation;
@@ -13,6 +13,7 @@ import nicoAntonelli.managefy.utils.PasswordEncoder;
 import nicoAntonelli.managefy.utils.Validation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,12 +22,14 @@ import java.util.Optional;
 
 @Service
 @Transactional
+@Timed(value = "managefy.service", histogram = true)
 public class UserService {
     private final UserRepository userRepository;
     private final UserValidationRepository userValidationRepository; // Dependency
     private final BusinessService businessService; // Dependency
     private final EmailService emailService; // Dependency
     private final NotificationService notificationService; // Dependency
+    private final ShardDirectory shardDirectory; // Dependency
     private final PasswordEncoder passwordEncoder;
 
     @Autowired
@@ -34,12 +37,14 @@ public class UserService {
                        UserValidationRepository userValidationRepository,
                        BusinessService businessService,
                        EmailService emailService,
-                       NotificationService notificationService) {
+                       NotificationService notificationService,
+                       ShardDirectory shardDirectory) {
         this.userRepository = userRepository;
         this.userValidationRepository = userValidationRepository;
         this.businessService = businessService;
         this.emailService = emailService;
         this.notificationService = notificationService;
+        this.shardDirectory = shardDirectory;
         this.passwordEncoder = PasswordEncoder.getInstance();
     }
 
@@ -94,6 +99,7 @@ public class UserService {
         // Save new user
         User user = new User(email, password, registration.getName());
         user = userRepository.save(user);
+        shardDirectory.ReplicateUser(user.getId()); // Copied to every shard (roles & notifications reference it)
 
         // Generate JWT Token
         String JWT = JWTHelper.generateToken(user.toStringSafe());
@@ -166,6 +172,7 @@ public class UserService {
 
         // Save user
         user = userRepository.save(user);
+        shardDirectory.ReplicateUser(user.getId());
 
         // Notification for update user
         NotificationC notification = new NotificationC("Your user account was updated successfully", "low");
@@ -222,6 +229,7 @@ public class UserService {
         // Update user with validation OK
         user.setValidated(true);
         user = userRepository.save(user);
+        shardDirectory.ReplicateUser(userID);
 
         // Notification user validation sent
         NotificationC notification = new NotificationC("Your user has been correctly verified! You can now start operating with Managefy!", "normal");
@@ -248,6 +256,7 @@ public class UserService {
 
         // Delete user (also notifications by delete cascade)
         userRepository.deleteById(userID);
+        shardDirectory.RemoveUser(userID);
 
         return userID;
     }
@@ -0,0 +1,106 @@
+package nicoAntonelli.managefy.utils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// A business' days compiled to a week bitset (bit 0: Monday) plus prefix tables: counting business days between two
+// dates or moving N business days is arithmetic on epoch days (whole weeks + a table lookup), never a walk over dates.
+// Immutable and shared: there are only 128 weeks, every business with the same days gets the same instance
+public final class BusinessCalendar {
+    public static final List<String> WEEK_DAYS = List.of("Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday");
+
+    // Epoch day of a Monday (1969-12-29): weeks are counted from it
+    private static final long MONDAY = -3;
+
+    private static final BusinessCalendar[] calendars = new BusinessCalendar[128];
+    static {
+        for (int mask = 0; mask < calendars.length; mask++) {
+            calendars[mask] = new BusinessCalendar(mask);
+        }
+    }
+
+    private final int mask;
+    private final int perWeek;
+    private final int[] before = new int[8]; // Business days in the week before that weekday (index 0: Monday)
+    private final int[] nth; // Weekday of the week's n-th business day (0-based)
+
+    private BusinessCalendar(int mask) {
+        // Without any business day every day counts: date math always has days to move through
+        this.mask = mask == 0 ? 0x7F : mask;
+        perWeek = Integer.bitCount(this.mask);
+        nth = new int[perWeek];
+        for (int day = 0, n = 0; day < 7; day++) {
+            boolean open = (this.mask & (1 << day)) != 0;
+            before[day + 1] = before[day] + (open ? 1 : 0);
+            if (open) nth[n++] = day;
+        }
+    }
+
+    // From 'Business.businessDays' (names of 'WEEK_DAYS'): missing days or null values are closed
+    public static BusinessCalendar of(Map<String, Boolean> businessDays) {
+        int mask = 0;
+        if (businessDays != null) {
+            for (int day = 0; day < 7; day++) {
+                if (Boolean.TRUE.equals(businessDays.get(WEEK_DAYS.get(day)))) mask |= 1 << day;
+            }
+        }
+        return calendars[mask];
+    }
+
+    public int businessDaysPerWeek() {
+        return perWeek;
+    }
+
+    public boolean isBusinessDay(LocalDate date) {
+        return isBusinessDay(date.toEpochDay());
+    }
+
+    public boolean isBusinessDay(long epochDay) {
+        return (mask & (1 << Math.floorMod(epochDay - MONDAY, 7))) != 0;
+    }
+
+    // Business days in [from, to): negative when 'to' is before 'from'
+    public int businessDaysBetween(LocalDate from, LocalDate to) {
+        return businessDaysBetween(from.toEpochDay(), to.toEpochDay());
+    }
+
+    public int businessDaysBetween(long fromEpochDay, long toEpochDay) {
+        return (int) (ordinal(toEpochDay) - ordinal(fromEpochDay));
+    }
+
+    // The N-th business day after the date (before it when negative), the date itself when 0
+    public LocalDate plusBusinessDays(LocalDate date, int days) {
+        return LocalDate.ofEpochDay(plusBusinessDays(date.toEpochDay(), days));
+    }
+
+    public long plusBusinessDays(long epochDay, int days) {
+        if (days == 0) return epochDay;
+
+        // 1-based index (from the first week) of the target business day
+        long index = days > 0 ? ordinal(epochDay + 1) + days : ordinal(epochDay) + days + 1;
+        long week = Math.floorDiv(index - 1, perWeek);
+        return MONDAY + week * 7 + nth[Math.floorMod(index - 1, perWeek)];
+    }
+
+    // Bulk: business days from every date to the same one (ages of many sales at once), into 'out'
+    public void businessDaysBetween(long[] fromEpochDays, long toEpochDay, int[] out) {
+        long to = ordinal(toEpochDay);
+        for (int i = 0; i < fromEpochDays.length; i++) {
+            out[i] = (int) (to - ordinal(fromEpochDays[i]));
+        }
+    }
+
+    // Bulk: every date moved the same business days (due dates, bucket limits), into 'out'
+    public void plusBusinessDays(long[] epochDays, int days, long[] out) {
+        for (int i = 0; i < epochDays.length; i++) {
+            out[i] = plusBusinessDays(epochDays[i], days);
+        }
+    }
+
+    // Business days before the epoch day, counted from the first week
+    private long ordinal(long epochDay) {
+        long offset = epochDay - MONDAY;
+        return Math.floorDiv(offset, 7) * perWeek + before[Math.floorMod(offset, 7)];
+    }
+}
@@ -0,0 +1,202 @@
+package nicoAntonelli.managefy.utils;
+
+import java.util.*;
+
+// Lookup over the clients of a business: email & phone (exact or prefix) and name words (prefix), for search-as-you-type
+// Normalized keys: emails trimmed & lowercase, phones only digits, names like products (accents, case, punctuation).
+// Sorted arrays: a prefix is a binary search plus a walk over the matching range
+public final class ClientSearchIndex {
+    // Shorter phones aren't enough to say two clients are the same one
+    private static final int minPhoneDigits = 6;
+
+    private final Long[] ids;
+    private final String[] names; // Normalized
+    private final Keys emails;
+    private final Keys phones;
+    private final Keys words;
+
+    public record Entry(Long id, String name, String email, String phone) { }
+
+    public record Page(long total, List<Long> ids) { }
+
+    // Key -> client position, sorted by key
+    private record Keys(String[] keys, int[] clients) {
+        private static Keys of(List<Map.Entry<String, Integer>> entries) {
+            entries.sort(Map.Entry.comparingByKey());
+            String[] keys = new String[entries.size()];
+            int[] clients = new int[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                keys[i] = entries.get(i).getKey();
+                clients[i] = entries.get(i).getValue();
+            }
+
+            return new Keys(keys, clients);
+        }
+
+        private int lowerBound(String key) {
+            int low = 0, high = keys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(key) < 0) low = middle + 1;
+                else high = middle;
+            }
+
+            return low;
+        }
+
+        private void exact(String key, Collection<Integer> result) {
+            for (int i = lowerBound(key); i < keys.length && keys[i].equals(key); i++) result.add(clients[i]);
+        }
+
+        private void prefix(String prefix, Collection<Integer> result) {
+            for (int i = lowerBound(prefix); i < keys.length && keys[i].startsWith(prefix); i++) result.add(clients[i]);
+        }
+    }
+
+    private ClientSearchIndex(List<Entry> entries) {
+        // Oldest clients first: the one kept when merging duplicates
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(Entry::id));
+
+        int size = sorted.size();
+        ids = new Long[size];
+        names = new String[size];
+
+        List<Map.Entry<String, Integer>> emailEntries = new ArrayList<>();
+        List<Map.Entry<String, Integer>> phoneEntries = new ArrayList<>();
+        List<Map.Entry<String, Integer>> wordEntries = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Entry entry = sorted.get(i);
+            ids[i] = entry.id();
+            names[i] = ProductSearchIndex.normalize(entry.name());
+
+            String email = normalizeEmail(entry.email());
+            if (!email.isEmpty()) emailEntries.add(Map.entry(email, i));
+
+            String phone = normalizePhone(entry.phone());
+            if (!phone.isEmpty()) phoneEntries.add(Map.entry(phone, i));
+
+            for (String word : new HashSet<>(List.of(names[i].split(" ")))) {
+                if (!word.isEmpty()) wordEntries.add(Map.entry(word, i));
+            }
+        }
+
+        emails = Keys.of(emailEntries);
+        phones = Keys.of(phoneEntries);
+        words = Keys.of(wordEntries);
+    }
+
+    public static ClientSearchIndex build(List<Entry> entries) {
+        return new ClientSearchIndex(entries);
+    }
+
+    public static String normalizeEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static String normalizePhone(String phone) {
+        if (phone == null) return "";
+
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') digits.append(c);
+        }
+
+        return digits.toString();
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // Same email or same phone (oldest first)
+    public List<Long> matches(String email, String phone) {
+        Set<Integer> found = new TreeSet<>();
+
+        String normalizedEmail = normalizeEmail(email);
+        if (!normalizedEmail.isEmpty()) emails.exact(normalizedEmail, found);
+
+        String normalizedPhone = normalizePhone(phone);
+        if (normalizedPhone.length() >= minPhoneDigits) phones.exact(normalizedPhone, found);
+
+        return found.stream().map(i -> ids[i]).toList();
+    }
+
+    // With '@': email, only digits (and symbols): phone, otherwise every word prefixing a name word (or the email)
+    public Page search(String query, int limit) {
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.isEmpty() || limit <= 0) return new Page(0, List.of());
+
+        Set<Integer> found = new LinkedHashSet<>();
+        String digits = normalizePhone(trimmed);
+
+        if (trimmed.contains("@")) {
+            String email = normalizeEmail(trimmed);
+            emails.exact(email, found);
+            emails.prefix(email, found);
+        }
+        else if (!digits.isEmpty() && trimmed.chars().noneMatch(Character::isLetter)) {
+            phones.exact(digits, found);
+            phones.prefix(digits, found);
+        }
+        else {
+            String name = ProductSearchIndex.normalize(trimmed);
+            if (name.isEmpty()) return new Page(0, List.of());
+            String[] tokens = name.split(" ");
+
+            // Exact name first, then names with every word, then emails starting with it
+            Set<Integer> byName = new LinkedHashSet<>();
+            words.prefix(tokens[0], byName);
+            byName.stream().filter(i -> names[i].equals(name)).forEach(found::add);
+            byName.stream().filter(i -> containsAll(names[i], tokens)).forEach(found::add);
+            emails.prefix(normalizeEmail(trimmed), found);
+        }
+
+        return new Page(found.size(), found.stream().limit(limit).map(i -> ids[i]).toList());
+    }
+
+    // Clients sharing an email or a phone, transitively (oldest first in every group)
+    public List<List<Long>> duplicateGroups() {
+        int[] parent = new int[ids.length];
+        for (int i = 0; i < parent.length; i++) parent[i] = i;
+
+        unionEqualKeys(emails, parent, 1);
+        unionEqualKeys(phones, parent, minPhoneDigits);
+
+        Map<Integer, List<Long>> groups = new TreeMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            groups.computeIfAbsent(root(parent, i), _ -> new ArrayList<>()).add(ids[i]);
+        }
+
+        return groups.values().stream().filter(group -> group.size() > 1).toList();
+    }
+
+    private static boolean containsAll(String name, String[] tokens) {
+        List<String> nameWords = List.of(name.split(" "));
+        for (String token : tokens) {
+            if (nameWords.stream().noneMatch(word -> word.startsWith(token))) return false;
+        }
+
+        return true;
+    }
+
+    private static void unionEqualKeys(Keys keys, int[] parent, int minLength) {
+        for (int i = 1; i < keys.keys().length; i++) {
+            if (keys.keys()[i].length() < minLength || !keys.keys()[i].equals(keys.keys()[i - 1])) continue;
+
+            int a = root(parent, keys.clients()[i - 1]);
+            int b = root(parent, keys.clients()[i]);
+            if (a != b) parent[Math.max(a, b)] = Math.min(a, b);
+        }
+    }
+
+    private static int root(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+
+        return i;
+    }
+}
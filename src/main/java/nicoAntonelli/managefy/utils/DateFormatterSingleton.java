@@ -3,10 +3,14 @@ package nicoAntonelli.managefy.utils;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.temporal.ChronoField;
+import java.util.concurrent.ConcurrentHashMap;
 
+// Immutable & thread-safe: DateTimeFormatter is immutable, every custom pattern gets its own cached instance
 public final class DateFormatterSingleton {
-    private static DateFormatterSingleton instance;
-    public DateTimeFormatter value;
+    private static final DateFormatterSingleton instance = new DateFormatterSingleton();
+    private static final ConcurrentHashMap<String, DateFormatterSingleton> instancesByPattern = new ConcurrentHashMap<>();
+
+    public final DateTimeFormatter value;
 
     // Default value
     private DateFormatterSingleton() {
@@ -24,15 +28,10 @@ public final class DateFormatterSingleton {
     }
 
     public static DateFormatterSingleton getInstance() {
-        if (instance == null) instance = new DateFormatterSingleton();
         return instance;
     }
 
     public static DateFormatterSingleton getInstance(String value) {
-        if (instance == null) instance = new DateFormatterSingleton(value);
-
-        // Replace unique instance value before return
-        instance.value = DateTimeFormatter.ofPattern(value);
-        return instance;
+        return instancesByPattern.computeIfAbsent(value, DateFormatterSingleton::new);
     }
 }
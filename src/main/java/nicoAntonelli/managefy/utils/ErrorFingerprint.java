@@ -0,0 +1,41 @@
+package nicoAntonelli.managefy.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+public final class ErrorFingerprint {
+    // Variable parts of a description: URLs, quoted values, emails and numbers (IDs, amounts, dates...)
+    private static final Pattern urlRegex = Pattern.compile("https?://\\S+");
+    private static final Pattern quotedRegex = Pattern.compile("'[^']*'");
+    private static final Pattern emailRegex = Pattern.compile("[A-Z0-9._%+-]+@[A-Z0-9.-]+\\.[A-Z]{2,6}", Pattern.CASE_INSENSITIVE);
+    private static final Pattern numberRegex = Pattern.compile("\\d+(?:[.,]\\d+)*");
+
+    private ErrorFingerprint() { }
+
+    // E.g.: "Error at 'GetOneSale' - Sale with ID: 15 doesn't exist" => "Error at '?' - Sale with ID: # doesn't exist"
+    public static String template(String description) {
+        if (description == null) return "";
+
+        String template = urlRegex.matcher(description).replaceAll("<url>");
+        template = quotedRegex.matcher(template).replaceAll("'?'");
+        template = emailRegex.matcher(template).replaceAll("<email>");
+        template = numberRegex.matcher(template).replaceAll("#");
+        return template.strip();
+    }
+
+    public static String of(String origin, String httpCode, String description) {
+        String key = origin + "|" + httpCode + "|" + template(description);
+
+        try {
+            // Digest instances aren't thread-safe, so one per call
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        }
+        catch (NoSuchAlgorithmException ex) {
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+}
@@ -1,92 +1,129 @@
 package nicoAntonelli.managefy.utils;
 
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 public class Exceptions {
-    @Getter @NoArgsConstructor
+    // Expected errors (4xx): they end up as a response, so no stack trace is filled (the expensive part of a throw)
+    // Unexpected ones (5xx) keep it: it's what finding their cause needs
+    @Getter
+    static public abstract class ManagefyException extends RuntimeException {
+        public final String message;
+        public final Exception innerException;
+
+        protected ManagefyException(String message, Exception ex) {
+            this(message, ex, false);
+        }
+
+        protected ManagefyException(String message, Exception ex, boolean stackTrace) {
+            super(message, ex, stackTrace, stackTrace);
+            this.message = message;
+            this.innerException = ex;
+        }
+
+        public abstract String getStatus();
+
+        public abstract HttpStatus getHttpStatus();
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    static public final class BadRequestException extends RuntimeException {
+    static public final class BadRequestException extends ManagefyException {
         static public final String status = "400 (Bad Request)";
-        public String message;
-        public Exception innerException;
+
+        public BadRequestException() {
+            super(null, null);
+        }
 
         public BadRequestException(String message) {
-            this.message = message;
+            super(message, null);
         }
 
         public BadRequestException(String message, Exception ex) {
-            this.message = message;
-            this.innerException = ex;
+            super(message, ex);
         }
 
         public String getStatus() {
             return status;
         }
+
+        public HttpStatus getHttpStatus() {
+            return HttpStatus.BAD_REQUEST;
+        }
     }
 
-    @Getter @NoArgsConstructor
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
-    static public final class UnauthorizedException extends RuntimeException {
+    static public final class UnauthorizedException extends ManagefyException {
         static public final String status = "401 (Unauthorized)";
-        public String message;
-        public Exception innerException;
+
+        public UnauthorizedException() {
+            super(null, null);
+        }
 
         public UnauthorizedException(String message) {
-            this.message = message;
+            super(message, null);
         }
 
         public UnauthorizedException(String message, Exception ex) {
-            this.message = message;
-            this.innerException = ex;
+            super(message, ex);
         }
 
         public String getStatus() {
             return status;
         }
+
+        public HttpStatus getHttpStatus() {
+            return HttpStatus.UNAUTHORIZED;
+        }
     }
 
-    @Getter @NoArgsConstructor
     @ResponseStatus(HttpStatus.NOT_FOUND)
-    static public final class NotFoundException extends RuntimeException {
+    static public final class NotFoundException extends ManagefyException {
         static public final String status = "404 (Not Found)";
-        public String message;
-        public Exception innerException;
+
+        public NotFoundException() {
+            super(null, null);
+        }
 
         public NotFoundException(String message) {
-            this.message = message;
+            super(message, null);
         }
 
         public NotFoundException(String message, Exception ex) {
-            this.message = message;
-            this.innerException = ex;
+            super(message, ex);
         }
 
         public String getStatus() {
             return status;
         }
+
+        public HttpStatus getHttpStatus() {
+            return HttpStatus.NOT_FOUND;
+        }
     }
 
-    @Getter @NoArgsConstructor
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    static public final class InternalServerErrorException extends RuntimeException {
+    static public final class InternalServerErrorException extends ManagefyException {
         static public final String status = "500 (Internal Server Error)";
-        public String message;
-        public Exception innerException;
+
+        public InternalServerErrorException() {
+            super(null, null, true);
+        }
 
         public InternalServerErrorException(String message) {
-            this.message = message;
+            super(message, null, true);
         }
 
         public InternalServerErrorException(String message, Exception ex) {
-            this.message = message;
-            this.innerException = ex;
+            super(message, ex, true);
         }
 
         public String getStatus() {
             return status;
         }
+
+        public HttpStatus getHttpStatus() {
+            return HttpStatus.INTERNAL_SERVER_ERROR;
+        }
     }
 }
@@ -2,19 +2,22 @@ package nicoAntonelli.managefy.utils;
 
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.spec.KeySpec;
 import java.util.Base64;
 
 public final class PasswordEncoder {
-    private static PasswordEncoder instance;
+    // Eager: created once at class loading, safe to share between threads
+    private static final PasswordEncoder instance = new PasswordEncoder();
 
     @SuppressWarnings("SpellCheckingInspection")
-    private final SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1");
+    private static final String algorithm = "PBKDF2WithHmacSHA1";
+    private static final int iterationCount = 65536; // 2^16
+    private static final int hashLength = 256; // 2^8
+
     private final byte[] salt;
 
-    private PasswordEncoder() throws NoSuchAlgorithmException {
+    private PasswordEncoder() {
         // Salt generation
         SecureRandom random = new SecureRandom(new byte[8]);
         byte[] salt = new byte[16];
@@ -23,24 +26,16 @@ public final class PasswordEncoder {
     }
 
     public static PasswordEncoder getInstance() {
-        try {
-            if (instance == null) instance = new PasswordEncoder();
-            return instance;
-        }
-        catch (Exception ex) {
-            return null;
-        }
+        return instance;
     }
 
     public String encode(String password) {
         try {
             // Config spec
-            int iterationCount = 65536; // 2^16
-            int hashLength = 256; // 2^8
             KeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterationCount, hashLength);
 
-            // Encode password
-            byte[] encodedPassword = factory.generateSecret(spec).getEncoded();
+            // Encode password (factories aren't documented as thread-safe, and one per call is negligible next to the hashing)
+            byte[] encodedPassword = SecretKeyFactory.getInstance(algorithm).generateSecret(spec).getEncoded();
 
             // Return as Base64 string
             return Base64.getEncoder().encodeToString(encodedPassword);
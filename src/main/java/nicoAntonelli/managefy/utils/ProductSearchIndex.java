@@ -0,0 +1,266 @@
+package nicoAntonelli.managefy.utils;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+// In-memory search over the products of a business: code prefix, name/code substring (trigrams) and typos (edit distance)
+// Immutable once built. Products are kept ranked (shorter name, then code), so every posting list and every
+// score bucket is already in result order: a search never sorts, it only walks candidates
+public final class ProductSearchIndex {
+    private static final Pattern marks = Pattern.compile("\\p{M}+");
+    private static final Pattern separators = Pattern.compile("[^a-z0-9]+");
+    private static final int[] noPostings = new int[0];
+
+    // Exact matches below this amount: typos are searched too (the same for every page)
+    private static final int fuzzyBelow = 20;
+
+    private final Long[] ids;
+    private final String[] codes; // Normalized
+    private final String[] names; // Normalized
+    private final String[][] words; // Of the name, plus the code
+    private final Map<Long, int[]> postings; // Trigram -> products, ascending
+
+    public record Entry(Long id, String code, String name) { }
+
+    public record Page(long total, boolean fuzzy, List<Long> ids) { }
+
+    private ProductSearchIndex(List<Entry> entries) {
+        List<Entry> ranked = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            ranked.add(new Entry(entry.id(), normalize(entry.code()), normalize(entry.name())));
+        }
+        ranked.sort(Comparator.comparingInt((Entry entry) -> entry.name().length())
+                .thenComparing(Entry::code)
+                .thenComparing(Entry::id));
+
+        int size = ranked.size();
+        ids = new Long[size];
+        codes = new String[size];
+        names = new String[size];
+        words = new String[size][];
+
+        // Two passes (count, then fill): posting lists as plain arrays, without boxing every product
+        long[][] textTrigrams = new long[size][];
+        Map<Long, int[]> counts = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Entry entry = ranked.get(i);
+            ids[i] = entry.id();
+            codes[i] = entry.code();
+            names[i] = entry.name();
+
+            List<String> tokens = new ArrayList<>(List.of(entry.name().split(" ")));
+            tokens.add(entry.code());
+            words[i] = tokens.toArray(String[]::new);
+
+            textTrigrams[i] = trigrams(entry.code() + " " + entry.name());
+            for (long trigram : textTrigrams[i]) counts.computeIfAbsent(trigram, _ -> new int[1])[0]++;
+        }
+
+        postings = new HashMap<>(counts.size() * 2);
+        counts.forEach((trigram, count) -> postings.put(trigram, new int[count[0]]));
+        counts.replaceAll((_, _) -> new int[1]);
+        for (int i = 0; i < size; i++) {
+            for (long trigram : textTrigrams[i]) postings.get(trigram)[counts.get(trigram)[0]++] = i;
+        }
+    }
+
+    public static ProductSearchIndex build(List<Entry> entries) {
+        return new ProductSearchIndex(entries);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // Score tiers: exact code, code prefix, exact name, name prefix, word prefix, name substring, code substring, typos
+    public Page search(String query, int page, int pageSize) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || pageSize <= 0 || page < 0) return new Page(0, false, List.of());
+
+        Buckets buckets = new Buckets();
+        int[] candidates = normalized.length() >= 3 ? intersection(trigrams(normalized)) : null;
+        if (candidates == null) {
+            for (int i = 0; i < ids.length; i++) buckets.add(score(i, normalized), i);
+        }
+        else {
+            for (int i : candidates) buckets.add(score(i, normalized), i);
+        }
+
+        boolean fuzzy = false;
+        if (buckets.total < fuzzyBelow && normalized.length() >= 4) {
+            fuzzy = searchTypos(normalized, buckets);
+        }
+
+        long offset = (long) page * pageSize;
+        return new Page(buckets.total, fuzzy, buckets.page(offset, pageSize, ids));
+    }
+
+    // Accents, case and punctuation don't count: 'Café-Latte' = 'cafe latte'
+    public static String normalize(String text) {
+        if (text == null) return "";
+
+        // ASCII (most codes & names): one pass, without the regular expressions
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 128) return normalizeUnicode(text);
+
+            if (c >= 'A' && c <= 'Z') builder.append((char) (c + 32));
+            else if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) builder.append(c);
+            else if (!builder.isEmpty() && builder.charAt(builder.length() - 1) != ' ') builder.append(' ');
+        }
+        if (!builder.isEmpty() && builder.charAt(builder.length() - 1) == ' ') builder.setLength(builder.length() - 1);
+
+        return builder.toString();
+    }
+
+    private static String normalizeUnicode(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        normalized = marks.matcher(normalized).replaceAll("");
+        normalized = separators.matcher(normalized.toLowerCase(Locale.ROOT)).replaceAll(" ");
+        return normalized.trim();
+    }
+
+    // Levenshtein distance, or 'max + 1' as soon as it's known to be greater than 'max'
+    public static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) return max + 1;
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private int score(int i, String query) {
+        String code = codes[i];
+        String name = names[i];
+
+        if (code.equals(query)) return 9;
+        if (code.startsWith(query)) return 8;
+        if (name.equals(query)) return 7;
+        if (name.startsWith(query)) return 6;
+        if (name.contains(" " + query)) return 5;
+        if (name.contains(query)) return 4;
+        if (code.contains(query)) return 3;
+        return 0;
+    }
+
+    // Candidates sharing enough trigrams with the query (q-gram lemma), then the edit distance against every word
+    private boolean searchTypos(String query, Buckets buckets) {
+        int maxDistance = query.length() <= 5 ? 1 : 2;
+        long[] queryTrigrams = trigrams(query);
+        int threshold = Math.max(1, queryTrigrams.length - 3 * maxDistance);
+
+        int[] shared = new int[ids.length];
+        for (long trigram : queryTrigrams) {
+            for (int i : postings.getOrDefault(trigram, noPostings)) shared[i]++;
+        }
+
+        boolean found = false;
+        for (int i = 0; i < ids.length; i++) {
+            if (shared[i] < threshold || score(i, query) > 0) continue;
+
+            int best = maxDistance + 1;
+            for (String word : words[i]) {
+                best = Math.min(best, distance(query, word, maxDistance));
+                if (best == 0) break;
+            }
+
+            if (best <= maxDistance) {
+                buckets.add(best == 1 ? 2 : 1, i);
+                found = true;
+            }
+        }
+
+        return found;
+    }
+
+    // Rarest trigram first: the intersection only shrinks
+    private int[] intersection(long[] queryTrigrams) {
+        List<int[]> lists = new ArrayList<>();
+        for (long trigram : queryTrigrams) {
+            int[] list = postings.get(trigram);
+            if (list == null) return noPostings;
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+
+        int[] result = lists.getFirst();
+        for (int l = 1; l < lists.size() && result.length > 0; l++) {
+            int[] other = lists.get(l);
+            int[] merged = new int[result.length];
+            int count = 0;
+            for (int a = 0, b = 0; a < result.length && b < other.length; ) {
+                if (result[a] == other[b]) { merged[count++] = result[a]; a++; b++; }
+                else if (result[a] < other[b]) a++;
+                else b++;
+            }
+            result = Arrays.copyOf(merged, count);
+        }
+
+        return result;
+    }
+
+    // Distinct, packed as 3 chars of 16 bits
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) return new long[0];
+
+        long[] result = new long[text.length() - 2];
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            result[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+
+        return Arrays.stream(result).sorted().distinct().toArray();
+    }
+
+    // Products by score (higher first), each one in rank order
+    private static final class Buckets {
+        private final int[][] byScore = new int[10][];
+        private final int[] sizes = new int[10];
+        private long total = 0;
+
+        private void add(int score, int i) {
+            if (score <= 0) return;
+
+            if (byScore[score] == null) byScore[score] = new int[16];
+            if (sizes[score] == byScore[score].length) byScore[score] = Arrays.copyOf(byScore[score], sizes[score] * 2);
+            byScore[score][sizes[score]++] = i;
+            total++;
+        }
+
+        private List<Long> page(long offset, int pageSize, Long[] ids) {
+            List<Long> result = new ArrayList<>(Math.min(pageSize, (int) Math.min(total, Integer.MAX_VALUE)));
+            long skip = offset;
+            for (int score = byScore.length - 1; score > 0 && result.size() < pageSize; score--) {
+                if (skip >= sizes[score]) {
+                    skip -= sizes[score];
+                    continue;
+                }
+
+                for (int k = (int) skip; k < sizes[score] && result.size() < pageSize; k++) {
+                    result.add(ids[byScore[score][k]]);
+                }
+                skip = 0;
+            }
+
+            return result;
+        }
+    }
+}
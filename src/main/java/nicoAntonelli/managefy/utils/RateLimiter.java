@@ -0,0 +1,77 @@
+package nicoAntonelli.managefy.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fixed-window limiter per key, keeping the count of the rejected calls for later aggregation
+// Bounded keys: when full, expired windows are swept (at most once per window) and new keys are refused until there's room
+public final class RateLimiter {
+    public static final long LIMITED = -1; // Counted: added to the key's next permit
+    public static final long REFUSED = -2; // New key while full: no window to count it in
+
+    private static final int defaultMaxKeys = 10000;
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final int permitsPerWindow;
+    private final long windowMillis;
+    private final int maxKeys;
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    private static final class Window {
+        private final long start;
+        private int permits;
+        private long rejected;
+
+        private Window(long start) {
+            this.start = start;
+        }
+    }
+
+    public RateLimiter(int permitsPerWindow, long windowMillis) {
+        this(permitsPerWindow, windowMillis, defaultMaxKeys);
+    }
+
+    public RateLimiter(int permitsPerWindow, long windowMillis, int maxKeys) {
+        this.permitsPerWindow = permitsPerWindow;
+        this.windowMillis = windowMillis;
+        this.maxKeys = maxKeys;
+    }
+
+    // Returns 'LIMITED' or 'REFUSED', otherwise the amount of calls rejected since the last permit (+1 for the current one)
+    public long tryAcquire(String key) {
+        long now = System.currentTimeMillis();
+        if (windows.size() >= maxKeys && !windows.containsKey(key)) {
+            long sweepAt = nextSweep.get();
+            if (now >= sweepAt && nextSweep.compareAndSet(sweepAt, now + windowMillis)) evictExpired(now);
+
+            // Still full of live windows: only concurrent callers can go past the limit (by one key each)
+            if (windows.size() >= maxKeys) return REFUSED;
+        }
+
+        long[] result = new long[1];
+        windows.compute(key, (_, window) -> {
+            if (window == null || now - window.start >= windowMillis) {
+                long rejected = window != null ? window.rejected : 0;
+                window = new Window(now);
+                window.rejected = rejected;
+            }
+
+            if (window.permits >= permitsPerWindow) {
+                window.rejected++;
+                result[0] = LIMITED;
+            } else {
+                window.permits++;
+                result[0] = window.rejected + 1;
+                window.rejected = 0;
+            }
+
+            return window;
+        });
+
+        return result[0];
+    }
+
+    private void evictExpired(long now) {
+        windows.entrySet().removeIf(entry -> now - entry.getValue().start >= windowMillis);
+    }
+}
@@ -0,0 +1,144 @@
+package nicoAntonelli.managefy.utils;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Read-only transactions to the replica, everything else to the primary. Wrapped in a 'LazyConnectionDataSourceProxy':
+// the target is chosen at the first statement, once the transaction is known to be read-only.
+// The replica has replayed every commit up to (last lag check - measured lag), it's used only if that covers:
+// - Lag: not more than the max behind (unknown, down or too far behind: primary for everyone)
+// - Read-your-writes: the last commit with writes of the current user (the one of the request)
+// - Fresh lists: the last change a version-cached read must include ('requireCommittedSince')
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public enum Target { Primary, Replica }
+
+    private static final String userAttribute = ReplicaRoutingDataSource.class.getName() + ".user";
+    private static final ThreadLocal<Long> requiredSince = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> writeTracked = new ThreadLocal<>();
+
+    // User -> epoch millis of the last commit with writes (only the ones the replica may not have yet)
+    private static final Map<Long, Long> lastWrites = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = false;
+
+    private final long maxLagMillis;
+    private volatile long replayedUpTo = 0; // Epoch millis, unknown until the first check
+    private final AtomicLong toPrimary = new AtomicLong();
+    private final AtomicLong toReplica = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long maxLagMillis) {
+        this.maxLagMillis = maxLagMillis;
+        setTargetDataSources(Map.of(Target.Primary, primary, Target.Replica, replica));
+        setDefaultTargetDataSource(primary);
+        enabled = true;
+    }
+
+    // Request of the authenticated user (no request, as in jobs: no read-your-writes needed)
+    public static void setCurrentUser(Long userID) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && userID != null) {
+            attributes.setAttribute(userAttribute, userID, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    // Before the first statement of the transaction, for the rest of it
+    public static void requireCommittedSince(long committedAt) {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        Long current = requiredSince.get();
+        if (current == null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    requiredSince.remove();
+                }
+            });
+        }
+        requiredSince.set(current == null ? committedAt : Math.max(current, committedAt));
+    }
+
+    // Statement inspector: the first write of a transaction marks its user once it commits
+    public static String inspect(String sql) {
+        if (!enabled || writeTracked.get() != null || !isWrite(sql)) return sql;
+
+        Long userID = currentUser();
+        if (userID == null || !TransactionSynchronizationManager.isSynchronizationActive()) return sql;
+
+        writeTracked.set(true);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWrites.put(userID, System.currentTimeMillis());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                writeTracked.remove();
+            }
+        });
+
+        return sql;
+    }
+
+    // Lag check: measured at 'checkedAt' (taken before querying the replica, so it's never optimistic)
+    public void updateLag(long checkedAt, long lagMillis) {
+        long replayed = checkedAt - Math.max(0, lagMillis);
+        replayedUpTo = replayed;
+        lastWrites.values().removeIf(at -> at < replayed);
+    }
+
+    public void replicaDown() {
+        replayedUpTo = 0;
+    }
+
+    public long lagMillis() {
+        return replayedUpTo == 0 ? -1 : Math.max(0, System.currentTimeMillis() - replayedUpTo);
+    }
+
+    public long routedTo(Target target) {
+        return target == Target.Primary ? toPrimary.get() : toReplica.get();
+    }
+
+    public Target route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return Target.Primary;
+
+        long replayed = replayedUpTo;
+        if (System.currentTimeMillis() - replayed > maxLagMillis) return Target.Primary;
+
+        Long since = requiredSince.get();
+        if (since != null && since >= replayed) return Target.Primary;
+
+        Long userID = currentUser();
+        Long lastWrite = userID != null ? lastWrites.get(userID) : null;
+        if (lastWrite != null && lastWrite >= replayed) return Target.Primary;
+
+        return Target.Replica;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Target target = route();
+        (target == Target.Primary ? toPrimary : toReplica).incrementAndGet();
+        return target;
+    }
+
+    private static Long currentUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null ? (Long) attributes.getAttribute(userAttribute, RequestAttributes.SCOPE_REQUEST) : null;
+    }
+
+    private static boolean isWrite(String sql) {
+        int i = 0;
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) i++;
+
+        return sql.regionMatches(true, i, "insert", 0, 6) || sql.regionMatches(true, i, "update", 0, 6)
+                || sql.regionMatches(true, i, "delete", 0, 6) || sql.regionMatches(true, i, "merge", 0, 5);
+    }
+}
@@ -0,0 +1,22 @@
+package nicoAntonelli.managefy.utils;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.resource.jdbc.spi.LogicalConnectionImplementor;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Open-in-view keeps the request's connection between transactions: released, so the next statement takes one again
+// (from the shard bound then) and nothing is held while waiting
+public final class RequestConnection {
+    private RequestConnection() { }
+
+    public static void release(EntityManagerFactory entityManagerFactory) {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+        if (holder == null) return;
+
+        LogicalConnectionImplementor connection = holder.getEntityManager().unwrap(SessionImplementor.class)
+                .getJdbcCoordinator().getLogicalConnection();
+        if (connection.isPhysicallyConnected()) connection.manualDisconnect();
+    }
+}
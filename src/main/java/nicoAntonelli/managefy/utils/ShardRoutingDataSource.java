@@ -0,0 +1,85 @@
+package nicoAntonelli.managefy.utils;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Connections from the shard bound to the current thread (shard 0 when none), see 'ShardDirectory' & 'ShardRoutingAspect'
+// Wrapped in a 'LazyConnectionDataSourceProxy': the binding that counts is the one at the first statement
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    private static final ThreadLocal<Integer> current = new ThreadLocal<>();
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) targets.put(i, shards.get(i));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.getFirst());
+    }
+
+    public int count() {
+        return shards.size();
+    }
+
+    // The pool itself (outside of the routing): directory & reference tables
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    // Bean destruction: every pool closed
+    public void close() throws Exception {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable pool) pool.close();
+        }
+    }
+
+    public static int currentShard() {
+        Integer shard = current.get();
+        return shard != null ? shard : 0;
+    }
+
+    // Returns the previous binding, to restore it afterwards
+    public static Integer bind(Integer shard) {
+        Integer previous = current.get();
+        if (shard == null) current.remove();
+        else current.set(shard);
+
+        return previous;
+    }
+
+    public static <T> T on(int shard, Supplier<T> work) {
+        Integer previous = bind(shard);
+        try {
+            return work.get();
+        }
+        finally {
+            bind(previous);
+        }
+    }
+
+    // Task decorator: background work keeps the shard of the code that submitted it
+    public static Runnable propagate(Runnable task) {
+        Integer shard = current.get();
+        return () -> {
+            Integer previous = bind(shard);
+            try {
+                task.run();
+            }
+            finally {
+                bind(previous);
+            }
+        };
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentShard();
+    }
+}
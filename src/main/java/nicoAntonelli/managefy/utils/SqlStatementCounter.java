@@ -0,0 +1,90 @@
+package nicoAntonelli.managefy.utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+// SQL statements prepared by the current thread between 'begin' and 'end' (one HTTP request)
+// Statements outside a request (jobs, @Async work) aren't counted
+public class SqlStatementCounter implements StatementInspector {
+    private static final ThreadLocal<Tracking> tracking = new ThreadLocal<>();
+
+    private static final Pattern stringLiteral = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern numberLiteral = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern inList = Pattern.compile("\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern spaces = Pattern.compile("\\s+");
+
+    // Statements by SQL text: Hibernate reuses the same string for the same query, fingerprints only when reported
+    private static final class Tracking {
+        private long statements = 0;
+        private final Map<String, Integer> bySql = new HashMap<>();
+    }
+
+    // Duplicates: fingerprints executed more than once, most repeated first
+    public record Report(long statements, LinkedHashMap<String, Integer> duplicates) {
+        public String histogram(int top) {
+            StringBuilder builder = new StringBuilder();
+            duplicates.entrySet().stream().limit(top).forEach(entry ->
+                    builder.append("\n  ").append(entry.getValue()).append("x ").append(entry.getKey()));
+            return builder.toString();
+        }
+    }
+
+    public static void begin() {
+        tracking.set(new Tracking());
+    }
+
+    public static Report end() {
+        Tracking current = tracking.get();
+        tracking.remove();
+        if (current == null) return new Report(0, new LinkedHashMap<>());
+
+        Map<String, Integer> byFingerprint = new HashMap<>();
+        current.bySql.forEach((sql, times) -> byFingerprint.merge(fingerprint(sql), times, Integer::sum));
+
+        LinkedHashMap<String, Integer> duplicates = new LinkedHashMap<>();
+        byFingerprint.entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> duplicates.put(entry.getKey(), entry.getValue()));
+
+        return new Report(current.statements, duplicates);
+    }
+
+    // For tests: statements of a block (outside of requests)
+    public static Report track(Runnable block) {
+        Tracking previous = tracking.get();
+        begin();
+        try {
+            block.run();
+            return end();
+        }
+        finally {
+            if (previous != null) tracking.set(previous);
+            else tracking.remove();
+        }
+    }
+
+    // Same statement with other values = same fingerprint (literals & IN lists collapsed)
+    public static String fingerprint(String sql) {
+        String normalized = sql.toLowerCase(Locale.ROOT);
+        normalized = stringLiteral.matcher(normalized).replaceAll("?");
+        normalized = numberLiteral.matcher(normalized).replaceAll("?");
+        normalized = spaces.matcher(normalized).replaceAll(" ").trim();
+        normalized = inList.matcher(normalized).replaceAll("in (?...)");
+
+        return normalized;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Tracking current = tracking.get();
+        if (current != null) {
+            current.statements++;
+            current.bySql.merge(sql, 1, Integer::sum);
+        }
+
+        return sql;
+    }
+}
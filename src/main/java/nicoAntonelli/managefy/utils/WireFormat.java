@@ -0,0 +1,42 @@
+package nicoAntonelli.managefy.utils;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+// Binary alternative to JSON for high-volume clients (POS terminals): 'Accept: application/cbor', and request bodies
+// with 'Content-Type: application/cbor'. Same fields and names, numbers & decimals binary (no text digits)
+public final class WireFormat {
+    private WireFormat() { }
+
+    // CBOR only when asked for at least as much as JSON: browsers & '*/*' keep getting JSON
+    public static boolean prefersCbor(HttpHeaders headers) {
+        double cbor = 0, json = 0;
+        for (MediaType type : headers.getAccept()) {
+            if (type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) cbor = Math.max(cbor, type.getQualityValue());
+            if (type.equalsTypeAndSubtype(MediaType.APPLICATION_JSON)) json = Math.max(json, type.getQualityValue());
+        }
+
+        return cbor > 0 && cbor >= json;
+    }
+
+    public static MediaType contentType(boolean cbor) {
+        return cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+    }
+
+    // ETag of the representation: the same list in CBOR is other bytes (JSON's one unchanged)
+    public static String eTag(String etag, boolean cbor) {
+        if (!cbor) return etag;
+
+        return etag.substring(0, etag.length() - 1) + "-cbor\"";
+    }
+
+    // Conditional GET: the tag as sent, or weakened by the response compression (Tomcat's gzip turns strong ones weak)
+    public static boolean matches(HttpHeaders headers, String etag) {
+        String strong = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String tag : headers.getIfNoneMatch()) {
+            if (tag.equals(etag) || tag.equals(strong) || tag.equals("W/" + strong)) return true;
+        }
+
+        return false;
+    }
+}
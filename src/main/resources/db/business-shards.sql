@@ -0,0 +1,29 @@
+-- One-off setup (PostgreSQL) of a new, empty business shard: the Nth entry of 'datasource.shards.urls'
+-- Shard 0 stays the current database. On the new one, first its schema, then this script, then the users copy:
+--   pg_dump --schema-only <shard 0> | psql <shard N>
+--   psql <shard N> -v shard=N -f business-shards.sql
+--   psql <shard 0> -c "\copy users TO STDOUT" | psql <shard N> -c "\copy users FROM STDIN"
+-- Then set 'datasource.shards.enabled=true' (the app keeps the users copies in sync afterwards)
+BEGIN;
+
+SELECT set_config('managefy.shard', :'shard', true);
+
+-- Sequences moved to the shard's ID range ('datasource.shards.idRange'), ahead of the allocation size
+DO $$
+DECLARE
+    shard BIGINT := current_setting('managefy.shard')::BIGINT;
+    sequence RECORD;
+BEGIN
+    IF shard < 1 THEN
+        RAISE EXCEPTION 'Shard 0 is the current database, new shards start at 1';
+    END IF;
+    IF EXISTS (SELECT 1 FROM businesses) THEN
+        RAISE EXCEPTION 'Shard % already has businesses', shard;
+    END IF;
+
+    FOR sequence IN SELECT sequence_name FROM information_schema.sequences WHERE sequence_schema = current_schema LOOP
+        EXECUTE format('ALTER SEQUENCE %I RESTART WITH %s', sequence.sequence_name, shard * 1099511627776 + 50);
+    END LOOP;
+END $$;
+
+COMMIT;
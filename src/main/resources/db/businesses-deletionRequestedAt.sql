@@ -0,0 +1,11 @@
+-- One-off migration (PostgreSQL): marks the businesses already being deleted before 'deletion_requested_at' existed
+-- (column added by the schema update), so their deletion is resumed. Detached ones only: link released, no roles left
+BEGIN;
+
+UPDATE businesses b
+SET deletion_requested_at = NOW()
+WHERE b.deletion_requested_at IS NULL
+  AND b.link = 'deleted-' || b.id
+  AND NOT EXISTS (SELECT 1 FROM user_roles ur WHERE ur.businessid = b.id);
+
+COMMIT;
@@ -0,0 +1,5 @@
+-- One-off migration (PostgreSQL), on every shard: the sequencer's position row (tables & indexes added by the schema
+-- update). Created by the first sequencer run otherwise, where concurrent instances could race for it
+INSERT INTO change_event_positions (id, last_sequence)
+VALUES (1, 0)
+ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,44 @@
+-- One-off migration (PostgreSQL): turns 'error_logs' into a table partitioned by month on 'window_start'
+-- Then set 'errorLogs.partitions.enabled=true' so the app keeps creating & dropping monthly partitions
+-- Partition key 'window_start' (deduplication window, always in the month of 'date'): the unique index on
+-- (fingerprint, window_start) must include it. Legacy rows without one get their own date
+BEGIN;
+
+ALTER TABLE error_logs RENAME TO error_logs_legacy;
+ALTER INDEX IF EXISTS error_logs_pkey RENAME TO error_logs_legacy_pkey;
+ALTER INDEX IF EXISTS errorLogs_origin_date_idx RENAME TO errorLogs_legacy_origin_date_idx;
+ALTER INDEX IF EXISTS errorLogs_httpCode_date_idx RENAME TO errorLogs_legacy_httpCode_date_idx;
+ALTER INDEX IF EXISTS errorLogs_date_idx RENAME TO errorLogs_legacy_date_idx;
+ALTER INDEX IF EXISTS errorLogs_fingerprint_window_idx RENAME TO errorLogs_legacy_fingerprint_window_idx;
+
+CREATE TABLE error_logs (LIKE error_logs_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (window_start);
+
+UPDATE error_logs_legacy SET window_start = date WHERE window_start IS NULL;
+ALTER TABLE error_logs ALTER COLUMN window_start SET NOT NULL;
+
+-- Partition key must be part of the primary key
+ALTER TABLE error_logs ADD PRIMARY KEY (id, window_start);
+CREATE INDEX errorLogs_origin_date_idx ON error_logs (origin, date, id);
+CREATE INDEX errorLogs_httpCode_date_idx ON error_logs (http_code, date, id);
+CREATE INDEX errorLogs_date_idx ON error_logs (date, id);
+CREATE UNIQUE INDEX errorLogs_fingerprint_window_idx ON error_logs (fingerprint, window_start);
+
+-- Monthly partitions covering the legacy rows, up to next month
+DO $$
+DECLARE
+    month DATE := date_trunc('month', COALESCE((SELECT MIN(window_start) FROM error_logs_legacy), now()));
+BEGIN
+    WHILE month <= date_trunc('month', now()) + INTERVAL '1 month' LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF error_logs FOR VALUES FROM (%L) TO (%L)',
+                       'error_logs_p' || to_char(month, 'YYYY_MM'), month, month + INTERVAL '1 month');
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+-- Safety net for unexpected dates, it should stay empty
+CREATE TABLE error_logs_default PARTITION OF error_logs DEFAULT;
+
+INSERT INTO error_logs SELECT * FROM error_logs_legacy;
+DROP TABLE error_logs_legacy;
+
+COMMIT;
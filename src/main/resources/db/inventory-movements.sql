@@ -0,0 +1,11 @@
+-- One-off migration (PostgreSQL): opening 'Import' movement for the products saved before the ledger existed (table &
+-- indexes added by the schema update). History only: already compacted, their stock stays the snapshot as it is
+BEGIN;
+
+INSERT INTO inventory_movements (id, type, quantity, date, saleid, compacted, productid, businessid)
+SELECT nextval('inventory_movements_sequence'), 3, p.stock, NOW(), NULL, TRUE, p.id, p.businessid
+FROM products p
+WHERE p.stock <> 0
+  AND NOT EXISTS (SELECT 1 FROM inventory_movements m WHERE m.productid = p.id);
+
+COMMIT;
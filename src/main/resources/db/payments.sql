@@ -0,0 +1,15 @@
+-- One-off migration (PostgreSQL): payments for the sales saved before the ledger existed (table, constraint & indexes
+-- added by the schema update), dated as their sale. 'partial_payment' becomes what each sale was paid, paid ones too
+BEGIN;
+
+-- Sale states by ordinal: 2 PartialPayment, 3 Paid, 4 PaidAndBilled
+UPDATE sales SET partial_payment = total_price WHERE state IN (3, 4);
+
+INSERT INTO payments (id, amount, date, idempotency_key, saleid, businessid)
+SELECT nextval('payments_sequence'), s.partial_payment, s.date, NULL, s.id, s.businessid
+FROM sales s
+WHERE s.state IN (2, 3, 4)
+  AND s.partial_payment > 0
+  AND NOT EXISTS (SELECT 1 FROM payments p WHERE p.saleid = s.id);
+
+COMMIT;
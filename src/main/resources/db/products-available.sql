@@ -0,0 +1,11 @@
+-- One-off migration (PostgreSQL): fills 'available' (current stock: snapshot plus pending movements) for the products
+-- saved before it existed (column added by the schema update). Until then their sales fail the stock check
+BEGIN;
+
+UPDATE products p
+SET available = p.stock + COALESCE((SELECT SUM(m.quantity)
+                                    FROM inventory_movements m
+                                    WHERE m.productid = p.id AND m.compacted = FALSE), 0)
+WHERE p.available IS NULL;
+
+COMMIT;
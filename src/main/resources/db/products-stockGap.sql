@@ -0,0 +1,7 @@
+-- One-off migration (PostgreSQL): fills 'stock_gap' for the products saved before it existed (column & index added
+-- by the schema update), so the reorder report sees them. The app keeps it updated on every save afterwards
+BEGIN;
+
+UPDATE products SET stock_gap = stock - stock_min WHERE stock_min IS NOT NULL AND stock_gap IS NULL;
+
+COMMIT;
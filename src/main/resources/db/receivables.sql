@@ -0,0 +1,13 @@
+-- One-off migration (PostgreSQL): receivables for the unpaid sales (pending or partial payment) saved before they
+-- existed (table & index added by the schema update). The app keeps them in sync on every sale change afterwards
+BEGIN;
+
+-- Sale states by ordinal: 1 PendingPayment, 2 PartialPayment
+INSERT INTO receivables (saleid, date, outstanding, businessid, clientid)
+SELECT s.id, s.date, s.total_price - COALESCE(s.partial_payment, 0), s.businessid, s.clientid
+FROM sales s
+WHERE s.state IN (1, 2)
+  AND s.total_price - COALESCE(s.partial_payment, 0) > 0
+ON CONFLICT (saleid) DO NOTHING;
+
+COMMIT;
@@ -0,0 +1,64 @@
+package nicoAntonelli.managefy.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import nicoAntonelli.managefy.utils.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlMetricsFilterTests {
+    private final SqlStatementCounter inspector = new SqlStatementCounter();
+
+    @Test
+    void strictModeFailsRequestsOverBudget() throws Exception {
+        MockHttpServletResponse response = Filter(true, 3);
+
+        // Body already written & flushed by the handler: replaced, the client never sees the 200
+        assertEquals(500, response.getStatus());
+        assertTrue(response.getContentAsString().contains("SQL budget exceeded"));
+        assertFalse(response.getContentAsString().contains("done"));
+    }
+
+    @Test
+    void strictModeKeepsRequestsInBudget() throws Exception {
+        MockHttpServletResponse response = Filter(true, 2);
+        assertEquals(200, response.getStatus());
+        assertEquals("done", response.getContentAsString());
+    }
+
+    @Test
+    void defaultModeOnlyReports() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MockHttpServletResponse response = Filter(registry, false, 3);
+        assertEquals(200, response.getStatus());
+        assertEquals("done", response.getContentAsString());
+        assertEquals(1, registry.get("managefy.http.sql.overBudget").counter().count());
+    }
+
+    private MockHttpServletResponse Filter(boolean strict, int statements) throws Exception {
+        return Filter(new SimpleMeterRegistry(), strict, statements);
+    }
+
+    // Budget of 2 statements, the handler runs 'statements' and writes its body
+    private MockHttpServletResponse Filter(SimpleMeterRegistry registry, boolean strict, int statements) throws Exception {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("sql.budget.statements", "2")
+                .withProperty("sql.budget.strict", String.valueOf(strict));
+        SqlMetricsFilter filter = new SqlMetricsFilter(registry, new ObjectMapper().findAndRegisterModules(), env);
+
+        FilterChain chain = (_, response) -> {
+            for (int i = 0; i < statements; i++) inspector.inspect("select p1_0.id from products p1_0 where p1_0.id=?");
+            response.getWriter().write("done");
+            response.flushBuffer();
+        };
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products"), response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,77 @@
+package nicoAntonelli.managefy.benchmarks;
+
+import nicoAntonelli.managefy.entities.Business;
+import nicoAntonelli.managefy.utils.BusinessCalendar;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+// Date math over business days for a batch of dates (sales aged up to a year): compiled calendar (bulk) VS walking
+// the dates one day at a time over the 'businessDays' map. Per operation: the whole batch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BusinessCalendarBenchmark {
+    @Param({"10000"})
+    public int dates;
+
+    private SortedMap<String, Boolean> businessDays;
+    private BusinessCalendar calendar;
+    private long today;
+    private long[] epochDays;
+    private int[] ages;
+    private long[] due;
+
+    @Setup
+    public void setup() {
+        businessDays = new Business().getBusinessDays();
+        calendar = BusinessCalendar.of(businessDays);
+        today = LocalDate.of(2024, 6, 14).toEpochDay();
+
+        Random random = new Random(42);
+        epochDays = new long[dates];
+        for (int i = 0; i < dates; i++) {
+            epochDays[i] = today - random.nextInt(365);
+        }
+        ages = new int[dates];
+        due = new long[dates];
+    }
+
+    @Benchmark
+    public int[] agesBulk() {
+        calendar.businessDaysBetween(epochDays, today, ages);
+        return ages;
+    }
+
+    @Benchmark
+    public long[] dueDatesBulk() {
+        calendar.plusBusinessDays(epochDays, 30, due);
+        return due;
+    }
+
+    @Benchmark
+    public int[] agesDayByDay() {
+        for (int i = 0; i < epochDays.length; i++) {
+            int age = 0;
+            for (LocalDate date = LocalDate.ofEpochDay(epochDays[i]); date.toEpochDay() < today; date = date.plusDays(1)) {
+                String day = date.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+                if (Boolean.TRUE.equals(businessDays.get(day))) age++;
+            }
+            ages[i] = age;
+        }
+        return ages;
+    }
+
+    @Benchmark
+    public BusinessCalendar compile() {
+        return BusinessCalendar.of(businessDays);
+    }
+}
@@ -0,0 +1,88 @@
+package nicoAntonelli.managefy.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nicoAntonelli.managefy.entities.Business;
+import nicoAntonelli.managefy.entities.Sale;
+import nicoAntonelli.managefy.entities.SaleLine;
+import nicoAntonelli.managefy.entities.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// Entity hot paths: sale totals, line subtotals, user from JWT subject & business days (JSON column) round-trip
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainBenchmark {
+    @Param({"5", "50"})
+    public int lines;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TypeReference<SortedMap<String, Boolean>> businessDaysType = new TypeReference<>() { };
+
+    private Sale sale;
+    private SaleLine line;
+    private String subject;
+    private SortedMap<String, Boolean> businessDays;
+    private String businessDaysJSON;
+
+    @Setup
+    public void setup() throws Exception {
+        sale = new Sale(1L, null, null, null);
+        List<SaleLine> saleLines = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            saleLines.add(new SaleLine(sale, i + 1, 1 + i % 7, BigDecimal.valueOf(1999 + i, 2),
+                    BigDecimal.valueOf(1200 + i, 2), new BigDecimal("0.95")));
+        }
+        sale.setSaleLines(saleLines);
+
+        line = new SaleLine(sale, 1, 3, new BigDecimal("19.99"), new BigDecimal("12.00"), new BigDecimal("1.10"));
+
+        User user = new User(42L, "someone@managefy.com", null, "Someone", true, false);
+        subject = user.toStringSafe();
+
+        businessDays = new Business().getBusinessDays();
+        businessDaysJSON = mapper.writeValueAsString(businessDays);
+    }
+
+    @Benchmark
+    public BigDecimal saleTotalPrice() {
+        sale.calculateAndSetTotalPrice();
+        return sale.getTotalPrice();
+    }
+
+    @Benchmark
+    public BigDecimal saleLineSubtotal() {
+        line.calculateAndSetSubtotal();
+        return line.getSubtotal();
+    }
+
+    @Benchmark
+    public User userFromJWT() {
+        return User.UserFromJWT(subject);
+    }
+
+    @Benchmark
+    public String businessDaysWrite() throws Exception {
+        return mapper.writeValueAsString(businessDays);
+    }
+
+    @Benchmark
+    public SortedMap<String, Boolean> businessDaysRead() throws Exception {
+        return mapper.readValue(businessDaysJSON, businessDaysType);
+    }
+
+    @Benchmark
+    public SortedMap<String, Boolean> businessDaysRoundTrip() throws Exception {
+        return mapper.readValue(mapper.writeValueAsString(new TreeMap<>(businessDays)), businessDaysType);
+    }
+}
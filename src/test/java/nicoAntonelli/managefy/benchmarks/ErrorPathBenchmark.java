@@ -0,0 +1,68 @@
+package nicoAntonelli.managefy.benchmarks;
+
+import nicoAntonelli.managefy.api.GlobalExceptionHandler;
+import nicoAntonelli.managefy.utils.Exceptions;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+
+// 400-path throughput: per-endpoint catch & rethrow of stack-filled exceptions VS stackless exception + advice mapping
+// Error logging is left out of both paths (same DB cost for each)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+    // Frames between the controller and the throwing service (Spring MVC + AOP proxies add dozens)
+    @Param({"20", "80"})
+    public int depth;
+
+    private static final String message = "Error at 'CreateSale' - Business not supplied";
+    private static final String path = "/api/sales";
+
+    // Previous exception shape: RuntimeException with full stack trace capture
+    private static final class LegacyBadRequestException extends RuntimeException {
+        private LegacyBadRequestException(String message) {
+            super(message);
+        }
+    }
+
+    @Benchmark
+    public Object legacyTryCatchRethrow() {
+        try {
+            try {
+                throwLegacy(depth);
+                return null;
+            } catch (LegacyBadRequestException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+            }
+        } catch (ResponseStatusException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> stacklessWithAdvice() {
+        try {
+            throwStackless(depth);
+            return null;
+        } catch (Exceptions.BadRequestException ex) {
+            return GlobalExceptionHandler.ErrorResponseEntity(ex.getHttpStatus(), ex.getMessage(), path);
+        }
+    }
+
+    private static void throwLegacy(int depth) {
+        if (depth == 0) throw new LegacyBadRequestException(message);
+        throwLegacy(depth - 1);
+    }
+
+    private static void throwStackless(int depth) {
+        if (depth == 0) throw new Exceptions.BadRequestException(message);
+        throwStackless(depth - 1);
+    }
+}
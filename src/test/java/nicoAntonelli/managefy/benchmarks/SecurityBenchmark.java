@@ -0,0 +1,66 @@
+package nicoAntonelli.managefy.benchmarks;
+
+import nicoAntonelli.managefy.entities.User;
+import nicoAntonelli.managefy.utils.JWTHelper;
+import nicoAntonelli.managefy.utils.PasswordEncoder;
+import nicoAntonelli.managefy.utils.Validation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-request auth work (JWT) and per-login/register work (password hashing & validations)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityBenchmark {
+    private String subject;
+    private String token;
+    private PasswordEncoder passwordEncoder;
+
+    @Setup
+    public void setup() {
+        User user = new User(42L, "someone@managefy.com", null, "Someone", true, false);
+        subject = user.toStringSafe();
+        token = JWTHelper.generateToken(subject);
+        passwordEncoder = PasswordEncoder.getInstance();
+    }
+
+    @Benchmark
+    public String jwtGenerate() {
+        return JWTHelper.generateToken(subject);
+    }
+
+    @Benchmark
+    public boolean jwtValidate() {
+        return JWTHelper.validateToken(token);
+    }
+
+    // What 'AuthService.validateToken' does on every request: validate + parse again for the subject
+    @Benchmark
+    public String jwtValidateAndSubject() {
+        if (!JWTHelper.validateToken(token)) return null;
+        return JWTHelper.getSubjectFromToken(token);
+    }
+
+    // Deliberately slow (key stretching): tracked so it doesn't silently get cheaper
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String passwordEncode() {
+        return passwordEncoder.encode("Sup3rSecretPassword");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean validationEmail() {
+        return Validation.email("some.one+tag@managefy-mail.com");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean validationPassword() {
+        return Validation.password("Sup3rSecretPassword");
+    }
+}
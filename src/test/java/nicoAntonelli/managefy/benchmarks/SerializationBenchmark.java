@@ -0,0 +1,64 @@
+package nicoAntonelli.managefy.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import nicoAntonelli.managefy.WireFormatConfig;
+import nicoAntonelli.managefy.entities.Product;
+import nicoAntonelli.managefy.entities.Sale;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON writes of the largest responses (10k products catalog, 10k sales page): plain mapper (reflection, root
+// serializer looked up per write) VS the application's one (Hibernate & Blackbird modules, prefetched writer)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"products", "sales"})
+    public String endpoint;
+
+    @Param({"10000"})
+    public int size;
+
+    private ObjectMapper plain;
+    private ObjectWriter tuned;
+    private List<?> body;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        plain = Jackson2ObjectMapperBuilder.json().build();
+
+        WireFormatConfig config = new WireFormatConfig();
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        mapper.registerModules(config.hibernate6Module(), config.blackbirdModule());
+
+        if (endpoint.equals("products")) {
+            body = WireFormatBenchmark.products(size);
+            tuned = mapper.writerFor(new TypeReference<List<Product>>() { });
+        }
+        else {
+            body = WireFormatBenchmark.sales(size, 3);
+            tuned = mapper.writerFor(new TypeReference<List<Sale>>() { });
+        }
+    }
+
+    @Benchmark
+    public byte[] plainMapper() throws IOException {
+        return plain.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] tunedWriter() throws IOException {
+        return tuned.writeValueAsBytes(body);
+    }
+}
@@ -0,0 +1,104 @@
+package nicoAntonelli.managefy.benchmarks;
+
+import nicoAntonelli.managefy.ManagefyApplication;
+import nicoAntonelli.managefy.entities.Business;
+import nicoAntonelli.managefy.entities.Product;
+import nicoAntonelli.managefy.entities.User;
+import nicoAntonelli.managefy.entities.UserRole;
+import nicoAntonelli.managefy.entities.dto.SaleC;
+import nicoAntonelli.managefy.entities.dto.SaleLineC;
+import nicoAntonelli.managefy.repositories.BusinessRepository;
+import nicoAntonelli.managefy.repositories.ProductRepository;
+import nicoAntonelli.managefy.repositories.UserRepository;
+import nicoAntonelli.managefy.repositories.UserRoleRepository;
+import nicoAntonelli.managefy.services.ProductService;
+import nicoAntonelli.managefy.services.SaleService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// End-to-end service calls (validations, queries, flush & commit) against H2 (profile: 'benchmark')
+// Absolute numbers are H2's, track the trend: the count of statements per call is what moves them
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final int products = 100;
+
+    @Param({"1", "10"})
+    public int linesPerSale;
+
+    private ConfigurableApplicationContext context;
+    private SaleService saleService;
+    private ProductService productService;
+    private User user;
+    private Long businessID;
+    private List<Long> productIDs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(ManagefyApplication.class)
+                .logStartupInfo(false)
+                .run("--spring.profiles.active=benchmark");
+        saleService = context.getBean(SaleService.class);
+        productService = context.getBean(ProductService.class);
+
+        // User without email notifications: no SMTP involved
+        User saved = context.getBean(UserRepository.class).save(new User("bench@managefy.com", "-", "Bench", true, false));
+        user = new User(saved.getId(), saved.getEmail(), null, saved.getName(), true, false);
+
+        businessID = context.getBean(BusinessRepository.class).save(new Business("Bench", "Benchmark business", "bench", false)).getId();
+        context.getBean(UserRoleRepository.class).save(new UserRole(user.getId(), businessID, "manager"));
+
+        // Stock enough for every invocation, no min stock (no notifications)
+        List<Product> batch = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            Product product = new Product("P" + i, "Product " + i, "Benchmark product", new BigDecimal("10.00"),
+                    new BigDecimal("15.00"), 1_000_000_000, null, null);
+            product.setBusinessByID(businessID);
+            batch.add(product);
+        }
+        productIDs = context.getBean(ProductRepository.class).saveAll(batch).stream().map(Product::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createSale() {
+        List<SaleLineC> lines = new ArrayList<>();
+        for (int i = 0; i < linesPerSale; i++) {
+            lines.add(new SaleLineC(1, new BigDecimal("15.00"), new BigDecimal("10.00"), null, nextProduct()));
+        }
+
+        return saleService.CreateSale(new SaleC("Paid", null, null, businessID, null, lines), user);
+    }
+
+    @Benchmark
+    public void updateProductStockByMany() {
+        Map<Long, Integer> amounts = new HashMap<>();
+        for (int i = 0; i < linesPerSale; i++) {
+            amounts.merge(nextProduct(), 1, Integer::sum);
+        }
+
+        productService.UpdateProductStockByMany(amounts, businessID, null, user);
+    }
+
+    private Long nextProduct() {
+        next = (next + 1) % products;
+        return productIDs.get(next);
+    }
+}
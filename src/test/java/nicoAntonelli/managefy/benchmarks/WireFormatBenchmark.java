@@ -0,0 +1,124 @@
+package nicoAntonelli.managefy.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import nicoAntonelli.managefy.entities.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Response bodies of the sync endpoints (products catalog, sales page, clients list) in JSON & CBOR, plain and gzipped
+// (the response compression). Payload sizes are printed once per trial: bytes matter as much as the time here
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+    @Param({"products", "sales", "clients"})
+    public String endpoint;
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private List<?> body;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // Same settings as the application's mapper (the CBOR converter copies it)
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        mapper = format.equals("cbor") ? json.copyWith(new CBORFactory()) : json;
+
+        body = switch (endpoint) {
+            case "products" -> products(1000);
+            case "sales" -> sales(200, 3);
+            default -> clients(1000);
+        };
+
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        System.out.printf("%n%s (%s): %d bytes, gzipped: %d bytes%n", endpoint, format, bytes.length, gzip(bytes).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] serializeGzipped() throws IOException {
+        return gzip(mapper.writeValueAsBytes(body));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Product product = new Product("P" + i, "Product " + i, "Description of the product " + i,
+                    BigDecimal.valueOf(1000 + i, 2), BigDecimal.valueOf(1500 + i, 2), 100 + i % 50, 10, null);
+            product.setId(10_000L + i);
+            Supplier supplier = new Supplier("Supplier " + i % 20, null, "supplier" + i % 20 + "@managefy.com", null);
+            supplier.setId(500L + i % 20);
+            product.setSupplier(supplier);
+            products.add(product);
+        }
+        return products;
+    }
+
+    static List<Sale> sales(int count, int lines) {
+        Business business = new Business("Business", "Benchmark business", "business", false);
+        business.setId(1L);
+        List<Product> products = products(50);
+
+        List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Sale sale = new Sale(100_000L + i, null, Sale.SaleState.Paid, i % 5 == 0 ? "Observation " + i : null);
+            sale.setDate(LocalDateTime.of(2024, 1, 1, 9, 0).plusMinutes(i * 7L));
+            sale.setBusiness(business);
+            if (i % 3 == 0) {
+                Client client = new Client("Client " + i, null, "client" + i + "@managefy.com", "555-" + i);
+                client.setId(2000L + i);
+                sale.setClient(client);
+            }
+
+            List<SaleLine> saleLines = new ArrayList<>();
+            for (int j = 0; j < lines; j++) {
+                Product product = products.get((i + j) % products.size());
+                SaleLine line = new SaleLine(sale, j + 1, 1 + j, product.getUnitPrice(), product.getUnitCost(), null);
+                line.setProduct(product);
+                saleLines.add(line);
+            }
+            sale.setSaleLines(saleLines);
+            sale.calculateAndSetTotalPrice();
+            sale.setPartialPayment(sale.getTotalPrice());
+            sales.add(sale);
+        }
+        return sales;
+    }
+
+    static List<Client> clients(int count) {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Client client = new Client("Client " + i, i % 4 == 0 ? "Frequent client" : null, "client" + i + "@managefy.com", "555-" + i);
+            client.setId(2000L + i);
+            clients.add(client);
+        }
+        return clients;
+    }
+}
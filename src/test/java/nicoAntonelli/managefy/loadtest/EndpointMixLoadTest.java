@@ -0,0 +1,169 @@
+package nicoAntonelli.managefy.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Closed-loop load test replaying a realistic mix of the REST endpoints, with the users of 'DataGenerator'
+// Every worker acts as one generated user over its first business, e.g.: mvn -P loadtest test -Dloadtest.main=...EndpointMixLoadTest
+// Mix: 'endpoint=weight' pairs (loadtest.mix), same seed = same sequence of requests per worker
+public class EndpointMixLoadTest {
+    private static final String endpointHeader = "X-Loadtest-Endpoint";
+    private static final String defaultMix = "products=30,salesIncomplete=10,salesByInterval=10,clients=10,suppliers=5," +
+                                             "businesses=10,notifications=10,oneProduct=5,createSale=10";
+
+    private record Product(long id, String price, String cost, int minAmount) { }
+
+    private record Session(String token, long businessID, List<Product> products) { }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8080");
+        String label = System.getProperty("loadtest.label", "mix");
+        int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+        int seconds = Integer.getInteger("loadtest.durationSeconds", 30);
+        int users = Integer.getInteger("loadtest.users", 10);
+        long userSeed = Long.getLong("loadtest.userSeed", 42L);
+        String password = System.getProperty("loadtest.password", "Generated1");
+        long seed = Long.getLong("loadtest.seed", 1L);
+        String mix = System.getProperty("loadtest.mix", "");
+        if (mix.isBlank()) mix = defaultMix;
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        ObjectMapper mapper = new ObjectMapper();
+
+        // Sessions: login, first business & its products (prices for valid sales)
+        List<Session> sessions = new ArrayList<>();
+        for (int u = 1; u <= users; u++) {
+            String email = "gen" + userSeed + ".user" + u + "@managefy.com";
+            JsonNode token = send(client, mapper, HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(mapper.createObjectNode().put("email", email).put("password", password).toString()))
+                    .build());
+            String accessToken = token.get("accessToken").asText();
+
+            JsonNode businesses = send(client, mapper, get(baseUrl + "/api/businesses", accessToken, null));
+            if (businesses.isEmpty()) continue;
+            long businessID = businesses.get(0).get("id").asLong();
+
+            List<Product> products = new ArrayList<>();
+            for (JsonNode product : send(client, mapper, get(baseUrl + "/api/products/business/" + businessID, accessToken, null))) {
+                int minAmount = product.hasNonNull("saleMinAmount") ? product.get("saleMinAmount").asInt() : 1;
+                products.add(new Product(product.get("id").asLong(), product.get("unitPrice").asText(),
+                        product.get("unitCost").asText(), Math.max(1, minAmount)));
+            }
+
+            sessions.add(new Session(accessToken, businessID, products));
+        }
+        if (sessions.isEmpty()) {
+            throw new IllegalStateException("No sessions: generate the dataset first (generator.run=true) with seed " + userSeed);
+        }
+
+        // Weighted endpoints: cumulative weights
+        List<String> endpoints = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int totalWeight = 0;
+        for (String pair : mix.split(",")) {
+            String[] parts = pair.trim().split("=");
+            totalWeight += Integer.parseInt(parts[1].trim());
+            endpoints.add(parts[0].trim());
+            cumulative.add(totalWeight);
+        }
+        int weights = totalWeight;
+
+        String from = LocalDate.now().minusDays(7).toString();
+        String to = LocalDate.now().toString();
+
+        Random[] randoms = new Random[concurrency];
+        for (int w = 0; w < concurrency; w++) randoms[w] = new Random(seed + w);
+
+        LoadTestHarness.RequestSource source = (worker, _) -> {
+            Random random = randoms[worker];
+            Session session = sessions.get(worker % sessions.size());
+            long businessID = session.businessID();
+
+            int pick = random.nextInt(weights);
+            int index = 0;
+            while (pick >= cumulative.get(index)) index++;
+            String endpoint = endpoints.get(index);
+
+            return switch (endpoint) {
+                case "products" -> get(baseUrl + "/api/products/business/" + businessID, session.token(), endpoint);
+                case "oneProduct" -> session.products().isEmpty()
+                        ? get(baseUrl + "/api/products/business/" + businessID, session.token(), endpoint)
+                        : get(baseUrl + "/api/products/" + randomProduct(session, random).id() + "/business/" + businessID, session.token(), endpoint);
+                case "salesIncomplete" -> get(baseUrl + "/api/sales/business/" + businessID, session.token(), endpoint);
+                case "salesByInterval" -> get(baseUrl + "/api/sales/business/" + businessID + "/interval?from=" + from + "&to=" + to, session.token(), endpoint);
+                case "clients" -> get(baseUrl + "/api/clients/business/" + businessID, session.token(), endpoint);
+                case "suppliers" -> get(baseUrl + "/api/suppliers/business/" + businessID, session.token(), endpoint);
+                case "businesses" -> get(baseUrl + "/api/businesses", session.token(), endpoint);
+                case "notifications" -> get(baseUrl + "/api/notifications", session.token(), endpoint);
+                case "createSale" -> createSale(baseUrl, mapper, session, random, endpoint);
+                default -> throw new IllegalArgumentException("Unknown endpoint in loadtest.mix: " + endpoint);
+            };
+        };
+
+        LoadTestHarness.Result result = LoadTestHarness.run(label, concurrency, Duration.ofSeconds(seconds), source,
+                request -> request.headers().firstValue(endpointHeader).orElse("other"));
+        LoadTestHarness.report(result);
+    }
+
+    private static HttpRequest createSale(String baseUrl, ObjectMapper mapper, Session session, Random random, String endpoint) {
+        var sale = mapper.createObjectNode()
+                .put("state", "Paid")
+                .put("businessID", session.businessID());
+        var lines = sale.putArray("saleLines");
+
+        // Distinct products for every line (min sale amount is checked per product)
+        Set<Long> used = new HashSet<>();
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count && !session.products().isEmpty(); i++) {
+            Product product = randomProduct(session, random);
+            if (!used.add(product.id())) continue;
+
+            lines.addObject()
+                    .put("amount", product.minAmount())
+                    .put("price", product.price())
+                    .put("cost", product.cost())
+                    .put("productID", product.id());
+        }
+
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/sales"))
+                .header("Authorization", "Bearer " + session.token())
+                .header("Content-Type", "application/json")
+                .header(endpointHeader, endpoint)
+                .POST(HttpRequest.BodyPublishers.ofString(sale.toString()))
+                .build();
+    }
+
+    private static Product randomProduct(Session session, Random random) {
+        return session.products().get(random.nextInt(session.products().size()));
+    }
+
+    private static HttpRequest get(String url, String token, String endpoint) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .GET();
+        if (endpoint != null) builder.header(endpointHeader, endpoint);
+        return builder.build();
+    }
+
+    private static JsonNode send(HttpClient client, ObjectMapper mapper, HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " answered " + response.statusCode() + ": " + response.body());
+        }
+
+        return mapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,187 @@
+package nicoAntonelli.managefy.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Closed-loop load test: N workers, each sends its next request only after the previous one answered
+// Compare modes by running it against the app started with 'spring.threads.virtual.enabled' false & true
+// (same 'spring.datasource.hikari.maximum-pool-size'), e.g.: mvn -P loadtest test -Dloadtest.label=virtual
+public class LoadTestHarness {
+    // Endpoints: breakdown by 'EndpointClassifier' (empty without it)
+    public record Result(String label, int concurrency, long requests, long errors, double seconds,
+                         double throughput, double p50Millis, double p90Millis, double p99Millis, double maxMillis,
+                         List<Result> endpoints) {
+        public String toJson() {
+            String json = String.format(Locale.ROOT,
+                    "{\"label\":\"%s\",\"concurrency\":%d,\"requests\":%d,\"errors\":%d,\"seconds\":%.2f," +
+                    "\"throughput\":%.2f,\"p50Millis\":%.3f,\"p90Millis\":%.3f,\"p99Millis\":%.3f,\"maxMillis\":%.3f",
+                    label, concurrency, requests, errors, seconds, throughput, p50Millis, p90Millis, p99Millis, maxMillis);
+            if (endpoints.isEmpty()) return json + "}";
+
+            return json + endpoints.stream().map(Result::toJson).collect(Collectors.joining(",", ",\"endpoints\":[", "]}"));
+        }
+    }
+
+    // Next request for a worker (the default one cycles through fixed GET paths)
+    public interface RequestSource {
+        HttpRequest next(int worker, long iteration);
+    }
+
+    // Endpoint name of a request, for the per-endpoint breakdown
+    public interface EndpointClassifier {
+        String endpoint(HttpRequest request);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8080");
+        String token = System.getProperty("loadtest.token", "");
+        String label = System.getProperty("loadtest.label", "run");
+        int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+        int seconds = Integer.getInteger("loadtest.durationSeconds", 30);
+        String[] paths = System.getProperty("loadtest.paths", "/api").split(",");
+
+        RequestSource source = (worker, iteration) -> {
+            String path = paths[(int) ((worker + iteration) % paths.length)].trim();
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+            if (!token.isBlank()) builder.header("Authorization", "Bearer " + token);
+            return builder.build();
+        };
+
+        Result result = run(label, concurrency, Duration.ofSeconds(seconds), source);
+        report(result);
+    }
+
+    public static Result run(String label, int concurrency, Duration duration, RequestSource source) throws InterruptedException {
+        return run(label, concurrency, duration, source, null);
+    }
+
+    public static Result run(String label, int concurrency, Duration duration, RequestSource source,
+                             EndpointClassifier classifier) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latenciesPerWorker = new ArrayList<>();
+        List<String[]> endpointsPerWorker = new ArrayList<>();
+        List<boolean[]> failuresPerWorker = new ArrayList<>();
+        int[] counts = new int[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            latenciesPerWorker.add(new long[1024]);
+            endpointsPerWorker.add(new String[1024]);
+            failuresPerWorker.add(new boolean[1024]);
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        // Workers: one virtual thread each, no shared state while measuring
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                int worker = w;
+                workers.submit(() -> {
+                    long iteration = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = source.next(worker, iteration++);
+                        long sent = System.nanoTime();
+                        boolean failed = false;
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            failed = response.statusCode() >= 500;
+                        } catch (IOException ex) {
+                            failed = true;
+                        } catch (InterruptedException ex) {
+                            return;
+                        }
+                        if (failed) errors.incrementAndGet();
+
+                        long[] latencies = latenciesPerWorker.get(worker);
+                        String[] endpoints = endpointsPerWorker.get(worker);
+                        boolean[] failures = failuresPerWorker.get(worker);
+                        if (counts[worker] == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+                            endpoints = Arrays.copyOf(endpoints, endpoints.length * 2);
+                            failures = Arrays.copyOf(failures, failures.length * 2);
+                            latenciesPerWorker.set(worker, latencies);
+                            endpointsPerWorker.set(worker, endpoints);
+                            failuresPerWorker.set(worker, failures);
+                        }
+                        endpoints[counts[worker]] = classifier != null ? classifier.endpoint(request) : null;
+                        failures[counts[worker]] = failed;
+                        latencies[counts[worker]++] = System.nanoTime() - sent;
+                    }
+                });
+            }
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int w = 0; w < concurrency; w++) {
+            System.arraycopy(latenciesPerWorker.get(w), 0, all, offset, counts[w]);
+            offset += counts[w];
+        }
+
+        // Per endpoint: latencies & errors grouped by name (sorted by name)
+        Map<String, List<Long>> latenciesByEndpoint = new TreeMap<>();
+        Map<String, Long> errorsByEndpoint = new TreeMap<>();
+        if (classifier != null) {
+            for (int w = 0; w < concurrency; w++) {
+                for (int i = 0; i < counts[w]; i++) {
+                    String endpoint = endpointsPerWorker.get(w)[i];
+                    latenciesByEndpoint.computeIfAbsent(endpoint, _ -> new ArrayList<>()).add(latenciesPerWorker.get(w)[i]);
+                    if (failuresPerWorker.get(w)[i]) errorsByEndpoint.merge(endpoint, 1L, Long::sum);
+                }
+            }
+        }
+
+        List<Result> endpoints = new ArrayList<>();
+        latenciesByEndpoint.forEach((endpoint, latencies) -> endpoints.add(
+                summary(endpoint, concurrency, latencies.stream().mapToLong(Long::longValue).toArray(),
+                        errorsByEndpoint.getOrDefault(endpoint, 0L), elapsed, List.of())));
+
+        return summary(label, concurrency, all, errors.get(), elapsed, endpoints);
+    }
+
+    private static Result summary(String label, int concurrency, long[] latencies, long errors, double elapsed, List<Result> endpoints) {
+        Arrays.sort(latencies);
+        int total = latencies.length;
+
+        return new Result(label, concurrency, total, errors, elapsed, total / elapsed,
+                          percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                          total > 0 ? latencies[total - 1] / 1e6 : 0, endpoints);
+    }
+
+    public static void report(Result result) throws IOException {
+        System.out.println(result.toJson());
+
+        Path output = Path.of("target", "loadtest-" + result.label() + ".json");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, result.toJson());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,155 @@
+package nicoAntonelli.managefy.services;
+
+import nicoAntonelli.managefy.entities.Business;
+import nicoAntonelli.managefy.entities.ChangeEvent;
+import nicoAntonelli.managefy.entities.User;
+import nicoAntonelli.managefy.entities.dto.ChangeFeed;
+import nicoAntonelli.managefy.repositories.BusinessRepository;
+import nicoAntonelli.managefy.repositories.ChangeEventRepository;
+import nicoAntonelli.managefy.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sequencing against the in-memory database (benchmark profile): commit order, resuming & the guarded update
+// Events saved directly (no trigger after their commit) and the sweep run by hand: every batch is the test's own
+@SpringBootTest(properties = "changeEvents.sequencerMillis=3600000")
+@ActiveProfiles("benchmark")
+class ChangeEventServiceTests {
+    @Autowired
+    private ChangeEventService changeEventService;
+    @Autowired
+    private ChangeEventRepository changeEventRepository;
+    @Autowired
+    private BusinessRepository businessRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserRoleService userRoleService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private User user;
+    private Long businessID;
+
+    @BeforeEach
+    void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        long seed = System.nanoTime();
+        user = userRepository.save(new User("events" + seed + "@managefy.com", "password", "Events", true, false));
+        Business business = businessRepository.save(new Business("Events", "Change events", "events-" + seed, false));
+        businessID = business.getId();
+        userRoleService.CreateUserRoleForNewBusiness(user.getId(), businessID);
+    }
+
+    @Test
+    void sequencesInCommitOrder() throws Exception {
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            // Lower ID, committed last
+            Future<Long> slow = executor.submit(() -> transactionTemplate.execute(_ -> {
+                Long id = Save(1L);
+                recorded.countDown();
+                Await(commit);
+                return id;
+            }));
+            assertTrue(recorded.await(10, TimeUnit.SECONDS));
+
+            Long fast = Save(2L);
+            changeEventService.SequenceEvents();
+            Long fastSequence = changeEventRepository.findById(fast).orElseThrow().getSequence();
+            assertNotNull(fastSequence);
+
+            commit.countDown();
+            Long slowID = slow.get(10, TimeUnit.SECONDS);
+            changeEventService.SequenceEvents();
+            Long slowSequence = changeEventRepository.findById(slowID).orElseThrow().getSequence();
+
+            assertTrue(slowID < fast);
+            assertTrue(slowSequence > fastSequence);
+        }
+
+        // Read in sequence order: the later commit last, although its ID is lower
+        List<Long> entities = Feed(0L, 10).getEvents().stream().map(ChangeEvent::getEntityID).toList();
+        assertEquals(List.of(2L, 1L), entities);
+    }
+
+    @Test
+    void resumesAfterTheLastSequenceSeen() {
+        for (long i = 1; i <= 5; i++) {
+            Save(i);
+        }
+        changeEventService.SequenceEvents();
+
+        ChangeFeed first = Feed(0L, 2);
+        assertTrue(first.getMore());
+        assertEquals(first.getEvents().getLast().getSequence(), first.getNext());
+
+        List<Long> entities = new ArrayList<>(first.getEvents().stream().map(ChangeEvent::getEntityID).toList());
+        ChangeFeed rest = Feed(first.getNext(), 10);
+        assertFalse(rest.getMore());
+        rest.getEvents().forEach(event -> entities.add(event.getEntityID()));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), entities);
+
+        // Nothing after the last one: same position back
+        ChangeFeed empty = Feed(rest.getNext(), 10);
+        assertTrue(empty.getEvents().isEmpty());
+        assertEquals(rest.getNext(), empty.getNext());
+    }
+
+    @Test
+    void updateSkipsEventsAlreadySequenced() {
+        Long first = Save(1L);
+        changeEventService.SequenceEvents();
+        Long second = Save(2L);
+
+        // Another sequencer got the first one: fewer rows than IDs (the batch is rolled back by the caller)
+        Integer updated = transactionTemplate.execute(_ -> changeEventRepository.updateSequences(1000L, first, List.of(first, second)));
+        assertEquals(1, updated);
+
+        Long sequence = changeEventRepository.findById(second).orElseThrow().getSequence();
+        assertEquals(1000L + second - first + 1, sequence);
+    }
+
+    // Committed with the caller's transaction (its own without one)
+    private Long Save(Long entityID) {
+        return changeEventRepository.save(new ChangeEvent(ChangeEvent.EntityType.Product, ChangeEvent.Action.Created,
+                entityID, new byte[] { 1 }, businessID)).getId();
+    }
+
+    private ChangeFeed Feed(Long after, Integer limit) {
+        try {
+            return changeEventService.GetEvents(businessID, after, limit, 0L, user).get(10, TimeUnit.SECONDS);
+        }
+        catch (Exception ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private static void Await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+        catch (InterruptedException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+}
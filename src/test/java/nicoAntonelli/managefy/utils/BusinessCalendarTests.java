@@ -0,0 +1,89 @@
+package nicoAntonelli.managefy.utils;
+
+import nicoAntonelli.managefy.entities.Business;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusinessCalendarTests {
+    @Test
+    void compilesBusinessDays() {
+        // Default business days: Monday to Friday
+        BusinessCalendar calendar = BusinessCalendar.of(new Business().getBusinessDays());
+        assertEquals(5, calendar.businessDaysPerWeek());
+        assertTrue(calendar.isBusinessDay(LocalDate.of(2024, 1, 5))); // Friday
+        assertFalse(calendar.isBusinessDay(LocalDate.of(2024, 1, 6))); // Saturday
+        assertEquals(LocalDate.of(2024, 1, 8), calendar.plusBusinessDays(LocalDate.of(2024, 1, 5), 1));
+        assertEquals(LocalDate.of(2024, 1, 5), calendar.plusBusinessDays(LocalDate.of(2024, 1, 7), -1));
+        assertEquals(10, calendar.businessDaysBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15)));
+
+        // Same days, same instance. Without any business day every day counts
+        assertSame(calendar, BusinessCalendar.of(new TreeMap<>(new Business().getBusinessDays())));
+        assertEquals(7, BusinessCalendar.of(Map.of("Monday", false)).businessDaysPerWeek());
+    }
+
+    @Test
+    void matchesDayByDayWalk() {
+        Random random = new Random(42);
+        for (int mask = 0; mask < 128; mask++) {
+            Map<String, Boolean> days = new TreeMap<>();
+            for (int day = 0; day < 7; day++) {
+                days.put(BusinessCalendar.WEEK_DAYS.get(day), (mask & (1 << day)) != 0);
+            }
+            BusinessCalendar calendar = BusinessCalendar.of(days);
+
+            for (int i = 0; i < 50; i++) {
+                LocalDate from = LocalDate.of(1965, 1, 1).plusDays(random.nextInt(30000));
+                LocalDate to = from.plusDays(random.nextInt(200) - 100);
+                assertEquals(Walk(calendar, from, to), calendar.businessDaysBetween(from, to));
+
+                int moved = random.nextInt(121) - 60;
+                LocalDate target = calendar.plusBusinessDays(from, moved);
+                assertTrue(moved == 0 || calendar.isBusinessDay(target));
+                assertEquals(moved, moved >= 0 ? Walk(calendar, from.plusDays(1), target.plusDays(1))
+                                               : -Walk(calendar, target, from));
+            }
+        }
+    }
+
+    @Test
+    void bulkMatchesSingleQueries() {
+        BusinessCalendar calendar = BusinessCalendar.of(new Business().getBusinessDays());
+        long today = LocalDate.of(2024, 6, 14).toEpochDay();
+        long[] dates = new long[1000];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = today - i;
+        }
+
+        int[] ages = new int[dates.length];
+        long[] due = new long[dates.length];
+        calendar.businessDaysBetween(dates, today, ages);
+        calendar.plusBusinessDays(dates, 30, due);
+        for (int i = 0; i < dates.length; i++) {
+            assertEquals(calendar.businessDaysBetween(dates[i], today), ages[i]);
+            assertEquals(calendar.plusBusinessDays(dates[i], 30), due[i]);
+        }
+    }
+
+    // Business days in [from, to), one date at a time
+    private static int Walk(BusinessCalendar calendar, LocalDate from, LocalDate to) {
+        int sign = 1;
+        if (to.isBefore(from)) {
+            LocalDate swap = from;
+            from = to;
+            to = swap;
+            sign = -1;
+        }
+
+        int count = 0;
+        for (LocalDate date = from; date.isBefore(to); date = date.plusDays(1)) {
+            if (calendar.isBusinessDay(date)) count++;
+        }
+        return sign * count;
+    }
+}
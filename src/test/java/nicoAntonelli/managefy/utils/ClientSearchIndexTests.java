@@ -0,0 +1,42 @@
+package nicoAntonelli.managefy.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientSearchIndexTests {
+    private final ClientSearchIndex index = ClientSearchIndex.build(List.of(
+            new ClientSearchIndex.Entry(4L, "Ana Pérez", "ANA@mail.com ", "(341) 555-1234"),
+            new ClientSearchIndex.Entry(1L, "Ana Perez", "ana@mail.com", null),
+            new ClientSearchIndex.Entry(2L, "Juan Gomez", "juan@mail.com", "3415551234"),
+            new ClientSearchIndex.Entry(3L, "Anabel Ruiz", "bel@mail.com", "123"),
+            new ClientSearchIndex.Entry(5L, "Carlos", null, "123")
+    ));
+
+    @Test
+    void searchesByEmailPhoneOrName() {
+        assertEquals(List.of(1L, 4L), index.search("Ana@Mail", 10).ids());
+        assertEquals(List.of(2L, 4L), index.search("341-555", 10).ids());
+        // Exact name first, then every word as a prefix
+        assertEquals(List.of(1L, 4L, 3L), index.search("ana", 10).ids());
+        assertEquals(List.of(1L, 4L), index.search("ana perez", 10).ids());
+
+        ClientSearchIndex.Page limited = index.search("an", 1);
+        assertEquals(3, limited.total());
+        assertEquals(1, limited.ids().size());
+        assertTrue(index.search("?!", 10).ids().isEmpty());
+    }
+
+    @Test
+    void matchesAndGroupsDuplicatesOldestFirst() {
+        assertEquals(List.of(1L, 4L), index.matches(" ana@MAIL.com", null));
+        assertEquals(List.of(2L, 4L), index.matches(null, "341 5551234"));
+        // Short phones aren't enough
+        assertTrue(index.matches(null, "123").isEmpty());
+
+        // 1 & 4 by email, 4 & 2 by phone
+        assertEquals(List.of(List.of(1L, 2L, 4L)), index.duplicateGroups());
+    }
+}
@@ -0,0 +1,66 @@
+package nicoAntonelli.managefy.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateFormatterSingletonTests {
+    private static final int threads = 32;
+    private static final int iterations = 2000;
+
+    @Test
+    void intervalParsingFromManyThreads() throws Exception {
+        DateFormatterSingleton dateFormatterSingleton = DateFormatterSingleton.getInstance();
+        CyclicBarrier start = new CyclicBarrier(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int parsed = 0;
+
+                    for (int i = 0; i < iterations; i++) {
+                        // Half of the threads keep asking for custom patterns (it used to replace the shared formatter)
+                        if (thread % 2 == 0) {
+                            DateFormatterSingleton custom = DateFormatterSingleton.getInstance("dd/MM/yyyy HH:mm");
+                            assertEquals(LocalDateTime.of(2024, 5, 1, 10, 30), LocalDateTime.parse("01/05/2024 10:30", custom.value));
+                        }
+
+                        // Same parsing as 'GetSalesByInterval' & 'ErrorLogService'
+                        int day = 1 + (i + thread) % 28;
+                        LocalDateTime startDate = LocalDateTime.parse(String.format("2024-02-%02d", day), dateFormatterSingleton.value);
+                        LocalDateTime endDate = LocalDateTime.parse(String.format("2024-02-%02d 23:59:59", day), dateFormatterSingleton.value);
+
+                        assertEquals(LocalDateTime.of(2024, 2, day, 0, 0), startDate);
+                        assertEquals(LocalDateTime.of(2024, 2, day, 23, 59, 59), endDate);
+                        parsed++;
+                    }
+
+                    return parsed;
+                }));
+            }
+
+            for (Future<Integer> result : results) {
+                assertEquals(iterations, result.get(60, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Test
+    void instancesAreSharedAndIsolated() {
+        assertSame(DateFormatterSingleton.getInstance(), DateFormatterSingleton.getInstance());
+        assertSame(DateFormatterSingleton.getInstance("yyyy"), DateFormatterSingleton.getInstance("yyyy"));
+
+        // A custom pattern never changes the default instance
+        DateFormatterSingleton.getInstance("dd/MM/yyyy");
+        assertNotSame(DateFormatterSingleton.getInstance(), DateFormatterSingleton.getInstance("dd/MM/yyyy"));
+        assertEquals(LocalDateTime.of(2024, 1, 31, 0, 0), LocalDateTime.parse("2024-01-31", DateFormatterSingleton.getInstance().value));
+    }
+}
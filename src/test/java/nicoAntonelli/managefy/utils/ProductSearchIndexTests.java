@@ -0,0 +1,61 @@
+package nicoAntonelli.managefy.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTests {
+    private final ProductSearchIndex index = ProductSearchIndex.build(List.of(
+            new ProductSearchIndex.Entry(1L, "P001", "Café Latte"),
+            new ProductSearchIndex.Entry(2L, "P002", "Latte macchiato"),
+            new ProductSearchIndex.Entry(3L, "LAT-9", "Chocolate"),
+            new ProductSearchIndex.Entry(4L, "P004", "Chocolate cake"),
+            new ProductSearchIndex.Entry(5L, "P005", "Orange juice")
+    ));
+
+    @Test
+    void ranksCodeThenNameMatches() {
+        // Code prefix, name prefix, word prefix, then substring
+        assertEquals(List.of(3L, 2L, 1L, 4L), index.search("lat", 0, 10).ids());
+        // Same tier: shorter names first
+        assertEquals(List.of(1L, 5L, 4L, 2L), index.search("p00", 0, 10).ids());
+        assertEquals(List.of(1L), index.search("CAFE-latte", 0, 10).ids());
+
+        // Pages over the same ranking
+        ProductSearchIndex.Page second = index.search("choc", 1, 1);
+        assertEquals(2, second.total());
+        assertEquals(List.of(4L), second.ids());
+    }
+
+    @Test
+    void toleratesTyposOnlyWithoutEnoughExactMatches() {
+        ProductSearchIndex.Page page = index.search("chocolat", 0, 10);
+        assertFalse(page.ids().isEmpty());
+        assertEquals(3L, page.ids().getFirst());
+
+        page = index.search("oragne", 0, 10);
+        assertTrue(page.fuzzy());
+        assertEquals(List.of(5L), page.ids());
+
+        assertEquals(0, index.search("xyzzy", 0, 10).total());
+        assertEquals(2, ProductSearchIndex.distance("oragne", "orange", 2));
+        assertEquals(2, ProductSearchIndex.distance("abc", "xyzabc", 1));
+    }
+
+    @Test
+    void searchesLargeCatalogs() {
+        List<ProductSearchIndex.Entry> entries = new ArrayList<>();
+        for (long i = 1; i <= 100_000; i++) {
+            entries.add(new ProductSearchIndex.Entry(i, String.format("P%06d", i), "Product " + i + " model " + (i % 97)));
+        }
+        ProductSearchIndex large = ProductSearchIndex.build(entries);
+
+        assertEquals(12345L, large.search("P012345", 0, 10).ids().getFirst());
+        assertEquals(10_000, large.search("p01", 0, 20).total());
+        assertEquals(20, large.search("model 42", 0, 20).ids().size());
+        assertTrue(large.search("prodcut", 0, 20).fuzzy());
+    }
+}
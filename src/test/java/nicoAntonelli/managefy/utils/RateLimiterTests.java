@@ -0,0 +1,32 @@
+package nicoAntonelli.managefy.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTests {
+    @Test
+    void limitsByKeyAndCountsRejected() {
+        RateLimiter limiter = new RateLimiter(2, 60000);
+        assertEquals(1, limiter.tryAcquire("a"));
+        assertEquals(1, limiter.tryAcquire("a"));
+        assertEquals(-1, limiter.tryAcquire("a"));
+        assertEquals(-1, limiter.tryAcquire("a"));
+        assertEquals(1, limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void refusesNewKeysWhenFull() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(10, 100, 2);
+        assertEquals(1, limiter.tryAcquire("a"));
+        assertEquals(1, limiter.tryAcquire("b"));
+
+        // Live windows: a new key is refused, the known ones aren't
+        assertEquals(RateLimiter.REFUSED, limiter.tryAcquire("c"));
+        assertEquals(1, limiter.tryAcquire("a"));
+
+        // Expired windows are swept: room again
+        Thread.sleep(150);
+        assertEquals(1, limiter.tryAcquire("c"));
+    }
+}
@@ -0,0 +1,92 @@
+package nicoAntonelli.managefy.utils;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTests {
+    private final ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(database("primary"), database("replica"), 2000);
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readWrite;
+    private final TransactionTemplate readOnly;
+
+    ReplicaRoutingDataSourceTests() {
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyToReplicaOnlyWithinMaxLag() {
+        // Lag unknown until the first check
+        assertEquals("primary", target(readOnly));
+
+        routing.updateLag(System.currentTimeMillis(), 0);
+        assertEquals("replica", target(readOnly));
+        assertEquals("primary", target(readWrite));
+
+        routing.updateLag(System.currentTimeMillis(), 5000);
+        assertEquals("primary", target(readOnly));
+
+        routing.replicaDown();
+        assertEquals("primary", target(readOnly));
+    }
+
+    @Test
+    void freshReadsAndOwnWritesGoToPrimaryUntilReplayed() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        ReplicaRoutingDataSource.setCurrentUser(7L);
+        routing.updateLag(System.currentTimeMillis() - 100, 0);
+
+        // Reader needing a change the replica may not have
+        assertEquals("primary", readOnly.execute(_ -> {
+            ReplicaRoutingDataSource.requireCommittedSince(System.currentTimeMillis());
+            return jdbcTemplate.queryForObject("SELECT name FROM target", String.class);
+        }));
+        assertEquals("replica", target(readOnly));
+
+        // The user's own write: primary until the replica replays it
+        readWrite.executeWithoutResult(_ -> ReplicaRoutingDataSource.inspect("update target set name = name"));
+        assertEquals("primary", target(readOnly));
+
+        routing.updateLag(System.currentTimeMillis() + 1, 0);
+        assertEquals("replica", target(readOnly));
+        assertTrue(routing.routedTo(ReplicaRoutingDataSource.Target.Replica) >= 2);
+    }
+
+    private String target(TransactionTemplate template) {
+        return template.execute(_ -> jdbcTemplate.queryForObject("SELECT name FROM target", String.class));
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS target (name VARCHAR(20))");
+        jdbcTemplate.execute("DELETE FROM target");
+        jdbcTemplate.update("INSERT INTO target VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,89 @@
+package nicoAntonelli.managefy.utils;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRoutingDataSourceTests {
+    private final ShardRoutingDataSource routing = new ShardRoutingDataSource(List.of(database(0), database(1), database(2)));
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    ShardRoutingDataSourceTests() {
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void unbind() {
+        ShardRoutingDataSource.bind(null);
+    }
+
+    @Test
+    void boundShardOrShardZero() {
+        assertEquals(3, routing.count());
+        assertEquals("shard0", target());
+
+        assertEquals("shard2", ShardRoutingDataSource.on(2, this::target));
+        assertEquals("shard1", ShardRoutingDataSource.on(1, () -> {
+            // Nested bindings restore the outer one
+            assertEquals("shard2", ShardRoutingDataSource.on(2, this::target));
+            return target();
+        }));
+        assertEquals(0, ShardRoutingDataSource.currentShard());
+        assertEquals("shard0", target());
+    }
+
+    @Test
+    void transactionKeepsShardOfItsFirstStatement() {
+        String[] targets = ShardRoutingDataSource.on(1, () -> transactionTemplate.execute(_ -> {
+            String first = target();
+            ShardRoutingDataSource.bind(2);
+            return new String[] { first, target() };
+        }));
+
+        assertNotNull(targets);
+        assertEquals("shard1", targets[0]);
+        assertEquals("shard1", targets[1]);
+    }
+
+    @Test
+    void propagatedTasksRunOnSubmitterShard() throws InterruptedException {
+        AtomicReference<String> target = new AtomicReference<>();
+        Runnable task = ShardRoutingDataSource.on(2, () -> ShardRoutingDataSource.propagate(() -> target.set(target())));
+
+        Thread worker = new Thread(task);
+        worker.start();
+        worker.join();
+
+        assertEquals("shard2", target.get());
+        assertEquals("shard0", target());
+    }
+
+    private String target() {
+        return jdbcTemplate.queryForObject("SELECT name FROM target", String.class);
+    }
+
+    private static DataSource database(int shard) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:shard-" + shard + ";DB_CLOSE_DELAY=-1");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS target (name VARCHAR(20))");
+        jdbcTemplate.execute("DELETE FROM target");
+        jdbcTemplate.update("INSERT INTO target VALUES (?)", "shard" + shard);
+        return dataSource;
+    }
+}
@@ -0,0 +1,44 @@
+package nicoAntonelli.managefy.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementCounterTests {
+    private final SqlStatementCounter inspector = new SqlStatementCounter();
+
+    @Test
+    void fingerprintsIgnoreValuesAndInListSizes() {
+        assertEquals(SqlStatementCounter.fingerprint("select p1_0.id from products p1_0 where p1_0.id=15 and p1_0.code='A''1'"),
+                     SqlStatementCounter.fingerprint("SELECT p1_0.id FROM products p1_0\n WHERE p1_0.id=7 AND p1_0.code='B'"));
+        assertEquals(SqlStatementCounter.fingerprint("delete from sales where id in (?, ?, ?)"),
+                     SqlStatementCounter.fingerprint("delete from sales where id in (?)"));
+
+        // Aliases aren't literals
+        assertTrue(SqlStatementCounter.fingerprint("select p1_0.id from products p1_0").contains("p1_0"));
+    }
+
+    @Test
+    void reportsRepeatedStatementsOnlyInsideTracking() {
+        String perProduct = "select p1_0.id from products p1_0 where p1_0.id=? and p1_0.businessid=?";
+        String business = "select b1_0.id from businesses b1_0 where b1_0.id=?";
+
+        // Outside a request: not counted
+        inspector.inspect(business);
+
+        SqlStatementCounter.Report report = SqlStatementCounter.track(() -> {
+            inspector.inspect(business);
+            for (int i = 0; i < 5; i++) inspector.inspect(perProduct);
+        });
+
+        assertEquals(6, report.statements());
+        assertEquals(List.of(SqlStatementCounter.fingerprint(perProduct)), List.copyOf(report.duplicates().keySet()));
+        assertEquals(5, report.duplicates().get(SqlStatementCounter.fingerprint(perProduct)));
+        assertTrue(report.histogram(10).contains("5x "));
+
+        // Tracking ended with the block
+        assertEquals(0, SqlStatementCounter.end().statements());
+    }
+}